@@ -0,0 +1,54 @@
+package com.example.campaignserver.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Overload protection for campaign creation, bound from
+ * {@code campaign.admission.*}. The sampling rate itself is
+ * {@code campaign.admission.sample-interval-ms}.
+ *
+ * Each lane has its own budget; transactional campaigns are small and
+ * latency sensitive, so they are normally given more headroom than bulk.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Bounds of the Retry-After returned with a 429. */
+    private Duration minRetryAfter = Duration.ofSeconds(1);
+    private Duration maxRetryAfter = Duration.ofMinutes(5);
+
+    /** Weight of the newest sample in the drain-rate averages. */
+    private double rateSmoothing = 0.3;
+
+    private Map<String, Budget> lanes = new HashMap<>(Map.of(
+            "TRANSACTIONAL", new Budget(1000, 256L * 1024 * 1024, 0.98),
+            "BULK", new Budget(200, 1024L * 1024 * 1024, 0.85)));
+
+    public Budget budgetFor(String lane) {
+        return lanes.getOrDefault(lane, new Budget());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        /** Campaign outbox events of the lane not yet finished (PENDING or PROCESSING). */
+        private long maxOutboxDepth = 500;
+
+        /** Recipient upload bytes being ingested across all requests. */
+        private long maxIngestBytes = 512L * 1024 * 1024;
+
+        /** Share of the primary connection pool in use. */
+        private double maxPoolUtilization = 0.9;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.campaignserver.config;
 
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -12,13 +15,28 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
  * For this take‑home, I keep async setup simple and rely on a small
  * fixed‑size thread pool that can be used by methods annotated with @Async
  * if needed in the future.
+ *
+ * With {@code spring.threads.virtual.enabled=true} every executor here starts
+ * a virtual thread per task instead of using a pool. Pool sizes that exist
+ * to bound work (transactional workers) become concurrency limits; the ones
+ * that only existed because platform threads are expensive go away, and
+ * database access is bounded by {@link ConnectionLimitingDataSource} instead.
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    private final boolean virtualThreads;
+
+    public AsyncConfig(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
     @Bean(name = "taskExecutor")
     public TaskExecutor taskExecutor() {
+        if (virtualThreads) {
+            return virtualExecutor("async-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -27,4 +45,81 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Threads that perform provider sends. The per-channel concurrency limits
+     * decide how many are busy at once, so the pool only needs to be as large
+     * as the sum of those limits can grow.
+     */
+    @Bean(name = "dispatchExecutor")
+    public TaskExecutor dispatchExecutor(DispatchProperties properties) {
+        if (virtualThreads) {
+            return virtualExecutor("dispatch-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setThreadNamePrefix("dispatch-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Send threads reserved for the transactional lane, so transactional
+     * messages never queue behind bulk sends for a thread.
+     */
+    @Bean(name = "transactionalDispatchExecutor")
+    public TaskExecutor transactionalDispatchExecutor(DispatchProperties properties) {
+        if (virtualThreads) {
+            return virtualExecutor("dispatch-tx-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getTransactional().getThreads());
+        executor.setMaxPoolSize(properties.getTransactional().getThreads());
+        executor.setThreadNamePrefix("dispatch-tx-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs transactional campaigns, independently of the scheduler thread that
+     * works through bulk campaigns.
+     */
+    @Bean(name = "transactionalWorkerExecutor")
+    public TaskExecutor transactionalWorkerExecutor(DispatchProperties properties) {
+        if (virtualThreads) {
+            return virtualExecutor("worker-tx-", properties.getTransactional().getWorkers());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getTransactional().getWorkers());
+        executor.setMaxPoolSize(properties.getTransactional().getWorkers());
+        executor.setThreadNamePrefix("worker-tx-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Decompresses recipient uploads alongside the thread that parses them.
+     * No queue: when every thread is busy the upload decompresses inline.
+     */
+    @Bean(name = "ingestExecutor")
+    public TaskExecutor ingestExecutor() {
+        if (virtualThreads) {
+            return virtualExecutor("ingest-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ingest-");
+        executor.initialize();
+        return executor;
+    }
+
+    private static TaskExecutor virtualExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-send delivery logging, bound from {@code campaign.delivery-log.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.delivery-log")
+public class DeliveryLogProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Events buffered between senders and the writer thread; rounded up to a
+     * power of two. Events arriving while it is full are counted and dropped.
+     */
+    private int bufferSize = 65536;
+
+    /** Successful sends logged individually per second; the rest are only counted. */
+    private int successSamplesPerSecond = 20;
+
+    /** How often failure and volume summaries are written. */
+    private Duration summaryInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,135 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the provider dispatcher, bound from {@code campaign.dispatch.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.dispatch")
+public class DispatchProperties {
+
+    /** Recipients handed to the dispatcher at a time. */
+    private int batchSize = 500;
+
+    /** Size of the send thread pool; upper bound for all channel limits together. */
+    private int threads = 64;
+
+    private Limiter limiter = new Limiter();
+
+    private Breaker breaker = new Breaker();
+
+    private Transactional transactional = new Transactional();
+
+    private Fairness fairness = new Fairness();
+
+    private Sharding sharding = new Sharding();
+
+    /**
+     * AIMD concurrency limit per channel.
+     */
+    @Data
+    public static class Limiter {
+        private int initialLimit = 8;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+
+        /** Multiplicative decrease applied on overload. */
+        private double backoffRatio = 0.7;
+
+        /** A send slower than baseline * tolerance counts as overload. */
+        private double latencyTolerance = 2.0;
+
+        /** Sends faster than this never count as overload, whatever the baseline. */
+        private Duration latencyFloor = Duration.ofMillis(20);
+    }
+
+    /**
+     * Circuit breaker per channel.
+     */
+    @Data
+    public static class Breaker {
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenProbes = 5;
+    }
+
+    /**
+     * Priority lane for transactional campaigns.
+     */
+    @Data
+    public static class Transactional {
+        /** Transactional campaigns processed at the same time. */
+        private int workers = 2;
+
+        /** Send threads reserved for transactional messages. */
+        private int threads = 16;
+
+        /** Share of each channel's concurrency limit that bulk sends may not use. */
+        private double reservedShare = 0.25;
+
+        /** Enqueue-to-send latency objective for transactional messages. */
+        private Duration p99Target = Duration.ofSeconds(2);
+
+        /** Longest a bulk campaign waits at a batch boundary for transactional work to finish. */
+        private Duration maxBulkPause = Duration.ofSeconds(2);
+
+        /** Window over which lane latency percentiles are reported. */
+        private Duration latencyWindow = Duration.ofMinutes(1);
+
+        /**
+         * How often new transactional events are planned and their shards
+         * claimed; bounds how long a transactional message waits before its
+         * first send.
+         */
+        private long pollIntervalMs = 250;
+    }
+
+    /**
+     * Tenant-fair scheduling of bulk campaigns.
+     *
+     * A tenant's weight is its monthly message limit divided by
+     * {@code referenceMessageLimit}, clamped to [1, maxWeight]; each round it
+     * may send {@code quantum * weight} messages.
+     */
+    @Data
+    public static class Fairness {
+        private long quantum = 1_000;
+        private long referenceMessageLimit = 1_000_000;
+        private int maxWeight = 8;
+
+        /** How often the dispatch loop looks for new campaigns while busy. */
+        private Duration admitInterval = Duration.ofSeconds(1);
+
+        public int weightFor(Integer monthlyMessageLimit) {
+            if (monthlyMessageLimit == null) {
+                return 1;
+            }
+            long weight = Math.round((double) monthlyMessageLimit / referenceMessageLimit);
+            return (int) Math.min(maxWeight, Math.max(1L, weight));
+        }
+    }
+
+    /**
+     * Splitting campaigns into recipient ranges that any node can claim.
+     */
+    @Data
+    public static class Sharding {
+        /** Recipients per shard. */
+        private int shardSize = 50_000;
+
+        /** How long a claimed shard stays with a node that stops renewing it. */
+        private Duration leaseDuration = Duration.ofMinutes(2);
+
+        /** Bulk shards this node rotates through at once. */
+        private int bulkShardsPerNode = 8;
+
+        /** Identifies this node as a lease owner; defaults to host name plus a random suffix. */
+        private String nodeId;
+    }
+}
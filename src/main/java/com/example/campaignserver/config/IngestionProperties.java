@@ -0,0 +1,33 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for chunked recipient ingestion, bound from
+ * {@code campaign.ingestion.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.ingestion")
+public class IngestionProperties {
+
+    /**
+     * A STAGING ingestion with no committed chunk for this long is assumed to
+     * belong to a dead request and is cleaned up.
+     */
+    private Duration staleAfter = Duration.ofMinutes(30);
+
+    /** Staged rows deleted per transaction when cleaning up. */
+    private int purgeBatchSize = 10_000;
+
+    /**
+     * Country calling code (e.g. 1 or 44) applied to phone numbers uploaded
+     * without one. Unset means such numbers are rejected.
+     */
+    private String defaultCallingCode;
+
+    /** Rejected rows kept per upload for the rejections report; the count keeps going past it. */
+    private int maxRejectedRows = 10_000;
+}
@@ -0,0 +1,28 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Local delivery journal, bound from {@code campaign.journal.*}. The
+ * checkpoint rate is {@code campaign.journal.checkpoint-interval-ms}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.journal")
+public class JournalProperties {
+
+    /**
+     * Append delivery outcomes to the local journal and fold them into the
+     * database on checkpoints, instead of updating the campaign per batch.
+     */
+    private boolean enabled = false;
+
+    /** Directory of the segment files; one journal per node, never shared. */
+    private String directory = "data/journal";
+
+    /** Size of each memory-mapped segment file. */
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    /** Outcome records folded into one checkpoint transaction at most. */
+    private int checkpointBatch = 100_000;
+}
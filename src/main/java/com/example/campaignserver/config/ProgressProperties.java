@@ -0,0 +1,22 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for live campaign progress streams, bound from
+ * {@code campaign.progress.*}. The push rate itself is
+ * {@code campaign.progress.push-interval-ms}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.progress")
+public class ProgressProperties {
+
+    /** How long a subscriber's stream stays open before the client must reconnect. */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    /** How often a watched campaign's stats are re-read, to show other nodes' sends and completion. */
+    private Duration resyncInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,83 @@
+package com.example.campaignserver.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Samples the replica's replay lag and decides whether it is fresh enough
+ * to serve reads.
+ *
+ * A replica that has replayed everything it received reports zero lag even
+ * when the primary has been idle for a while; otherwise the lag is the age
+ * of the last replayed transaction. Failed or missing samples count as
+ * unusable, so an unreachable replica falls back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long sampleTtlNanos;
+
+    private volatile long lagMillis = -1;
+    private volatile long sampledAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(2);
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.sampleTtlNanos = properties.getLagSampleTtl().toNanos();
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Number lag = replica.queryForObject(LAG_SQL, Number.class);
+            record(Duration.ofMillis(lag != null ? lag.longValue() : 0));
+        } catch (Exception e) {
+            if (usable || lagMillis >= 0) {
+                log.warn("[ReplicaLagMonitor] Replica check failed, routing reads to primary: {}", e.getMessage());
+            }
+            markUnavailable();
+        }
+    }
+
+    /** True when the last sample is recent and within the allowed lag. */
+    public boolean isUsable() {
+        return usable && System.nanoTime() - sampledAt <= sampleTtlNanos;
+    }
+
+    /** Last sampled lag in milliseconds, or -1 when the replica is unreachable. */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void record(Duration lag) {
+        boolean fresh = lag.toMillis() <= maxLagMillis;
+        if (fresh != usable) {
+            log.info("[ReplicaLagMonitor] Replica lag {}ms, reads now go to {}",
+                    lag.toMillis(), fresh ? "replica" : "primary");
+        }
+        lagMillis = lag.toMillis();
+        sampledAt = System.nanoTime();
+        usable = fresh;
+    }
+
+    void markUnavailable() {
+        lagMillis = -1;
+        usable = false;
+    }
+}
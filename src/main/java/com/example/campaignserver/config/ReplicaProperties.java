@@ -0,0 +1,41 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read-replica settings, bound from {@code campaign.replica.*}.
+ *
+ * When enabled, {@code @Transactional(readOnly = true)} work is routed to a
+ * second connection pool pointing at a streaming replica; everything else
+ * keeps using {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * Staleness policy: read-only transactions go to the primary while the
+     * replica is further behind than this.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /** How often the replica's replay lag is sampled. */
+    private long lagCheckIntervalMs = 1000;
+
+    /**
+     * A lag sample older than this is treated as unknown and reads fall back
+     * to the primary until the next successful check.
+     */
+    private Duration lagSampleTtl = Duration.ofSeconds(5);
+}
@@ -0,0 +1,47 @@
+package com.example.campaignserver.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the delayed-retry queue, bound from {@code campaign.retry.*}.
+ *
+ * Only error codes listed under {@code backoff} are retried; anything else
+ * (e.g. UNKNOWN_CHANNEL) fails on the first attempt.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.retry")
+public class RetryProperties {
+
+    /** Total provider attempts per recipient, including the first send. */
+    private int maxAttempts = 5;
+
+    /** Due retries claimed per poll. */
+    private int batchSize = 100;
+
+    /**
+     * How long claimed retries stay hidden from other workers while they are
+     * sent. Rows of a worker that stopped mid-send are retried after this.
+     */
+    private Duration claimTimeout = Duration.ofMinutes(5);
+
+    private Map<String, Backoff> backoff = new HashMap<>(Map.of(
+            "RATE_LIMITED", new Backoff(Duration.ofSeconds(2), Duration.ofMinutes(5), 2.0),
+            "PROVIDER_FAILURE", new Backoff(Duration.ofSeconds(10), Duration.ofMinutes(30), 2.0),
+            "CIRCUIT_OPEN", new Backoff(Duration.ofSeconds(10), Duration.ofMinutes(5), 2.0)));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Backoff {
+        private Duration initialDelay = Duration.ofSeconds(5);
+        private Duration maxDelay = Duration.ofMinutes(10);
+        private double multiplier = 2.0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for SCHEDULED campaigns, bound from {@code campaign.schedule.*}.
+ * The polling rates themselves are {@code campaign.schedule.activation-interval-ms}
+ * and {@code campaign.schedule.prewarm-interval-ms}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.schedule")
+public class ScheduleProperties {
+
+    /** Prepare ready-to-send recipient pages before a scheduled campaign starts. */
+    private boolean prewarmEnabled = true;
+
+    /** How long before scheduledAt a campaign is pre-warmed. */
+    private Duration prewarmWindow = Duration.ofMinutes(15);
+
+    /** Pages held in memory before they are written out while pre-warming. */
+    private int prewarmWriteBatch = 50;
+}
@@ -0,0 +1,75 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Behaviour of {@link com.example.campaignserver.provider.SimulatedNotificationProvider},
+ * bound from {@code campaign.simulator.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.simulator")
+public class SimulatorProperties {
+
+    /**
+     * Seed for reproducible runs. Each send's draws derive from the seed, its
+     * destination and how many sends that destination has had, so a run is
+     * repeatable whatever the thread count or interleaving. Null uses
+     * ThreadLocalRandom.
+     */
+    private Long seed;
+
+    /** Probability that an accepted send fails with PROVIDER_FAILURE. */
+    private double failureRate = 0.20;
+
+    private Latency latency = new Latency();
+
+    /** Throughput ceiling per channel (EMAIL, SMS, PUSH); unlisted channels are unlimited. */
+    private Map<String, Channel> channels = new HashMap<>();
+
+    private Burst burst = new Burst();
+
+    public enum Distribution {
+        FIXED, NORMAL, LONG_TAIL
+    }
+
+    /**
+     * Per-send latency.
+     * FIXED always waits {@code mean}; NORMAL draws from N(mean, stddev);
+     * LONG_TAIL is log-normal with median {@code mean} and shape
+     * {@code tailSigma} (1.0 puts p99 at roughly 10x the median).
+     */
+    @Data
+    public static class Latency {
+        private Distribution distribution = Distribution.FIXED;
+        private Duration mean = Duration.ZERO;
+        private Duration stddev = Duration.ZERO;
+        private double tailSigma = 1.0;
+        private Duration max = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Channel {
+        /** Sustained sends per second before RATE_LIMITED; 0 means unlimited. */
+        private int throughputPerSecond;
+
+        /** Sends allowed above the sustained rate in a burst; defaults to one second's worth. */
+        private Integer burstCapacity;
+    }
+
+    /**
+     * Recurring outage windows: for {@code duration} at the start of every
+     * {@code period}, sends fail with {@code failureRate} instead of the base rate.
+     */
+    @Data
+    public static class Burst {
+        private boolean enabled = false;
+        private Duration period = Duration.ofMinutes(5);
+        private Duration duration = Duration.ofSeconds(30);
+        private double failureRate = 0.9;
+    }
+}
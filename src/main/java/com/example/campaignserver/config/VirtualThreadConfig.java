@@ -0,0 +1,45 @@
+package com.example.campaignserver.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Extra wiring for virtual-thread mode ({@code spring.threads.virtual.enabled=true}).
+ *
+ * Spring Boot already runs Tomcat requests and {@code @Scheduled} methods on
+ * virtual threads in this mode, and {@link AsyncConfig} switches the
+ * application executors. This adds the pieces Boot does not: a fair permit
+ * gate in front of the connection pool and a JFR monitor for pinned
+ * carrier threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingPostProcessor(ObjectProvider<VirtualThreadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = hikari.getMaximumPoolSize();
+                log.info("Virtual threads enabled: limiting '{}' to {} concurrent connections", beanName, permits);
+                return new ConnectionLimitingDataSource(hikari, permits, properties.getObject().getConnectionWait());
+            }
+        };
+    }
+
+    @Bean
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties properties) {
+        return new VirtualThreadPinningMonitor(properties);
+    }
+}
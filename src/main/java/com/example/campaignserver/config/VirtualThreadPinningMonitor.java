@@ -0,0 +1,98 @@
+package com.example.campaignserver.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds code that pins virtual threads to their carrier.
+ *
+ * A virtual thread that blocks inside {@code synchronized} (or a native
+ * frame) keeps its carrier thread busy, which quietly caps concurrency at the
+ * number of carriers. This listens for JFR {@code jdk.VirtualThreadPinned}
+ * events and counts them by the first application frame on the stack,
+ * logging each new hot spot once.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final String APP_PACKAGE = "com.example.campaignserver.";
+
+    private final VirtualThreadProperties properties;
+    private final Map<String, LongAdder> hotSpots = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isPinningMonitor()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(properties.getPinningThreshold())
+                .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::record);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {})", properties.getPinningThreshold());
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Pinning events per code location, most frequent first.
+     */
+    public Map<String, Long> getHotSpots() {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        hotSpots.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue().sum()));
+        return sorted;
+    }
+
+    private void record(RecordedEvent event) {
+        String location = location(event.getStackTrace());
+        LongAdder count = hotSpots.computeIfAbsent(location, key -> {
+            log.warn("Virtual thread pinned for {} at {}", event.getDuration(), key);
+            return new LongAdder();
+        });
+        count.increment();
+    }
+
+    private static String location(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        if (frames.isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.campaignserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings that only apply when {@code spring.threads.virtual.enabled} is
+ * true, bound from {@code campaign.virtual-threads.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "campaign.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * How long a thread may wait for a database connection permit before the
+     * request fails. Virtual threads are cheap, connections are not: without
+     * this gate thousands of them would pile up inside the Hikari pool.
+     */
+    private Duration connectionWait = Duration.ofSeconds(30);
+
+    /** Record pinned virtual threads through JFR and report the hot spots. */
+    private boolean pinningMonitor = true;
+
+    /** Pinning shorter than this is not reported. */
+    private Duration pinningThreshold = Duration.ofMillis(20);
+}
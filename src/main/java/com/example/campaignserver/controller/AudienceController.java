@@ -0,0 +1,85 @@
+package com.example.campaignserver.controller;
+
+import com.example.campaignserver.dto.response.ApiResponse;
+import com.example.campaignserver.dto.response.AudienceResponse;
+import com.example.campaignserver.service.AudienceService;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reusable recipient lists. The body of both upload endpoints is the raw
+ * recipient CSV (same columns as a campaign upload), optionally gzip or zstd
+ * compressed.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/audiences")
+@RequiredArgsConstructor
+@Validated
+public class AudienceController {
+
+    private final AudienceService audienceService;
+
+    @PostMapping(consumes = { "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<ApiResponse<AudienceResponse>> createAudience(
+            @RequestParam("tenantId") UUID tenantId,
+            @RequestParam("name") String name,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream members) {
+        log.info("[POST /audiences] tenant={} name={}", tenantId, name);
+        AudienceResponse resp = audienceService.createAudience(tenantId, name, members, contentEncoding);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Audience created", resp));
+    }
+
+    /**
+     * Uploads a new version of the audience. Campaigns created before this
+     * call keep sending to the version they were created with.
+     */
+    @PostMapping(path = "/{id}/snapshots", consumes = { "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<ApiResponse<AudienceResponse>> uploadSnapshot(
+            @PathVariable UUID id,
+            @RequestParam("tenantId") UUID tenantId,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream members) {
+        log.info("[POST /audiences/{}/snapshots] tenant={}", id, tenantId);
+        AudienceResponse resp = audienceService.uploadSnapshot(tenantId, id, members, contentEncoding);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.ok("Audience snapshot created", resp));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AudienceResponse>>> getAudiences(@RequestParam @NotNull UUID tenantId) {
+        return ResponseEntity.ok(ApiResponse.ok(audienceService.getAudiences(tenantId)));
+    }
+
+    /**
+     * Rows rejected by validation from the upload of the current version, as
+     * CSV.
+     */
+    @GetMapping("/{id}/rejections")
+    public ResponseEntity<StreamingResponseBody> getRejections(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(audienceService.rejectionsReport(tenantId, id));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<AudienceResponse>> getAudience(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId) {
+        return ResponseEntity.ok(ApiResponse.ok(audienceService.getAudience(tenantId, id)));
+    }
+}
@@ -2,21 +2,40 @@ package com.example.campaignserver.controller;
 
 import com.example.campaignserver.dto.request.CampaignCreateRequest;
 import com.example.campaignserver.dto.response.ApiResponse;
+import com.example.campaignserver.dto.response.CampaignProfileResponse;
 import com.example.campaignserver.dto.response.CampaignResponse;
+import com.example.campaignserver.dto.response.CursorPage;
 import com.example.campaignserver.dto.response.PagedResponse;
+import com.example.campaignserver.dto.response.RecipientChangeResponse;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.exception.CsvParseException;
+import com.example.campaignserver.service.AdmissionController;
+import com.example.campaignserver.service.CampaignProfileService;
 import com.example.campaignserver.service.CampaignService;
+import com.example.campaignserver.service.DeliveryReportService;
+import com.example.campaignserver.service.RecipientChangeService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller class for Campaign related endpoints.
@@ -30,10 +49,16 @@ import java.util.UUID;
 public class CampaignController {
 
     private final CampaignService campaignService;
+    private final DeliveryReportService deliveryReportService;
+    private final AdmissionController admissionController;
+    private final CampaignProfileService profileService;
+    private final RecipientChangeService recipientChangeService;
 
     /**
      * Endpoint for creating a new campaign.
      * It accepts various parameters as part of a multipart form.
+     * Answers 429 with a Retry-After while the server is over its admission
+     * budget for the campaign's lane.
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ApiResponse<CampaignResponse>> createCampaign(
@@ -43,7 +68,8 @@ public class CampaignController {
             @RequestParam("messageTemplate") String messageTemplate,
             @RequestParam(value = "isTransactional", defaultValue = "false") boolean isTransactional,
             @RequestParam(value = "scheduledAt", required = false) Instant scheduledAt,
-            @RequestParam(value = "recipients", required = false) MultipartFile recipientsCsv) {
+            @RequestParam(value = "recipients", required = false) MultipartFile recipientsCsv,
+            @RequestParam(value = "audienceId", required = false) UUID audienceId) {
 
         log.info("Received request to create campaign. Tenant: {}, Name: {}, Channel: {}", tenantId, name, channel);
 
@@ -56,9 +82,12 @@ public class CampaignController {
                 .isTransactional(isTransactional)
                 .scheduledAt(scheduledAt)
                 .recipientsCsv(recipientsCsv)
+                .audienceId(audienceId)
                 .build();
 
-        try {
+        long uploadBytes = recipientsCsv != null ? recipientsCsv.getSize() : 0;
+        try (AdmissionController.Permit permit = admissionController.admit(DispatchLane.of(isTransactional),
+                uploadBytes)) {
             // Call service to handle the heavy lifting
             CampaignResponse response = campaignService.createCampaign(request);
             log.info("Campaign created successfully for tenant {}", tenantId);
@@ -74,6 +103,98 @@ public class CampaignController {
         }
     }
 
+    /**
+     * Endpoint for creating a campaign from a streamed CSV body.
+     * Campaign fields come as query parameters and the request body is the raw
+     * recipient CSV, which is parsed while it is being received. Unlike the
+     * multipart endpoint nothing is buffered to disk and there is no size cap.
+     * The body may be gzip or zstd compressed (Content-Encoding, or detected).
+     * Subject to the same admission control as the multipart endpoint.
+     */
+    @PostMapping(consumes = { "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<ApiResponse<CampaignResponse>> createCampaignStreamed(
+            @RequestParam("tenantId") UUID tenantId,
+            @RequestParam("name") String name,
+            @RequestParam("channel") String channel,
+            @RequestParam("messageTemplate") String messageTemplate,
+            @RequestParam(value = "isTransactional", defaultValue = "false") boolean isTransactional,
+            @RequestParam(value = "scheduledAt", required = false) Instant scheduledAt,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream recipientsStream) {
+
+        log.info("Received streamed campaign upload. Tenant: {}, Name: {}, Channel: {}", tenantId, name, channel);
+
+        boolean lengthKnown = contentLength != null && contentLength > 0;
+        try (AdmissionController.Permit permit = admissionController.admit(DispatchLane.of(isTransactional),
+                lengthKnown ? contentLength : 0)) {
+            InputStream body = lengthKnown ? recipientsStream : permit.track(recipientsStream);
+            return createFromStream(tenantId, name, channel, messageTemplate, isTransactional, scheduledAt,
+                    contentEncoding, body);
+        }
+    }
+
+    private ResponseEntity<ApiResponse<CampaignResponse>> createFromStream(UUID tenantId, String name,
+            String channel, String messageTemplate, boolean isTransactional, Instant scheduledAt,
+            String contentEncoding, InputStream recipientsStream) {
+        CampaignCreateRequest request = CampaignCreateRequest.builder()
+                .tenantId(tenantId)
+                .name(name)
+                .channel(channel.toUpperCase())
+                .messageTemplate(messageTemplate)
+                .isTransactional(isTransactional)
+                .scheduledAt(scheduledAt)
+                .recipientsStream(recipientsStream)
+                .recipientsEncoding(contentEncoding)
+                .build();
+
+        CampaignResponse response = campaignService.createCampaign(request);
+        return new ResponseEntity<>(ApiResponse.ok("Campaign created and queued for processing", response),
+                HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Appends, replaces or removes recipients of a SCHEDULED or RUNNING
+     * campaign from an uploaded CSV; mode is append (default), replace or
+     * remove. Only rows that actually change are written, and a running
+     * campaign picks up appended recipients without restarting.
+     */
+    @PostMapping(path = "/{id}/recipients", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<RecipientChangeResponse>> changeRecipients(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId,
+            @RequestParam(defaultValue = "append") String mode,
+            @RequestParam("recipients") MultipartFile recipientsCsv) {
+
+        log.info("Recipient {} upload for campaign {} (Tenant: {})", mode, id, tenantId);
+
+        try (InputStream in = recipientsCsv.getInputStream()) {
+            RecipientChangeResponse response = recipientChangeService.applyChanges(tenantId, id, mode, in, null);
+            return ResponseEntity.ok(ApiResponse.ok("Recipients updated", response));
+        } catch (IOException e) {
+            throw new CsvParseException("Failed to read CSV file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as the multipart variant with the CSV as the raw, optionally
+     * compressed, request body.
+     */
+    @PostMapping(path = "/{id}/recipients", consumes = { "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<ApiResponse<RecipientChangeResponse>> changeRecipientsStreamed(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId,
+            @RequestParam(defaultValue = "append") String mode,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream recipientsStream) {
+
+        log.info("Streamed recipient {} upload for campaign {} (Tenant: {})", mode, id, tenantId);
+
+        RecipientChangeResponse response = recipientChangeService.applyChanges(tenantId, id, mode,
+                recipientsStream, contentEncoding);
+        return ResponseEntity.ok(ApiResponse.ok("Recipients updated", response));
+    }
+
     /**
      * Endpoint to list campaigns for a tenant with pagination support.
      */
@@ -91,6 +212,86 @@ public class CampaignController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Keyset-paginated listing, selected by passing {@code limit} instead of
+     * page/size. Start without a cursor and pass each response's nextCursor
+     * to get the next page.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<CampaignResponse>>> getCampaignsByCursor(
+            @RequestParam @NotNull UUID tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam @Min(1) @Max(200) int limit) {
+
+        log.info("Getting campaigns for tenant {} - cursor {}, limit {}", tenantId, cursor, limit);
+
+        return ResponseEntity.ok(ApiResponse.ok(campaignService.getCampaignsByCursor(tenantId, cursor, limit)));
+    }
+
+    /**
+     * Server-Sent Events stream of a campaign's progress: a "snapshot" event
+     * with the current stats, then "progress" events with coalesced changes
+     * until the campaign completes. Replaces polling GET /campaigns/{id}.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCampaignEvents(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId) {
+        log.info("Opening progress stream for campaign {} (tenant {})", id, tenantId);
+        return campaignService.streamProgress(tenantId, id);
+    }
+
+    /**
+     * Streams per-recipient delivery outcomes as CSV (default) or NDJSON.
+     * The body is gzip-compressed when the client accepts it.
+     */
+    @GetMapping("/{id}/report")
+    public ResponseEntity<StreamingResponseBody> getDeliveryReport(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        DeliveryReportService.Format reportFormat = DeliveryReportService.Format.valueOf(format.toUpperCase());
+        Campaign campaign = deliveryReportService.findCampaign(tenantId, id);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("Exporting delivery report for campaign {} as {} (gzip: {})", id, reportFormat, gzip);
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            deliveryReportService.writeReport(campaign, reportFormat, target);
+        };
+
+        String extension = reportFormat == DeliveryReportService.Format.NDJSON ? "ndjson" : "csv";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(reportFormat == DeliveryReportService.Format.NDJSON
+                        ? MediaType.parseMediaType("application/x-ndjson")
+                        : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"campaign-" + id + "-report." + extension + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Rows rejected by validation from the campaign's recipient upload, as
+     * CSV.
+     */
+    @GetMapping("/{id}/rejections")
+    public ResponseEntity<StreamingResponseBody> getRejections(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId) {
+        log.info("Exporting rejected rows for campaign {}", id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"campaign-" + id + "-rejections.csv\"")
+                .body(campaignService.rejectionsReport(tenantId, id));
+    }
+
     /**
      * Endpoint to get details of a specific campaign by its ID.
      */
@@ -112,6 +313,17 @@ public class CampaignController {
         return ResponseEntity.ok(ApiResponse.ok(response));
     }
 
+    /**
+     * Phase timings of a campaign: ingestion, outbox wait, startup and
+     * per-batch load/send latency.
+     */
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<ApiResponse<CampaignProfileResponse>> getCampaignProfile(
+            @PathVariable UUID id,
+            @RequestParam @NotNull UUID tenantId) {
+        return ResponseEntity.ok(ApiResponse.ok(profileService.getProfile(tenantId, id)));
+    }
+
     /**
      * Endpoint to manually trigger a retry for failed jobs in a campaign.
      * Re-queues all FAILED jobs so they can be processed again.
@@ -0,0 +1,57 @@
+package com.example.campaignserver.controller;
+
+import com.example.campaignserver.config.VirtualThreadPinningMonitor;
+import com.example.campaignserver.dispatch.LaneCoordinator;
+import com.example.campaignserver.dispatch.NotificationDispatcher;
+import com.example.campaignserver.dto.response.ApiResponse;
+import com.example.campaignserver.dto.response.ChannelDispatchStats;
+import com.example.campaignserver.dto.response.LaneStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of the dispatch engine for operators.
+ */
+@RestController
+@RequestMapping("/dispatch")
+@RequiredArgsConstructor
+public class DispatchController {
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final LaneCoordinator laneCoordinator;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    /**
+     * Current concurrency limit and circuit breaker state per provider channel.
+     */
+    @GetMapping("/channels")
+    public ResponseEntity<ApiResponse<List<ChannelDispatchStats>>> getChannels() {
+        return ResponseEntity.ok(ApiResponse.ok(notificationDispatcher.getChannelStats()));
+    }
+
+    /**
+     * Queue depth and enqueue-to-send latency per lane, including whether the
+     * transactional p99 is within its target.
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<ApiResponse<List<LaneStats>>> getLanes() {
+        return ResponseEntity.ok(ApiResponse.ok(laneCoordinator.getLaneStats()));
+    }
+
+    /**
+     * Where virtual threads were pinned to their carrier, by code location.
+     * Empty unless virtual threads are enabled.
+     */
+    @GetMapping("/pinning")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getPinningHotSpots() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        return ResponseEntity.ok(ApiResponse.ok(monitor != null ? monitor.getHotSpots() : Map.of()));
+    }
+}
@@ -3,14 +3,18 @@ package com.example.campaignserver.controller;
 import com.example.campaignserver.dto.request.TenantCreateRequest;
 import com.example.campaignserver.dto.response.ApiResponse;
 import com.example.campaignserver.dto.response.TenantResponse;
+import com.example.campaignserver.dto.response.TenantUsageResponse;
+import com.example.campaignserver.service.DeliveryRollupService;
 import com.example.campaignserver.service.TenantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +25,7 @@ import java.util.UUID;
 public class TenantController {
 
     private final TenantService tenantService;
+    private final DeliveryRollupService rollupService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<TenantResponse>> createTenant(
@@ -39,4 +44,17 @@ public class TenantController {
     public ResponseEntity<ApiResponse<TenantResponse>> getTenantById(@PathVariable UUID id) {
         return ResponseEntity.ok(ApiResponse.ok(tenantService.getTenantById(id)));
     }
+
+    /**
+     * Sent, failed and deferred sends per channel and hour or day, from the
+     * delivery rollups. Defaults to the current month by day.
+     */
+    @GetMapping("/{id}/usage")
+    public ResponseEntity<ApiResponse<TenantUsageResponse>> getUsage(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(ApiResponse.ok(rollupService.getUsage(id, granularity, from, to)));
+    }
 }
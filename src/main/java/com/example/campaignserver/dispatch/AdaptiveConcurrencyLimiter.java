@@ -0,0 +1,177 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit for one provider channel.
+ *
+ * Every successful send within the latency budget grows the limit by 1/limit
+ * (about +1 per round trip of the whole window); an overload signal — a
+ * RATE_LIMITED or failed send, or a send much slower than the observed
+ * baseline — cuts it by {@code backoffRatio}. Under steady load the limit
+ * settles just below the point where the provider starts pushing back.
+ *
+ * Priority (transactional) callers are served first, and non-priority callers
+ * may only use the limit minus a reserved share, so a saturating bulk campaign
+ * always leaves room for transactional sends.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final DispatchProperties.Limiter config;
+    private final long latencyFloorNanos;
+    private final double reservedShare;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int priorityWaiters;
+    private double baselineLatencyNanos;
+
+    public AdaptiveConcurrencyLimiter(DispatchProperties.Limiter config) {
+        this(config, 0.0);
+    }
+
+    public AdaptiveConcurrencyLimiter(DispatchProperties.Limiter config, double reservedShare) {
+        this.config = config;
+        this.latencyFloorNanos = config.getLatencyFloor().toNanos();
+        this.reservedShare = reservedShare;
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Blocks until a non-priority send slot is free.
+     */
+    public void acquire() throws InterruptedException {
+        acquire(false);
+    }
+
+    /**
+     * Blocks until a send slot is free.
+     *
+     * @param priority true for transactional sends, which may use the whole
+     *                 limit and go ahead of waiting bulk sends
+     */
+    public void acquire(boolean priority) throws InterruptedException {
+        lock.lock();
+        try {
+            if (priority) {
+                priorityWaiters++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        permitReleased.await();
+                    }
+                } finally {
+                    priorityWaiters--;
+                    permitReleased.signalAll();
+                }
+            } else {
+                while (inFlight >= bulkCeiling() || priorityWaiters > 0) {
+                    permitReleased.await();
+                }
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot after a send the provider accepted.
+     */
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (isSlow(latencyNanos)) {
+                decrease();
+            } else if (saturated) {
+                // Only grow while the current limit is actually being used
+                limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+            }
+            updateBaseline(latencyNanos);
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot after the provider signalled overload.
+     */
+    public void onOverload() {
+        lock.lock();
+        try {
+            inFlight--;
+            decrease();
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot without adjusting the limit (e.g. a client-side error).
+     */
+    public void onIgnore() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int bulkCeiling() {
+        int current = (int) limit;
+        int reserved = (int) Math.ceil(current * reservedShare);
+        return Math.max(1, current - reserved);
+    }
+
+    private boolean isSlow(long latencyNanos) {
+        return baselineLatencyNanos > 0
+                && latencyNanos > latencyFloorNanos
+                && latencyNanos > baselineLatencyNanos * config.getLatencyTolerance();
+    }
+
+    /**
+     * Tracks a low-water-mark latency: drops immediately to faster samples and
+     * drifts slowly towards slower ones, so the baseline follows the provider
+     * without chasing congestion.
+     */
+    private void updateBaseline(long latencyNanos) {
+        if (baselineLatencyNanos == 0 || latencyNanos < baselineLatencyNanos) {
+            baselineLatencyNanos = latencyNanos;
+        } else {
+            baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * 0.01;
+        }
+    }
+
+    private void decrease() {
+        limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+    }
+}
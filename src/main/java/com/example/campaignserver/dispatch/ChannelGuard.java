@@ -0,0 +1,22 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import lombok.Getter;
+
+/**
+ * Concurrency limiter and circuit breaker for a single provider channel.
+ */
+@Getter
+public class ChannelGuard {
+
+    private final String channel;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker breaker;
+
+    public ChannelGuard(String channel, DispatchProperties properties) {
+        this.channel = channel;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties.getLimiter(),
+                properties.getTransactional().getReservedShare());
+        this.breaker = new CircuitBreaker(properties.getBreaker());
+    }
+}
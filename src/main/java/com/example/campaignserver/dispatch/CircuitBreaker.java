@@ -0,0 +1,171 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one provider channel.
+ *
+ * CLOSED tracks the failure rate over the last {@code windowSize} sends and
+ * trips to OPEN past the threshold. OPEN rejects everything for
+ * {@code openDuration}, then HALF_OPEN lets {@code halfOpenProbes} sends
+ * through: all of them succeeding closes the breaker, any failure reopens it.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final DispatchProperties.Breaker config;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    public CircuitBreaker(DispatchProperties.Breaker config) {
+        this(config, System::nanoTime);
+    }
+
+    CircuitBreaker(DispatchProperties.Breaker config, LongSupplier nanoClock) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[config.getWindowSize()];
+    }
+
+    /**
+     * @return true if a send may go to the provider now
+     */
+    public boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAtNanos < config.getOpenDuration().toNanos()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesIssued = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesIssued >= config.getHalfOpenProbes()) {
+                    return false;
+                }
+                probesIssued++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * How long until {@link #tryAcquirePermission} could pass, without taking
+     * a probe.
+     *
+     * @return 0 if a send may go through now; the rest of the open window
+     *         while OPEN; {@link Long#MAX_VALUE} while HALF_OPEN with every
+     *         probe still out
+     */
+    public long nanosUntilPermitted() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                return Math.max(0, config.getOpenDuration().toNanos() - (nanoClock.getAsLong() - openedAtNanos));
+            }
+            if (state == State.HALF_OPEN && probesIssued >= config.getHalfOpenProbes()) {
+                return Long.MAX_VALUE;
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++probesSucceeded >= config.getHalfOpenProbes()) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (windowCount >= config.getMinimumCalls()
+                        && windowFailures >= windowCount * config.getFailureRateThreshold()) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getFailureRate() {
+        lock.lock();
+        try {
+            return windowCount == 0 ? 0.0 : (double) windowFailures / windowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
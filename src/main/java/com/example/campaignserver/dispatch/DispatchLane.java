@@ -0,0 +1,14 @@
+package com.example.campaignserver.dispatch;
+
+/**
+ * Dispatch lanes. TRANSACTIONAL campaigns (password resets, OTPs, ...) get
+ * reserved threads and provider capacity and preempt BULK work at batch
+ * boundaries.
+ */
+public enum DispatchLane {
+    TRANSACTIONAL, BULK;
+
+    public static DispatchLane of(boolean isTransactional) {
+        return isTransactional ? TRANSACTIONAL : BULK;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import com.example.campaignserver.dto.response.LaneStats;
+import com.example.campaignserver.metrics.LatencyHistogram;
+import com.example.campaignserver.metrics.RollingLatencyHistogram;
+import com.example.campaignserver.repository.OutboxRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinates the TRANSACTIONAL and BULK lanes.
+ *
+ * Tracks how many campaigns each lane has queued or running, makes bulk work
+ * yield at batch boundaries while transactional campaigns are active, and
+ * keeps a rolling enqueue-to-send latency histogram per lane so the
+ * transactional p99 can be checked against its target.
+ */
+@Component
+public class LaneCoordinator {
+
+    private final DispatchProperties.Transactional config;
+    private final OutboxRepository outboxRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition transactionalIdle = lock.newCondition();
+    private final Map<DispatchLane, Integer> active = new EnumMap<>(DispatchLane.class);
+    private final Map<DispatchLane, RollingLatencyHistogram> latencies = new EnumMap<>(DispatchLane.class);
+
+    public LaneCoordinator(DispatchProperties properties, OutboxRepository outboxRepository) {
+        this.config = properties.getTransactional();
+        this.outboxRepository = outboxRepository;
+        for (DispatchLane lane : DispatchLane.values()) {
+            active.put(lane, 0);
+            latencies.put(lane, new RollingLatencyHistogram(config.getLatencyWindow()));
+        }
+    }
+
+    public void enter(DispatchLane lane) {
+        lock.lock();
+        try {
+            active.merge(lane, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void exit(DispatchLane lane) {
+        lock.lock();
+        try {
+            int remaining = active.merge(lane, -1, Integer::sum);
+            if (lane == DispatchLane.TRANSACTIONAL && remaining == 0) {
+                transactionalIdle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called by bulk work between batches. Waits while transactional campaigns
+     * are queued or running, but never longer than {@code maxBulkPause}, so a
+     * steady stream of transactional traffic cannot starve bulk campaigns.
+     */
+    public void awaitBulkTurn() throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = config.getMaxBulkPause().toNanos();
+            while (active.get(DispatchLane.TRANSACTIONAL) > 0 && remaining > 0) {
+                remaining = transactionalIdle.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordLatency(DispatchLane lane, long nanos) {
+        latencies.get(lane).recordNanos(nanos);
+    }
+
+    public List<LaneStats> getLaneStats() {
+        return Arrays.stream(DispatchLane.values()).map(this::statsFor).toList();
+    }
+
+    private LaneStats statsFor(DispatchLane lane) {
+        LatencyHistogram histogram = latencies.get(lane).snapshot();
+        long p99Millis = TimeUnit.MICROSECONDS.toMillis(histogram.percentileMicros(99.0));
+        Long targetMillis = lane == DispatchLane.TRANSACTIONAL ? config.getP99Target().toMillis() : null;
+        int activeCampaigns;
+        lock.lock();
+        try {
+            activeCampaigns = active.get(lane);
+        } finally {
+            lock.unlock();
+        }
+
+        return LaneStats.builder()
+                .lane(lane.name())
+                .queuedEvents(outboxRepository.countByStatusAndLane("PENDING", lane.name()))
+                .activeCampaigns(activeCampaigns)
+                .sampleCount(histogram.getTotalCount())
+                .p50Millis(TimeUnit.MICROSECONDS.toMillis(histogram.percentileMicros(50.0)))
+                .p99Millis(p99Millis)
+                .maxMillis(TimeUnit.MICROSECONDS.toMillis(histogram.getMaxMicros()))
+                .p99TargetMillis(targetMillis)
+                .withinTarget(targetMillis == null || p99Millis <= targetMillis)
+                .build();
+    }
+}
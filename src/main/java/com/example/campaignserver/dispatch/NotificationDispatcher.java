@@ -0,0 +1,208 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import com.example.campaignserver.dto.response.ChannelDispatchStats;
+import com.example.campaignserver.provider.ProviderResponse;
+import com.example.campaignserver.provider.SimulatedNotificationProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Sends batches of messages to the provider concurrently, guarded per channel.
+ *
+ * Each channel has an {@link AdaptiveConcurrencyLimiter} that decides how many
+ * sends may be in flight and a {@link CircuitBreaker} that sheds sends while
+ * the provider is failing. Once the breaker refuses a send, the rest of the
+ * batch is shed with error code CIRCUIT_OPEN without reaching the provider;
+ * campaign dispatch resumes from the first shed row once
+ * {@link #isChannelPermitting} (or, on a dedicated worker,
+ * {@link #awaitChannel}) says the breaker lets sends through, and the retry
+ * path reschedules shed rows without spending an attempt.
+ *
+ * TRANSACTIONAL sends run on their own thread pool and take priority on the
+ * channel limiter; when the caller passes the time the work was enqueued, the
+ * enqueue-to-send latency is recorded for the lane.
+ *
+ * Campaign dispatch passes a columnar {@link RecipientBatch} and reads the
+ * outcomes back from it; the retry path passes a list of {@link SendTask}s.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+
+    // Upper bound on one sleep while waiting for a breaker
+    private static final long BREAKER_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SimulatedNotificationProvider notificationProvider;
+    private final TaskExecutor dispatchExecutor;
+    private final TaskExecutor transactionalDispatchExecutor;
+    private final LaneCoordinator laneCoordinator;
+    private final DispatchProperties properties;
+    private final Map<String, ChannelGuard> guards = new ConcurrentHashMap<>();
+
+    public NotificationDispatcher(SimulatedNotificationProvider notificationProvider,
+            @Qualifier("dispatchExecutor") TaskExecutor dispatchExecutor,
+            @Qualifier("transactionalDispatchExecutor") TaskExecutor transactionalDispatchExecutor,
+            LaneCoordinator laneCoordinator,
+            DispatchProperties properties) {
+        this.notificationProvider = notificationProvider;
+        this.dispatchExecutor = dispatchExecutor;
+        this.transactionalDispatchExecutor = transactionalDispatchExecutor;
+        this.laneCoordinator = laneCoordinator;
+        this.properties = properties;
+    }
+
+    /**
+     * Sends one message per task and waits for all of them. Tasks shed by an
+     * open breaker come back with error code CIRCUIT_OPEN.
+     *
+     * @param enqueuedAt when the work was queued, for lane latency tracking; null to skip
+     * @return results in the same order as the tasks
+     */
+    public List<SendResult> dispatch(DispatchLane lane, String channel, String message, List<SendTask> tasks,
+            Instant enqueuedAt) {
+        ProviderResponse[] responses = new ProviderResponse[tasks.size()];
+        sendAll(lane, channel, message, tasks.size(), i -> tasks.get(i).destination(), responses, enqueuedAt);
+
+        SendResult[] results = new SendResult[tasks.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new SendResult(tasks.get(i).recipientId(), tasks.get(i).destination(), responses[i]);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Sends one message per row of the batch and waits for all of them; each
+     * row's outcome is then available from {@link RecipientBatch#response}.
+     *
+     * @param enqueuedAt when the work was queued, for lane latency tracking; null to skip
+     * @return the number of leading rows sent to the provider; the rows after
+     *         them were shed by an open breaker
+     */
+    public int dispatch(DispatchLane lane, String channel, String message, RecipientBatch batch,
+            Instant enqueuedAt) {
+        return sendAll(lane, channel, message, batch.size(), batch::destination, batch.responses, enqueuedAt);
+    }
+
+    /**
+     * @return whether the channel's breaker would let a send through now
+     */
+    public boolean isChannelPermitting(String channel) {
+        return guardFor(channel).getBreaker().nanosUntilPermitted() == 0;
+    }
+
+    /**
+     * Blocks until the channel's breaker would let a send through: right
+     * away unless it is OPEN, or HALF_OPEN with every probe out.
+     */
+    public void awaitChannel(String channel) throws InterruptedException {
+        CircuitBreaker breaker = guardFor(channel).getBreaker();
+        long waitNanos;
+        while ((waitNanos = breaker.nanosUntilPermitted()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, BREAKER_POLL_NANOS));
+        }
+    }
+
+    /**
+     * @return the number of sends issued; the rest were shed
+     */
+    private int sendAll(DispatchLane lane, String channel, String message, int count,
+            IntFunction<String> destinations, ProviderResponse[] responses, Instant enqueuedAt) {
+        ChannelGuard guard = guardFor(channel);
+        boolean priority = lane == DispatchLane.TRANSACTIONAL;
+        TaskExecutor executor = priority ? transactionalDispatchExecutor : dispatchExecutor;
+        CountDownLatch done = new CountDownLatch(count);
+        int issued = 0;
+
+        try {
+            for (; issued < count; issued++) {
+                if (!guard.getBreaker().tryAcquirePermission()) {
+                    // Stop at the first refusal rather than shedding row after row
+                    for (int i = issued; i < count; i++) {
+                        responses[i] = new ProviderResponse(false, CIRCUIT_OPEN);
+                        done.countDown();
+                    }
+                    break;
+                }
+
+                guard.getLimiter().acquire(priority);
+                int slot = issued;
+                executor.execute(() -> {
+                    try {
+                        responses[slot] = send(guard, channel, message, destinations.apply(slot));
+                        if (enqueuedAt != null && responses[slot].isSuccess()) {
+                            laneCoordinator.recordLatency(lane,
+                                    Duration.between(enqueuedAt, Instant.now()).toNanos());
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            return issued;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching to " + channel, e);
+        }
+    }
+
+    public List<ChannelDispatchStats> getChannelStats() {
+        return guards.values().stream()
+                .map(guard -> ChannelDispatchStats.builder()
+                        .channel(guard.getChannel())
+                        .concurrencyLimit(guard.getLimiter().getLimit())
+                        .inFlight(guard.getLimiter().getInFlight())
+                        .circuitState(guard.getBreaker().getState().name())
+                        .failureRate(guard.getBreaker().getFailureRate())
+                        .build())
+                .toList();
+    }
+
+    private ProviderResponse send(ChannelGuard guard, String channel, String message, String destination) {
+        long start = System.nanoTime();
+        ProviderResponse response;
+        try {
+            response = notificationProvider.send(channel, destination, message);
+        } catch (RuntimeException e) {
+            log.warn("Provider threw while sending {} to {}: {}", channel, destination, e.getMessage());
+            response = new ProviderResponse(false, "PROVIDER_FAILURE");
+        }
+        long latency = System.nanoTime() - start;
+
+        if (response.isSuccess()) {
+            guard.getLimiter().onSuccess(latency);
+            guard.getBreaker().onSuccess();
+        } else if (isOverload(response.getErrorCode())) {
+            guard.getLimiter().onOverload();
+            guard.getBreaker().onFailure();
+        } else {
+            // Client-side errors say nothing about provider health
+            guard.getLimiter().onIgnore();
+            guard.getBreaker().onSuccess();
+        }
+        return response;
+    }
+
+    private boolean isOverload(String errorCode) {
+        return "RATE_LIMITED".equals(errorCode) || "PROVIDER_FAILURE".equals(errorCode);
+    }
+
+    private ChannelGuard guardFor(String channel) {
+        return guards.computeIfAbsent(channel, c -> new ChannelGuard(c, properties));
+    }
+}
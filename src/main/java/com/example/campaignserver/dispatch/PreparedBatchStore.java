@@ -0,0 +1,131 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.entity.TimeOrderedUuidGenerator;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pre-warmed recipient pages of scheduled campaigns, in prepared_batch.
+ *
+ * A page holds exactly the rows {@link RecipientBatchReader} would return
+ * for the same shard, cursor and batch size, so the dispatcher can take a
+ * stored page where one exists and fall back to reading recipients where
+ * not (a different batch size, or a page that was never prepared).
+ */
+@Component
+public class PreparedBatchStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO prepared_batch (id, campaign_id, after_id, upper_bound, row_count, last_page, payload, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    // A page is usable if it has exactly the rows asked for, or fewer because it ends the shard
+    private static final String PAGE_SQL = """
+            SELECT payload
+            FROM prepared_batch
+            WHERE campaign_id = ? AND after_id = ? AND upper_bound = ?
+              AND (row_count = ? OR (last_page AND row_count <= ?))""";
+
+    private static final String BOUNDARY_SQL = """
+            SELECT DISTINCT upper_bound
+            FROM prepared_batch
+            WHERE campaign_id = ?
+            ORDER BY upper_bound""";
+
+    // Same open-range stand-ins as RecipientBatchReader
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PreparedBatchStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Collects pages and writes them in JDBC batches, in the caller's
+     * transaction. Not thread-safe; one writer per pre-warm.
+     */
+    public final class Writer {
+        private final UUID campaignId;
+        private final int flushEvery;
+        private final List<Object[]> rows = new ArrayList<>();
+        private long pages;
+
+        private Writer(UUID campaignId, int flushEvery) {
+            this.campaignId = campaignId;
+            this.flushEvery = flushEvery;
+        }
+
+        /**
+         * @param afterId    cursor the page starts after; null for the start of the shard
+         * @param upperBound upper bound of the shard; null for the last shard
+         * @param lastPage   whether the page ends its shard
+         */
+        public void add(UUID afterId, UUID upperBound, RecipientBatch page, boolean lastPage) {
+            rows.add(new Object[] { TimeOrderedUuidGenerator.next(), campaignId,
+                    afterId != null ? afterId : MIN_ID, upperBound != null ? upperBound : MAX_ID,
+                    page.size(), lastPage, page.encode(), Timestamp.from(Instant.now()) });
+            pages++;
+            if (rows.size() >= flushEvery) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                rows.clear();
+            }
+        }
+
+        public long getPages() {
+            return pages;
+        }
+    }
+
+    /**
+     * @param flushEvery pages to hold in memory before writing them
+     */
+    public Writer writer(UUID campaignId, int flushEvery) {
+        return new Writer(campaignId, flushEvery);
+    }
+
+    /**
+     * Fills the batch from the stored page for this cursor, if there is one
+     * matching the requested size.
+     *
+     * @return false if no page matched; the batch is left untouched
+     */
+    public boolean read(RecipientBatch batch, UUID campaignId, UUID afterId, UUID upToId, int limit) {
+        byte[] payload;
+        try {
+            payload = jdbcTemplate.queryForObject(PAGE_SQL, byte[].class, campaignId,
+                    afterId != null ? afterId : MIN_ID, upToId != null ? upToId : MAX_ID, limit, limit);
+        } catch (EmptyResultDataAccessException e) {
+            return false;
+        }
+        batch.addEncoded(payload);
+        return true;
+    }
+
+    /**
+     * Upper bounds of the shards the campaign was pre-warmed with, in keyset
+     * order; the last is null. Empty if nothing was prepared.
+     */
+    public List<UUID> shardBoundaries(UUID campaignId) {
+        List<UUID> bounds = new ArrayList<>();
+        jdbcTemplate.query(BOUNDARY_SQL, rs -> {
+            UUID bound = rs.getObject(1, UUID.class);
+            bounds.add(MAX_ID.equals(bound) ? null : bound);
+        }, campaignId);
+        return bounds;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.provider.ProviderResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A batch of recipients for one campaign, stored column by column.
+ *
+ * Dispatch only needs a recipient's id, destination and timezone, so instead
+ * of one JPA entity (three UUIDs, four Strings and an Instant, plus
+ * persistence-context bookkeeping) per message, a batch holds parallel
+ * primitive arrays: the id as two longs, the destination string and a
+ * dictionary index for the timezone. The tenant and campaign ids are stored
+ * once per batch. Batches are recycled through {@link RecipientBatchPool}, so
+ * in steady state the worker allocates only the destination strings read
+ * from the driver.
+ *
+ * Rows can be stored ahead of time with {@link #encode()} and read back into
+ * a batch with {@link #addEncoded(byte[])}.
+ *
+ * Not thread-safe for writes; the dispatcher's send threads each write only
+ * their own response slot.
+ */
+public final class RecipientBatch {
+
+    private static final TimezoneDictionary TIMEZONES = new TimezoneDictionary();
+
+    private static final byte ENCODING_VERSION = 1;
+
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final String[] destinations;
+    private final short[] timezones;
+    final ProviderResponse[] responses;
+
+    private UUID campaignId;
+    private UUID tenantId;
+    private int size;
+
+    RecipientBatch(int capacity) {
+        this.idHigh = new long[capacity];
+        this.idLow = new long[capacity];
+        this.destinations = new String[capacity];
+        this.timezones = new short[capacity];
+        this.responses = new ProviderResponse[capacity];
+    }
+
+    void reset(UUID campaignId, UUID tenantId) {
+        Arrays.fill(destinations, 0, size, null);
+        Arrays.fill(responses, 0, size, null);
+        this.campaignId = campaignId;
+        this.tenantId = tenantId;
+        this.size = 0;
+    }
+
+    public void add(UUID recipientId, String destination, String timezone) {
+        if (size == capacity()) {
+            throw new IllegalStateException("Recipient batch is full (" + size + ")");
+        }
+        idHigh[size] = recipientId.getMostSignificantBits();
+        idLow[size] = recipientId.getLeastSignificantBits();
+        destinations[size] = destination;
+        timezones[size] = TIMEZONES.indexOf(timezone);
+        size++;
+    }
+
+    /**
+     * The rows as bytes: a version byte and the row count, then per row the
+     * id, destination and timezone name (empty for none). Timezones are
+     * written by name because dictionary indexes differ between processes.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + size * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ENCODING_VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(idHigh[i]);
+                out.writeLong(idLow[i]);
+                out.writeUTF(destinations[i] != null ? destinations[i] : "");
+                String timezone = TIMEZONES.valueOf(timezones[i]);
+                out.writeUTF(timezone != null ? timezone : "");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Appends rows written by {@link #encode()}.
+     *
+     * @throws IllegalStateException if they do not fit
+     */
+    public void addEncoded(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unknown recipient batch encoding version " + version);
+            }
+            int count = in.readInt();
+            if (size + count > capacity()) {
+                throw new IllegalStateException("Recipient batch is full (" + size + " + " + count + ")");
+            }
+            for (int i = 0; i < count; i++) {
+                UUID recipientId = new UUID(in.readLong(), in.readLong());
+                String destination = in.readUTF();
+                String timezone = in.readUTF();
+                add(recipientId, destination.isEmpty() ? null : destination, timezone.isEmpty() ? null : timezone);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public UUID getCampaignId() {
+        return campaignId;
+    }
+
+    public UUID getTenantId() {
+        return tenantId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return idHigh.length;
+    }
+
+    /**
+     * Materializes the id of row {@code i}; callers should only do this for
+     * the rows that need it (the cursor and failures).
+     */
+    public UUID recipientId(int i) {
+        checkIndex(i);
+        return new UUID(idHigh[i], idLow[i]);
+    }
+
+    public String destination(int i) {
+        checkIndex(i);
+        return destinations[i];
+    }
+
+    /**
+     * @return the row's timezone, or null if none was given
+     */
+    public String timezone(int i) {
+        checkIndex(i);
+        return TIMEZONES.valueOf(timezones[i]);
+    }
+
+    /**
+     * @return the provider's answer for row {@code i}, or null if it has not
+     *         been sent yet
+     */
+    public ProviderResponse response(int i) {
+        checkIndex(i);
+        return responses[i];
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for batch of " + size);
+        }
+    }
+
+    /**
+     * Process-wide dictionary of timezone names. The set of distinct values is
+     * small (IANA names), so each row stores a short instead of a String.
+     */
+    private static final class TimezoneDictionary {
+
+        private static final short NONE = -1;
+
+        private final Map<String, Short> indexes = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[64];
+        private int count;
+
+        short indexOf(String timezone) {
+            if (timezone == null) {
+                return NONE;
+            }
+            Short index = indexes.get(timezone);
+            return index != null ? index : register(timezone);
+        }
+
+        String valueOf(short index) {
+            return index == NONE ? null : names[index];
+        }
+
+        private synchronized short register(String timezone) {
+            Short existing = indexes.get(timezone);
+            if (existing != null) {
+                return existing;
+            }
+            if (count == Short.MAX_VALUE) {
+                // Free-form values could grow without bound; stop interning rather than fail the send
+                return NONE;
+            }
+            if (count == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            short index = (short) count++;
+            names[index] = timezone;
+            indexes.put(timezone, index);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.campaignserver.dispatch;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Recycles {@link RecipientBatch} arrays between dispatch batches.
+ *
+ * Only a handful of batches are live at once (one per bulk loop plus one per
+ * transactional worker), so the pool is small and bounded; extra batches
+ * released while it is full are left to the GC.
+ */
+@Component
+public class RecipientBatchPool {
+
+    static final int MAX_POOLED = 32;
+
+    private final BlockingQueue<RecipientBatch> free = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    /**
+     * @return an empty batch with room for at least {@code capacity} rows
+     */
+    public RecipientBatch acquire(UUID campaignId, UUID tenantId, int capacity) {
+        RecipientBatch batch = free.poll();
+        if (batch == null || batch.capacity() < capacity) {
+            // Undersized batches are dropped so the pool converges on the configured batch size
+            batch = new RecipientBatch(capacity);
+        }
+        batch.reset(campaignId, tenantId);
+        return batch;
+    }
+
+    public void release(RecipientBatch batch) {
+        batch.reset(null, null);
+        free.offer(batch);
+    }
+
+    int pooled() {
+        return free.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.campaignserver.dispatch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Fills {@link RecipientBatch}es with keyset pages of recipients.
+ *
+ * Rows are read with plain JDBC rather than through JPA, so dispatch never
+ * materializes entities or fills a persistence context. Pages are in id order
+ * within an (afterId, upToId] range, so a dispatch shard can read just its
+ * own slice of the campaign.
+ */
+@Component
+public class RecipientBatchReader {
+
+    private static final String RECIPIENT_SQL = """
+            SELECT id, COALESCE(email, phone), timezone
+            FROM recipient
+            WHERE campaign_id = ? AND id > ? AND id <= ?
+            ORDER BY id
+            LIMIT ?""";
+
+    private static final String AUDIENCE_SQL = """
+            SELECT id, COALESCE(email, phone), timezone
+            FROM audience_member
+            WHERE snapshot_id = ? AND id > ? AND id <= ?
+            ORDER BY id
+            LIMIT ?""";
+
+    // Smallest and largest UUIDs in both PostgreSQL's and H2's unsigned byte
+    // order, standing in for open range ends
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipientBatchReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends up to {@code limit} of the campaign's recipients after
+     * {@code afterId} and up to {@code upToId} to the batch; null leaves that
+     * end of the range open.
+     */
+    public void readRecipients(RecipientBatch batch, UUID campaignId, UUID afterId, UUID upToId, int limit) {
+        read(batch, RECIPIENT_SQL, campaignId, afterId, upToId, limit);
+    }
+
+    /**
+     * Same as {@link #readRecipients} for the members of an audience snapshot.
+     */
+    public void readAudienceMembers(RecipientBatch batch, UUID snapshotId, UUID afterId, UUID upToId, int limit) {
+        read(batch, AUDIENCE_SQL, snapshotId, afterId, upToId, limit);
+    }
+
+    private void read(RecipientBatch batch, String sql, UUID ownerId, UUID afterId, UUID upToId, int limit) {
+        RowCallbackHandler appendRow = rs -> batch.add(rs.getObject(1, UUID.class), rs.getString(2),
+                rs.getString(3));
+        jdbcTemplate.query(sql, appendRow, ownerId, afterId != null ? afterId : MIN_ID,
+                upToId != null ? upToId : MAX_ID, limit);
+    }
+}
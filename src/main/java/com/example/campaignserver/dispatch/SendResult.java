@@ -0,0 +1,11 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.provider.ProviderResponse;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a {@link SendTask}.
+ */
+public record SendResult(UUID recipientId, String destination, ProviderResponse response) {
+}
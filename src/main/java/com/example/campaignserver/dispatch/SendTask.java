@@ -0,0 +1,9 @@
+package com.example.campaignserver.dispatch;
+
+import java.util.UUID;
+
+/**
+ * One message to hand to the provider.
+ */
+public record SendTask(UUID recipientId, String destination) {
+}
@@ -0,0 +1,126 @@
+package com.example.campaignserver.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Deficit round robin over per-tenant queues of work.
+ *
+ * Each visit to a tenant adds {@code quantum * weight} to its deficit and
+ * hands out a turn whose budget is that deficit; whatever the caller does not
+ * spend carries over to the tenant's next turn. A tenant's campaigns are
+ * served round robin, and a tenant whose queue empties leaves the ring and
+ * forfeits its deficit.
+ *
+ * A newly active tenant therefore waits for at most one round, i.e. the sum
+ * of the other tenants' quanta, however much those tenants have queued.
+ *
+ * Not thread-safe: owned by the bulk dispatch loop.
+ *
+ * @param <T> unit of work, e.g. an active campaign
+ */
+public class TenantFairScheduler<T> {
+
+    /**
+     * Permission for {@code tenantId} to send up to {@code budget} messages of {@code work}.
+     */
+    public record Turn<T>(UUID tenantId, T work, long budget) {
+    }
+
+    private static final class TenantQueue<T> {
+        private final UUID tenantId;
+        private final int weight;
+        private final Deque<T> work = new ArrayDeque<>();
+        private long deficit;
+
+        private TenantQueue(UUID tenantId, int weight) {
+            this.tenantId = tenantId;
+            this.weight = weight;
+        }
+    }
+
+    private final long quantum;
+    private final Map<UUID, TenantQueue<T>> tenants = new HashMap<>();
+    private final Deque<TenantQueue<T>> ring = new ArrayDeque<>();
+
+    public TenantFairScheduler(long quantum) {
+        this.quantum = quantum;
+    }
+
+    /**
+     * Queues work for a tenant. The weight of the tenant's first queued work
+     * applies until the tenant's queue drains.
+     */
+    public void add(UUID tenantId, int weight, T work) {
+        TenantQueue<T> queue = tenants.get(tenantId);
+        if (queue == null) {
+            queue = new TenantQueue<>(tenantId, Math.max(1, weight));
+            tenants.put(tenantId, queue);
+            ring.addLast(queue);
+        }
+        queue.work.addLast(work);
+    }
+
+    /**
+     * @return the next tenant's turn, or null if nothing is queued
+     */
+    public Turn<T> nextTurn() {
+        TenantQueue<T> queue = ring.peekFirst();
+        if (queue == null) {
+            return null;
+        }
+        queue.deficit += quantum * queue.weight;
+        return new Turn<>(queue.tenantId, queue.work.peekFirst(), queue.deficit);
+    }
+
+    /**
+     * Ends the current turn.
+     *
+     * @param used     messages actually sent during the turn
+     * @param finished true if the turn's work has nothing left to send
+     */
+    public void complete(Turn<T> turn, long used, boolean finished) {
+        TenantQueue<T> queue = ring.pollFirst();
+        if (queue == null || !queue.tenantId.equals(turn.tenantId())) {
+            throw new IllegalStateException("Turn completed out of order for tenant " + turn.tenantId());
+        }
+
+        queue.deficit = Math.max(0L, queue.deficit - used);
+        T work = queue.work.pollFirst();
+        if (!finished) {
+            queue.work.addLast(work);
+        }
+
+        if (queue.work.isEmpty()) {
+            tenants.remove(queue.tenantId);
+        } else {
+            ring.addLast(queue);
+        }
+    }
+
+    /**
+     * Passes on the current turn without sending: the tenant keeps the
+     * deficit it had before the turn and its work moves to the back of its
+     * queue, so a tenant whose work cannot run right now does not build up a
+     * burst of budget.
+     */
+    public void skip(Turn<T> turn) {
+        TenantQueue<T> queue = ring.peekFirst();
+        if (queue == null || !queue.tenantId.equals(turn.tenantId())) {
+            throw new IllegalStateException("Turn skipped out of order for tenant " + turn.tenantId());
+        }
+        queue.deficit = Math.max(0L, queue.deficit - quantum * queue.weight);
+        complete(turn, 0, false);
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    public int tenantCount() {
+        return ring.size();
+    }
+}
@@ -4,11 +4,14 @@ import lombok.Builder;
 import lombok.Data;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.UUID;
 
 /**
- * DTO for campaign creation — populated from multipart/form-data.
+ * DTO for campaign creation — populated from multipart/form-data, or from
+ * query parameters plus a raw CSV body for streamed uploads. Instead of a
+ * CSV, a campaign may name an existing audience.
  */
 @Data
 @Builder
@@ -21,4 +24,7 @@ public class CampaignCreateRequest {
     private boolean isTransactional;
     private Instant scheduledAt;
     private MultipartFile recipientsCsv;
+    private InputStream recipientsStream;
+    private String recipientsEncoding;
+    private UUID audienceId;
 }
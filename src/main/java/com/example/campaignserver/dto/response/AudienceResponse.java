@@ -0,0 +1,24 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudienceResponse {
+
+    private UUID id;
+    private UUID tenantId;
+    private String name;
+    private UUID currentSnapshotId;
+    private int currentVersion;
+    private long memberCount;
+    private Instant createdAt;
+}
@@ -0,0 +1,58 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Where a campaign's time went, phase by phase. Durations are null while
+ * the phase has not finished (or did not happen, e.g. no upload for
+ * audience campaigns).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignProfileResponse {
+
+    private UUID campaignId;
+
+    private Instant ingestStartedAt;
+    private Instant ingestFinishedAt;
+    private Long ingestMillis;
+    private long ingestedRows;
+    private Double ingestRowsPerSecond;
+
+    private Instant queuedAt;
+    private Instant claimedAt;
+    // Outbox event written to claimed by a worker
+    private Long outboxWaitMillis;
+
+    private Instant firstSendAt;
+    private Instant lastSendAt;
+    // Claim to first send: shard planning and the first recipient read
+    private Long startupMillis;
+    private Long sendMillis;
+    private long batchCount;
+    private long sendCount;
+
+    // Per batch: reading recipients, and sending them
+    private LatencySummary loadLatency;
+    private LatencySummary sendLatency;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencySummary {
+        private long count;
+        private long p50Micros;
+        private long p90Micros;
+        private long p99Micros;
+        private long maxMicros;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One "progress" event on a campaign's event stream: the changes since the
+ * previous event, coalesced, plus the resulting totals.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignProgressEvent {
+
+    private UUID campaignId;
+    private String status;
+
+    private long sentDelta;
+    private long failedDelta;
+    private long delayedDelta;
+
+    private long totalRecipients;
+    private long sentCount;
+    private long failedCount;
+    private long delayedCount;
+    private long pendingCount;
+}
@@ -37,6 +37,13 @@ public class CampaignResponse {
     private long pendingCount;
     private long delayedCount;
 
+    // Dispatch shards; both 0 until the campaign has been planned
+    private long shardCount;
+    private long completedShards;
+
+    // Upload rows left out by validation; only reported when the campaign is created
+    private long rejectedCount;
+
     /**
      * Delivery rate = sentCount / totalRecipients * 100, rounded to 2 decimal
      * places.
@@ -0,0 +1,18 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Live state of the dispatcher for one provider channel.
+ */
+@Data
+@Builder
+public class ChannelDispatchStats {
+
+    private String channel;
+    private int concurrencyLimit;
+    private int inFlight;
+    private String circuitState;
+    private double failureRate;
+}
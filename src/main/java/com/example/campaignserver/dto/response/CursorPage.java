@@ -0,0 +1,33 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated response wrapper. Pass {@code nextCursor} back as
+ * {@code cursor} to get the following page; it is null on the last page.
+ *
+ * <pre>
+ * {
+ *   "content": [...],
+ *   "limit": 20,
+ *   "nextCursor": "MjAyNS0wMS0wMVQxMjowMDowMFp8...",
+ *   "hasMore": true
+ * }
+ * </pre>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int limit;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,23 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Queue depth and enqueue-to-send latency of one dispatch lane over the
+ * recent latency window.
+ */
+@Data
+@Builder
+public class LaneStats {
+
+    private String lane;
+    private long queuedEvents;
+    private int activeCampaigns;
+    private long sampleCount;
+    private long p50Millis;
+    private long p99Millis;
+    private long maxMillis;
+    private Long p99TargetMillis;
+    private boolean withinTarget;
+}
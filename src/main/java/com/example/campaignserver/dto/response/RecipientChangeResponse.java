@@ -0,0 +1,30 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Outcome of an upload that changed a campaign's recipients. Only inserted,
+ * updated and removed rows were written; everything else was left as is.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientChangeResponse {
+
+    private UUID campaignId;
+    private String mode;
+    // Valid rows in the upload, including repeated refs
+    private long received;
+    private long rejected;
+    private long inserted;
+    // Existing recipients whose contact details changed
+    private long updated;
+    private long removed;
+    private long totalRecipients;
+}
@@ -0,0 +1,45 @@
+package com.example.campaignserver.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Send outcomes of a tenant over a time range, read from the delivery
+ * rollups. Outcomes of the last few seconds may not be included yet.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantUsageResponse {
+
+    private UUID tenantId;
+    private String granularity;
+    private Instant from;
+    private Instant to;
+
+    // One entry per bucket and channel that had any sends
+    private List<Bucket> buckets;
+
+    // Whole range, one entry per channel
+    private List<Bucket> totals;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private Instant bucketStart; // null in totals
+        private String channel;
+        private long sent;
+        private long failed;
+        private long deferred;
+        private double failureRate;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A named recipient list that campaigns can reference instead of uploading
+ * their own CSV.
+ *
+ * The members live in immutable {@link AudienceSnapshot}s; uploading a new
+ * list adds a snapshot and moves {@code currentSnapshotId}, while campaigns
+ * already created keep reading the snapshot they were pinned to.
+ */
+@Entity
+@Table(name = "audience", indexes = {
+        @Index(name = "idx_audience_tenant_id", columnList = "tenant_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Audience {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    @Column(name = "current_snapshot_id")
+    private UUID currentSnapshotId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
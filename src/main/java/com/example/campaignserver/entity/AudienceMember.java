@@ -0,0 +1,42 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * A recipient in an audience snapshot. Campaigns sent to the audience use the
+ * member id wherever a recipient id is expected (retries, delivery records).
+ */
+@Entity
+@Table(name = "audience_member", indexes = {
+        @Index(name = "idx_audience_member_snapshot_id", columnList = "snapshot_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudienceMember {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "snapshot_id", nullable = false)
+    private UUID snapshotId;
+
+    @Column(name = "recipient_ref", nullable = false, length = 255)
+    private String recipientRef;
+
+    @Column(name = "email", length = 255)
+    private String email;
+
+    @Column(name = "phone", length = 50)
+    private String phone;
+
+    @Column(name = "timezone", length = 100)
+    @Builder.Default
+    private String timezone = "UTC";
+}
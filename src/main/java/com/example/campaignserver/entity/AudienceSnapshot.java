@@ -0,0 +1,48 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One uploaded version of an audience. Members are written once, while the
+ * snapshot is INGESTING, and never change after it becomes READY.
+ */
+@Entity
+@Table(name = "audience_snapshot", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_audience_snapshot_version", columnNames = { "audience_id", "version" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudienceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "audience_id", nullable = false)
+    private UUID audienceId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "version", nullable = false)
+    private int version;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private String status = "INGESTING"; // INGESTING, READY
+
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
@@ -2,13 +2,17 @@ package com.example.campaignserver.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "campaign")
+@Table(name = "campaign", indexes = {
+        // Serves newest-first listing per tenant, including keyset pages
+        @Index(name = "idx_campaign_tenant_created", columnList = "tenant_id, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,7 +20,7 @@ import java.util.UUID;
 public class Campaign {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -43,7 +47,36 @@ public class Campaign {
     @Column(name = "scheduled_at")
     private Instant scheduledAt;
 
+    // Set when the campaign is sent to an audience; recipients are then read from
+    // this snapshot instead of the recipient table
+    @Column(name = "audience_snapshot_id")
+    private UUID audienceSnapshotId;
+
+    // Set once the recipients of a SCHEDULED campaign were prepared as ready-to-send
+    // pages; only changed through CampaignRepository
+    @Column(name = "prewarmed_at", insertable = false, updatable = false)
+    private Instant prewarmedAt;
+
+    // Bumped whenever the recipients change after creation, and when a pre-warm starts, so a
+    // pre-warm can tell its pages went stale while it wrote them; only changed through CampaignRepository
+    @Column(name = "recipients_version", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long recipientsVersion = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
+
+    // Delivery counters are only changed through CampaignRepository.incrementDeliveryCounts,
+    // so saving a stale Campaign entity never overwrites them.
+    @Column(name = "sent_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long sentCount = 0L;
+
+    @Column(name = "failed_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long failedCount = 0L;
 }
@@ -0,0 +1,65 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Phase timeline of one campaign, from upload to last send. Every node that
+ * works on the campaign merges its observations in; latency distributions
+ * are stored as encoded {@code LatencyHistogram}s.
+ */
+@Entity
+@Table(name = "campaign_profile")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignProfile {
+
+    // Encoded histograms stay well under this; bytea on PostgreSQL
+    static final int HISTOGRAM_BYTES = 8192;
+
+    @Id
+    @Column(name = "campaign_id", updatable = false, nullable = false)
+    private UUID campaignId;
+
+    @Column(name = "ingest_started_at")
+    private Instant ingestStartedAt;
+
+    @Column(name = "ingest_finished_at")
+    private Instant ingestFinishedAt;
+
+    @Column(name = "ingested_rows", nullable = false)
+    private long ingestedRows;
+
+    // When the outbox event was written
+    @Column(name = "queued_at")
+    private Instant queuedAt;
+
+    // When a worker claimed the outbox event and planned its shards
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    @Column(name = "first_send_at")
+    private Instant firstSendAt;
+
+    @Column(name = "last_send_at")
+    private Instant lastSendAt;
+
+    @Column(name = "batch_count", nullable = false)
+    private long batchCount;
+
+    @Column(name = "send_count", nullable = false)
+    private long sendCount;
+
+    // Time to read each recipient batch, microseconds
+    @Column(name = "load_latency", length = HISTOGRAM_BYTES)
+    private byte[] loadLatency;
+
+    // Time to send each recipient batch, microseconds
+    @Column(name = "send_latency", length = HISTOGRAM_BYTES)
+    private byte[] sendLatency;
+}
@@ -0,0 +1,70 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A send that the provider rejected, parked until its next attempt is due.
+ *
+ * Rows stay DELAYED while attempts remain, then end up SENT or FAILED. The
+ * (status, next_attempt_at) index lets the retry worker pick due rows without
+ * scanning the whole table.
+ */
+@Entity
+@Table(name = "delivery_retry", indexes = {
+        @Index(name = "idx_delivery_retry_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_delivery_retry_campaign", columnList = "campaign_id, status"),
+        // Joins report rows to their recipient's retry
+        @Index(name = "idx_delivery_retry_recipient", columnList = "campaign_id, recipient_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRetry {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "campaign_id", nullable = false)
+    private UUID campaignId;
+
+    @Column(name = "recipient_id", nullable = false)
+    private UUID recipientId;
+
+    @Column(name = "channel", nullable = false, length = 10)
+    private String channel;
+
+    @Column(name = "destination", length = 255)
+    private String destination;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error_code", length = 50)
+    private String lastErrorCode;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // DELAYED, SENT, FAILED
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Number of send outcomes of one kind for a tenant and channel within an
+ * hour or day bucket. Rows are only ever incremented, by batched upserts
+ * from {@code DeliveryRollupService}.
+ */
+@Entity
+@Table(name = "delivery_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_delivery_rollup_bucket",
+                columnNames = { "tenant_id", "granularity", "bucket_start", "channel", "outcome" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRollup {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "granularity", nullable = false, length = 10)
+    private String granularity; // HOUR, DAY
+
+    // Start of the bucket in UTC
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "channel", nullable = false, length = 20)
+    private String channel;
+
+    @Column(name = "outcome", nullable = false, length = 20)
+    private String outcome; // SENT, FAILED, DEFERRED
+
+    @Column(name = "message_count", nullable = false)
+    private long messageCount;
+}
@@ -0,0 +1,82 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A keyset range of one campaign's recipients that any node can claim and
+ * dispatch independently.
+ *
+ * The range is (lowerBound, upperBound] in id order; a null lower bound
+ * starts at the first recipient and a null upper bound runs to the last, so
+ * the final shard also picks up rows appended after planning. A node holds a
+ * shard through a lease that it renews while working and that other nodes
+ * may take over once it expires; the cursor lets the new owner resume after
+ * the last committed batch.
+ */
+@Entity
+@Table(name = "dispatch_shard", indexes = {
+        @Index(name = "idx_dispatch_shard_claim", columnList = "lane, status, created_at"),
+        @Index(name = "idx_dispatch_shard_campaign", columnList = "campaign_id, shard_index")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchShard {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "campaign_id", nullable = false, updatable = false)
+    private UUID campaignId;
+
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private UUID tenantId;
+
+    @Column(name = "outbox_event_id", nullable = false, updatable = false)
+    private UUID outboxEventId;
+
+    @Column(name = "lane", nullable = false, length = 20, updatable = false)
+    private String lane;
+
+    @Column(name = "shard_index", nullable = false, updatable = false)
+    private int shardIndex;
+
+    @Column(name = "lower_bound", updatable = false)
+    private UUID lowerBound;
+
+    @Column(name = "upper_bound", updatable = false)
+    private UUID upperBound;
+
+    // Last recipient id dispatched; null until the first batch commits
+    @Column(name = "cursor_id")
+    private UUID cursor;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDING"; // PENDING, RUNNING, COMPLETED, FAILED
+
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "dispatched_count", nullable = false)
+    private long dispatchedCount;
+
+    // When the campaign's outbox event was queued, for lane latency tracking
+    @Column(name = "enqueued_at", nullable = false, updatable = false)
+    private Instant enqueuedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+}
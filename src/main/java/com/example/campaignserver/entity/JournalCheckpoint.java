@@ -0,0 +1,37 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * How far a node's delivery journal has been folded into the database.
+ * Written in the same transaction as the counts it covers, so outcomes are
+ * applied exactly once even if the node stops before committing the offset
+ * to its journal.
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+
+    // Generated when the journal directory is created
+    @Id
+    @Column(name = "journal_id", updatable = false, nullable = false)
+    private UUID journalId;
+
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    // Journal offset everything before which is applied
+    @Column(name = "applied_offset", nullable = false)
+    private long appliedOffset;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -2,13 +2,16 @@ package com.example.campaignserver.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "outbox_event")
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_status_lane", columnList = "status, lane, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,7 +19,7 @@ import java.util.UUID;
 public class OutboxEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(name = "tenant_id", nullable = false)
@@ -34,6 +37,11 @@ public class OutboxEvent {
     @Column(nullable = false)
     private String status; // PENDING, PROCESSING, COMPLETED, FAILED
 
+    @Column(name = "lane", nullable = false, length = 20)
+    @ColumnDefault("'BULK'")
+    @Builder.Default
+    private String lane = "BULK"; // TRANSACTIONAL, BULK
+
     @Column(columnDefinition = "TEXT")
     private String payload; // JSON payload for the event
 
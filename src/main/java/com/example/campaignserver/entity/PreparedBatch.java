@@ -0,0 +1,60 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One ready-to-send page of a scheduled campaign's recipients, written while
+ * the campaign is pre-warmed. Pages follow the campaign's shard plan: each
+ * covers the recipients after {@code afterId} within one shard, exactly as
+ * the dispatcher would read them, so dispatch can take the page instead of
+ * querying recipients. Written and read with plain JDBC by
+ * {@code PreparedBatchStore}.
+ */
+@Entity
+@Table(name = "prepared_batch", uniqueConstraints = {
+        // Also the dispatcher's lookup index
+        @UniqueConstraint(name = "uk_prepared_batch_page", columnNames = { "campaign_id", "after_id" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparedBatch {
+
+    // A page of dispatch.batch-size encoded recipients stays well under this; bytea on PostgreSQL
+    static final int PAYLOAD_BYTES = 1024 * 1024;
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "campaign_id", nullable = false)
+    private UUID campaignId;
+
+    // Keyset cursor the page starts after; the smallest UUID for a shard's first page
+    @Column(name = "after_id", nullable = false)
+    private UUID afterId;
+
+    // Upper bound of the page's shard; the largest UUID for the last shard
+    @Column(name = "upper_bound", nullable = false)
+    private UUID upperBound;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    // Whether the page ends its shard
+    @Column(name = "last_page", nullable = false)
+    private boolean lastPage;
+
+    // RecipientBatch.encode() of the page
+    @Column(name = "payload", nullable = false, length = PAYLOAD_BYTES)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
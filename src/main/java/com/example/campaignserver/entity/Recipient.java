@@ -8,7 +8,11 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "recipient")
+@Table(name = "recipient", indexes = {
+        @Index(name = "idx_recipient_campaign_id", columnList = "campaign_id, id"),
+        // Matches uploaded rows to existing recipients when a campaign's list is changed
+        @Index(name = "idx_recipient_campaign_ref", columnList = "campaign_id, recipient_ref_hash")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,7 +20,7 @@ import java.util.UUID;
 public class Recipient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
@@ -29,6 +33,10 @@ public class Recipient {
     @Column(name = "recipient_ref", nullable = false, length = 255)
     private String recipientRef;
 
+    // refHash(recipientRef); null for rows written before it existed
+    @Column(name = "recipient_ref_hash")
+    private Long recipientRefHash;
+
     @Column(name = "email", length = 255)
     private String email;
 
@@ -42,4 +50,23 @@ public class Recipient {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
+
+    @PrePersist
+    void hashRecipientRef() {
+        recipientRefHash = refHash(recipientRef);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a recipient ref, an index key for matching refs;
+     * equal hashes are always confirmed by comparing the refs.
+     */
+    public static long refHash(String recipientRef) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < recipientRef.length(); i++) {
+            char c = recipientRef.charAt(i);
+            hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return hash;
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * A staged row of an upload that changes an existing campaign's recipients.
+ * Rows are parsed and validated like a campaign's first upload, then diffed
+ * against the campaign's recipients by ref in one publish transaction and
+ * purged. The id becomes the recipient's id if the row is inserted.
+ */
+@Entity
+@Table(name = "recipient_change", indexes = {
+        @Index(name = "idx_recipient_change_set_ref", columnList = "change_set_id, recipient_ref_hash")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientChange {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    // One upload; the target id of its RecipientIngestion
+    @Column(name = "change_set_id", nullable = false)
+    private UUID changeSetId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "campaign_id", nullable = false)
+    private UUID campaignId;
+
+    @Column(name = "recipient_ref", nullable = false, length = 255)
+    private String recipientRef;
+
+    @Column(name = "recipient_ref_hash", nullable = false)
+    private long recipientRefHash;
+
+    @Column(name = "email", length = 255)
+    private String email;
+
+    @Column(name = "phone", length = 50)
+    private String phone;
+
+    @Column(name = "timezone", length = 100)
+    private String timezone;
+}
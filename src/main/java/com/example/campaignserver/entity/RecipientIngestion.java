@@ -0,0 +1,73 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Tracks one recipient upload while its rows are committed chunk by chunk.
+ *
+ * The rows are written straight under their target (a campaign or an audience
+ * snapshot), which stays invisible to dispatch while the ingestion is
+ * STAGING. A short publish transaction then flips the target live. Uploads
+ * that fail, or stop committing chunks, become ABANDONED and their rows are
+ * purged in batches.
+ */
+@Entity
+@Table(name = "recipient_ingestion", indexes = {
+        @Index(name = "idx_recipient_ingestion_status", columnList = "status, updated_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientIngestion {
+
+    public static final String TARGET_CAMPAIGN = "CAMPAIGN";
+    public static final String TARGET_AUDIENCE_SNAPSHOT = "AUDIENCE_SNAPSHOT";
+    // Staged changes to a published campaign's recipients; the target is the change set
+    public static final String TARGET_RECIPIENT_CHANGE = "RECIPIENT_CHANGE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "target_type", nullable = false, length = 20)
+    private String targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private UUID targetId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private String status = "STAGING"; // STAGING, PUBLISHED, ABANDONED, PURGED
+
+    // Progress is only changed through RecipientIngestionRepository.recordChunk
+    @Column(name = "row_count", nullable = false, updatable = false)
+    private long rowCount;
+
+    @Column(name = "chunk_count", nullable = false, updatable = false)
+    private int chunkCount;
+
+    // Rows that failed validation; see RejectedRow
+    @Column(name = "rejected_count", nullable = false, updatable = false)
+    private long rejectedCount;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    // Heartbeat: bumped with every committed chunk
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,43 @@
+package com.example.campaignserver.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * An upload row that failed validation and was left out of the recipient
+ * list, kept for the upload's rejections report.
+ */
+@Entity
+@Table(name = "rejected_row", indexes = {
+        @Index(name = "idx_rejected_row_ingestion", columnList = "ingestion_id, record_number")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedRow {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "ingestion_id", nullable = false)
+    private UUID ingestionId;
+
+    // 1-based CSV record number, not counting the header
+    @Column(name = "record_number", nullable = false)
+    private long recordNumber;
+
+    @Column(name = "recipient_ref", length = 255)
+    private String recipientRef;
+
+    @Column(name = "reason", nullable = false, length = 30)
+    private String reason; // MISSING_RECIPIENT_ID, INVALID_EMAIL, INVALID_PHONE, INVALID_TIMEZONE
+
+    // The offending value, truncated
+    @Column(name = "rejected_value", length = 255)
+    private String value;
+}
@@ -0,0 +1,19 @@
+package com.example.campaignserver.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a UUID id as generated by {@link TimeOrderedUuidGenerator}. Use on
+ * insert-heavy tables so new rows append to the right edge of the primary
+ * key index instead of landing on a random leaf.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
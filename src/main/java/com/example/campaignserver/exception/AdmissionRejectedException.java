@@ -0,0 +1,21 @@
+package com.example.campaignserver.exception;
+
+import java.time.Duration;
+
+/**
+ * The server is over its admission budget; the client should retry after
+ * {@link #getRetryAfter()}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.campaignserver.exception;
 import com.example.campaignserver.dto.response.ApiResponse;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -49,7 +50,16 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
         log.warn("[413] MaxUploadSizeExceeded: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
-                .body(ApiResponse.error("Uploaded file exceeds the maximum allowed size (100 MB)"));
+                .body(ApiResponse.error("Uploaded file exceeds the maximum allowed size (100 MB). "
+                        + "Larger lists can be sent as a raw text/csv request body."));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAdmissionRejected(AdmissionRejectedException ex) {
+        log.warn("[429] AdmissionRejected: {} (retry after {}s)", ex.getMessage(), ex.getRetryAfter().toSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -0,0 +1,178 @@
+package com.example.campaignserver.journal;
+
+import com.example.campaignserver.config.JournalProperties;
+import com.example.campaignserver.entity.JournalCheckpoint;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.JournalCheckpointRepository;
+import com.example.campaignserver.service.DispatchShardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Optional local journal of delivery outcomes.
+ *
+ * With {@code campaign.journal.enabled}, dispatch appends each batch's sent
+ * and failed counts to a {@link SegmentedJournal} on local disk instead of
+ * updating the campaign row, which every node sending the campaign would
+ * otherwise contend on once per batch. Every
+ * {@code campaign.journal.checkpoint-interval-ms} the outcomes since the
+ * last checkpoint are summed per campaign and applied in one transaction,
+ * together with the journal offset they cover (journal_checkpoint); the
+ * offset is then committed to the journal, whose consumed segments are
+ * deleted.
+ *
+ * Campaign counters therefore trail the sends by up to one checkpoint
+ * interval. Outcomes journaled before a crash are applied when the node
+ * restarts on the same directory, and never twice: the checkpoint row
+ * wins over an offset the journal did not get to commit.
+ */
+@Slf4j
+@Component
+public class DeliveryJournal implements InitializingBean, DisposableBean {
+
+    static final String CHECKPOINT_CONSUMER = "checkpoint";
+
+    // campaign id, sent, failed
+    private static final int OUTCOME_BYTES = 32;
+    private static final String ID_FILE = "journal.id";
+
+    private final JournalProperties properties;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final CampaignRepository campaignRepository;
+    private final DispatchShardService shardService;
+    private final TransactionTemplate transactionTemplate;
+
+    private SegmentedJournal journal;
+    private UUID journalId;
+    // Next offset to fold in; null until the first checkpoint has looked it up
+    private Long checkpointed;
+
+    public DeliveryJournal(JournalProperties properties,
+            JournalCheckpointRepository checkpointRepository,
+            CampaignRepository campaignRepository,
+            DispatchShardService shardService,
+            TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.checkpointRepository = checkpointRepository;
+        this.campaignRepository = campaignRepository;
+        this.shardService = shardService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path directory = Path.of(properties.getDirectory());
+        journal = new SegmentedJournal(directory, properties.getSegmentBytes());
+        journalId = readOrCreateId(directory.resolve(ID_FILE));
+        log.info("Delivery journal {} at {}: {} segments, {} bytes not yet checkpointed", journalId,
+                directory.toAbsolutePath(), journal.segmentCount(),
+                journal.endOffset() - journal.committedOffset(CHECKPOINT_CONSUMER));
+    }
+
+    @Override
+    public void destroy() {
+        if (journal == null) {
+            return;
+        }
+        checkpoint();
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Journals the outcome of one dispatched batch.
+     */
+    public void recordOutcome(UUID campaignId, long sent, long failed) {
+        ByteBuffer record = ByteBuffer.allocate(OUTCOME_BYTES);
+        record.putLong(campaignId.getMostSignificantBits())
+                .putLong(campaignId.getLeastSignificantBits())
+                .putLong(sent)
+                .putLong(failed);
+        journal.append(record.array());
+    }
+
+    /**
+     * Folds every outcome journaled so far into the campaign counters, in
+     * transactions of at most {@code checkpoint-batch} records. A failed
+     * transaction is retried from the same offset on the next run.
+     */
+    @Scheduled(fixedDelayString = "${campaign.journal.checkpoint-interval-ms:1000}")
+    public synchronized void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (checkpointed == null) {
+                checkpointed = Math.max(journal.committedOffset(CHECKPOINT_CONSUMER),
+                        checkpointRepository.findById(journalId).map(JournalCheckpoint::getAppliedOffset)
+                                .orElse(0L));
+            }
+            while (true) {
+                long from = checkpointed;
+                Map<UUID, long[]> totals = new HashMap<>();
+                long next = journal.read(from, properties.getCheckpointBatch(), (offset, payload) -> {
+                    long[] tally = totals.computeIfAbsent(new UUID(payload.getLong(0), payload.getLong(8)),
+                            id -> new long[2]);
+                    tally[0] += payload.getLong(16);
+                    tally[1] += payload.getLong(24);
+                });
+                if (totals.isEmpty()) {
+                    // Nothing but offset records, which every commit adds
+                    return;
+                }
+                apply(totals, next);
+                journal.commit(CHECKPOINT_CONSUMER, next);
+                checkpointed = next;
+                log.debug("Checkpointed delivery journal to {} ({} campaigns)", next, totals.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint delivery journal, retrying next interval: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Map<UUID, long[]> totals, long next) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            JournalCheckpoint checkpoint = checkpointRepository.findForUpdate(journalId)
+                    .orElseGet(() -> JournalCheckpoint.builder().journalId(journalId).build());
+            if (checkpoint.getAppliedOffset() >= next) {
+                // Applied before a restart that happened ahead of the journal commit
+                return;
+            }
+            totals.forEach((campaignId, tally) ->
+                    campaignRepository.incrementDeliveryCounts(campaignId, tally[0], tally[1]));
+            checkpoint.setAppliedOffset(next);
+            checkpoint.setNodeId(shardService.getNodeId());
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private static UUID readOrCreateId(Path idFile) throws IOException {
+        if (Files.exists(idFile)) {
+            return UUID.fromString(Files.readString(idFile, StandardCharsets.US_ASCII).strip());
+        }
+        UUID id = UUID.randomUUID();
+        Files.writeString(idFile, id.toString(), StandardCharsets.US_ASCII);
+        return id;
+    }
+}
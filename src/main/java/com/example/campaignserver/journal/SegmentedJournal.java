@@ -0,0 +1,341 @@
+package com.example.campaignserver.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records in memory-mapped segment files.
+ *
+ * Records are addressed by a logical byte offset that keeps growing across
+ * segments; a segment file is named after the offset it starts at. Each
+ * record is a length, a CRC32C and a type byte followed by the payload. A
+ * record that does not fit the rest of the active segment starts the next
+ * one, and the gap is marked so readers skip it.
+ *
+ * Appends are serialized and only ever write ahead of the end offset, which
+ * is published after the record is complete, so any number of readers can
+ * read below it without locking.
+ *
+ * Consumer offsets are journal records too: {@link #commit} appends one,
+ * and reopening a journal replays them, so a consumer resumes where it last
+ * committed. Segments every consumer has moved past are deleted. Torn
+ * records at the tail (checksum mismatch after a crash) are cut off on
+ * reopen.
+ */
+public class SegmentedJournal implements Closeable {
+
+    /**
+     * Receives one record. The payload is a read-only view of the mapped
+     * segment, only valid during the call.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(long offset, ByteBuffer payload);
+    }
+
+    static final byte DATA = 1;
+    static final byte CONSUMER_OFFSET = 2;
+
+    // length, checksum, type
+    static final int HEADER_BYTES = 9;
+    // Written where the next record did not fit; the rest of the segment is unused
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> consumerOffsets = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private Segment active;
+    private long forcedOffset;
+    private volatile long endOffset;
+
+    private record Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        long limitOffset() {
+            return baseOffset + buffer.capacity();
+        }
+    }
+
+    /**
+     * Opens the journal in the directory, creating it if needed.
+     *
+     * @param segmentBytes size of new segment files; bounds the largest record
+     */
+    public SegmentedJournal(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("segmentBytes must be at least 1024");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = path.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(base, map(path, base, false));
+            }
+        }
+        if (segments.isEmpty()) {
+            active = map(segmentPath(0), 0, true);
+            segments.put(0L, active);
+            endOffset = 0;
+        } else {
+            recover();
+        }
+        forcedOffset = endOffset;
+    }
+
+    /**
+     * @return the offset of the record
+     */
+    public long append(byte[] payload) {
+        return append(DATA, payload);
+    }
+
+    /**
+     * Reads up to {@code maxRecords} data records from {@code fromOffset},
+     * which must be a record boundary: the journal's start, or an offset
+     * returned by an earlier read.
+     *
+     * @return the offset to continue from; {@code fromOffset} if there was
+     *         nothing to read
+     */
+    public long read(long fromOffset, int maxRecords, RecordHandler handler) {
+        if (fromOffset < startOffset()) {
+            throw new IllegalArgumentException("Offset " + fromOffset + " is before the journal start "
+                    + startOffset());
+        }
+        long end = endOffset;
+        long offset = fromOffset;
+        int read = 0;
+        while (read < maxRecords && offset < end) {
+            Segment segment = segments.floorEntry(offset).getValue();
+            int pos = (int) (offset - segment.baseOffset());
+            int length = pos + HEADER_BYTES <= segment.capacity() ? segment.buffer().getInt(pos) : 0;
+            if (length <= 0 || pos + HEADER_BYTES + length > segment.capacity()) {
+                Long next = segments.higherKey(segment.baseOffset());
+                if (next == null) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            if (segment.buffer().get(pos + 8) == DATA) {
+                handler.accept(offset,
+                        segment.buffer().slice(pos + HEADER_BYTES, length).asReadOnlyBuffer());
+                read++;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Records that the consumer has processed everything before
+     * {@code offset}, forces the journal to disk and deletes segments no
+     * consumer needs any more.
+     */
+    public void commit(String consumer, long offset) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(consumer.length() + 10);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(consumer);
+            out.writeLong(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(CONSUMER_OFFSET, bytes.toByteArray());
+        consumerOffsets.merge(consumer, offset, Math::max);
+        force();
+        deleteConsumedSegments();
+    }
+
+    /**
+     * @return where the consumer resumes: its last committed offset, or the
+     *         journal's start if it never committed
+     */
+    public long committedOffset(String consumer) {
+        return Math.max(consumerOffsets.getOrDefault(consumer, 0L), startOffset());
+    }
+
+    public long startOffset() {
+        return segments.firstKey();
+    }
+
+    public long endOffset() {
+        return endOffset;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Writes everything appended since the last force to disk.
+     */
+    public synchronized void force() {
+        forceActive((int) (endOffset - active.baseOffset()));
+        forcedOffset = endOffset;
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+    }
+
+    private synchronized long append(byte type, byte[] payload) {
+        if (payload.length == 0 || HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a "
+                    + segmentBytes + "-byte segment");
+        }
+        int pos = (int) (endOffset - active.baseOffset());
+        if (pos + HEADER_BYTES + payload.length > active.capacity()) {
+            roll(pos);
+            pos = 0;
+        }
+        MappedByteBuffer buffer = active.buffer();
+        buffer.putInt(pos + 4, checksum(type, payload));
+        buffer.put(pos + 8, type);
+        buffer.put(pos + HEADER_BYTES, payload);
+        // Length last, so a record is never seen half written
+        buffer.putInt(pos, payload.length);
+        long offset = active.baseOffset() + pos;
+        endOffset = offset + HEADER_BYTES + payload.length;
+        return offset;
+    }
+
+    private void roll(int pos) {
+        int end = pos;
+        if (pos + 4 <= active.capacity()) {
+            active.buffer().putInt(pos, END_OF_SEGMENT);
+            end += 4;
+        }
+        forceActive(end);
+        long base = active.limitOffset();
+        try {
+            active = map(segmentPath(base), base, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment at " + base, e);
+        }
+        segments.put(base, active);
+        forcedOffset = base;
+        endOffset = base;
+    }
+
+    /**
+     * Forces the active segment's unforced bytes up to {@code end}. Only the
+     * written range: forcing the whole mapping costs a pass over all of it.
+     */
+    private void forceActive(int end) {
+        int from = (int) (Math.max(forcedOffset, active.baseOffset()) - active.baseOffset());
+        if (end > from) {
+            active.buffer().force(from, end - from);
+        }
+    }
+
+    /**
+     * Replays consumer offsets from every segment and finds the end of the
+     * last one, cutting off a torn record.
+     */
+    private void recover() {
+        Segment last = segments.lastEntry().getValue();
+        for (Segment segment : segments.values()) {
+            MappedByteBuffer buffer = segment.buffer();
+            int pos = 0;
+            while (pos + HEADER_BYTES <= segment.capacity()) {
+                int length = buffer.getInt(pos);
+                if (length <= 0 || pos + HEADER_BYTES + length > segment.capacity()) {
+                    break;
+                }
+                byte type = buffer.get(pos + 8);
+                byte[] payload = new byte[length];
+                buffer.get(pos + HEADER_BYTES, payload);
+                if (buffer.getInt(pos + 4) != checksum(type, payload)) {
+                    break;
+                }
+                if (type == CONSUMER_OFFSET) {
+                    replayOffset(payload);
+                }
+                pos += HEADER_BYTES + length;
+            }
+            if (segment == last) {
+                if (pos + 4 <= segment.capacity() && buffer.getInt(pos) != 0) {
+                    // Torn tail: clear it so it is not mistaken for records once overwritten
+                    for (int i = pos; i < segment.capacity(); i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.force(pos, segment.capacity() - pos);
+                }
+                active = segment;
+                endOffset = segment.baseOffset() + pos;
+            }
+        }
+    }
+
+    private void replayOffset(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            consumerOffsets.merge(in.readUTF(), in.readLong(), Math::max);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void deleteConsumedSegments() {
+        long consumed = consumerOffsets.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+        for (Segment segment : segments.values()) {
+            if (segment.limitOffset() > consumed || segment == active) {
+                break;
+            }
+            segments.remove(segment.baseOffset());
+            try {
+                // Still mapped until collected; the file goes once unlinked
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete journal segment " + segment.path(), e);
+            }
+        }
+    }
+
+    private Path segmentPath(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private Segment map(Path path, long baseOffset, boolean create) throws IOException {
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = create ? segmentBytes : channel.size();
+            return new Segment(baseOffset, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static int checksum(byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.campaignserver.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue of delivery events.
+ *
+ * Slots are preallocated columns, so offering an event allocates nothing.
+ * A producer claims a sequence number with a CAS, fills the slot and then
+ * publishes it with a release write; the consumer reads slots in sequence
+ * order until it meets one that is not published yet. A full ring rejects
+ * the event instead of blocking the sender.
+ */
+final class DeliveryEventRing {
+
+    interface Handler {
+        void onEvent(long epochMillis, String channel, String destination, boolean success, String errorCode);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;
+    private final String[] channels;
+    private final String[] destinations;
+    private final boolean[] successes;
+    private final String[] errorCodes;
+    // sequence + 1 of the event held by each slot, once it is fully written
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+
+    DeliveryEventRing(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.channels = new String[capacity];
+        this.destinations = new String[capacity];
+        this.successes = new boolean[capacity];
+        this.errorCodes = new String[capacity];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * @return false if the ring is full and the event was not recorded
+     */
+    boolean offer(long epochMillis, String channel, String destination, boolean success, String errorCode) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= capacity) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = epochMillis;
+        channels[slot] = channel;
+        destinations[slot] = destination;
+        successes[slot] = success;
+        errorCodes[slot] = errorCode;
+        published.setRelease(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to the handler, in order.
+     * Only one thread may drain.
+     *
+     * @return the number of events drained
+     */
+    int drain(Handler handler, int max) {
+        long next = tail;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (next & mask);
+            if (published.getAcquire(slot) != next + 1) {
+                break;
+            }
+            handler.onEvent(timestamps[slot], channels[slot], destinations[slot], successes[slot], errorCodes[slot]);
+            destinations[slot] = null;
+            next++;
+            drained++;
+        }
+        // Frees the drained slots for producers
+        tail = next;
+        return drained;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail;
+    }
+}
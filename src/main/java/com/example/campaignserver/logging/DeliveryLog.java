@@ -0,0 +1,297 @@
+package com.example.campaignserver.logging;
+
+import com.example.campaignserver.config.DeliveryLogProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured log of provider sends, written off the sending threads.
+ *
+ * Senders only count the event and, if it is kept, put it on a
+ * {@link DeliveryEventRing}; a single writer thread turns events into JSON
+ * lines on the {@code com.example.campaignserver.delivery} logger.
+ *
+ * - Successes are logged individually up to
+ *   {@code success-samples-per-second}; the rest are only counted.
+ * - Failures are never logged one by one. Every failure is counted per
+ *   channel and error code and written as one summary line per
+ *   {@code summary-interval}, with a sample destination.
+ * - When the ring is full, events are dropped and the drop count is
+ *   reported in the next summary; failure counts stay exact.
+ */
+@Slf4j
+@Component
+public class DeliveryLog implements InitializingBean, DisposableBean {
+
+    private static final Logger EVENTS = LoggerFactory.getLogger("com.example.campaignserver.delivery");
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Where the writer puts finished lines. The logger in production, a list
+     * in tests.
+     */
+    interface Sink {
+        void event(String json);
+
+        void summary(String json, boolean failures);
+    }
+
+    private final DeliveryLogProperties properties;
+    private final DeliveryEventRing ring;
+    private final Sink sink;
+
+    // Sender side
+    private final Map<String, LongAdder> sentByChannel = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> overflowFailures = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong sampleWindowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger sampledInWindow = new AtomicInteger();
+
+    // Writer side, only touched by the writer thread
+    private final Map<String, FailureTally> failures = new TreeMap<>();
+    private final StringBuilder json = new StringBuilder(256);
+    private final Map<String, Long> sentReported = new LinkedHashMap<>();
+    private long droppedReported;
+    private long nextSummaryNanos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private static final class FailureTally {
+        private long count;
+        private String sampleDestination;
+    }
+
+    @Autowired
+    public DeliveryLog(DeliveryLogProperties properties) {
+        this(properties, new Sink() {
+            @Override
+            public void event(String json) {
+                EVENTS.info(json);
+            }
+
+            @Override
+            public void summary(String json, boolean failures) {
+                if (failures) {
+                    EVENTS.warn(json);
+                } else {
+                    EVENTS.info(json);
+                }
+            }
+        });
+    }
+
+    DeliveryLog(DeliveryLogProperties properties, Sink sink) {
+        this.properties = properties;
+        this.ring = new DeliveryEventRing(properties.getBufferSize());
+        this.sink = sink;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        nextSummaryNanos = System.nanoTime() + properties.getSummaryInterval().toNanos();
+        writer = new Thread(this::runWriter, "delivery-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Delivery log writing through a {}-event buffer, {} sampled successes/s",
+                ring.capacity(), properties.getSuccessSamplesPerSecond());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Records the outcome of one send. Never blocks.
+     */
+    public void record(String channel, String destination, boolean success, String errorCode) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (success) {
+            counter(sentByChannel, channel).increment();
+            if (!sample()) {
+                return;
+            }
+        }
+        if (!ring.offer(System.currentTimeMillis(), channel, destination, success, errorCode)) {
+            dropped.increment();
+            if (!success) {
+                counter(overflowFailures, channel + '|' + errorCode).increment();
+            }
+        }
+    }
+
+    /**
+     * Drains the ring once and writes the summaries if they are due.
+     *
+     * @return the number of events drained
+     */
+    int writeOnce(long nowNanos) {
+        int drained = ring.drain(this::write, DRAIN_BATCH);
+        if (nowNanos - nextSummaryNanos >= 0) {
+            writeSummaries();
+            nextSummaryNanos = nowNanos + properties.getSummaryInterval().toNanos();
+        }
+        return drained;
+    }
+
+    private void runWriter() {
+        try {
+            while (running) {
+                if (writeOnce(System.nanoTime()) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            while (!ring.isEmpty() && ring.drain(this::write, DRAIN_BATCH) > 0) {
+                // flush what is left on shutdown
+            }
+            writeSummaries();
+        } catch (RuntimeException e) {
+            log.error("Delivery log writer stopped", e);
+        }
+    }
+
+    /**
+     * Rate-limits sampled successes to a fixed number per one-second window.
+     * Once the window is used up this is a plain read, so senders do not
+     * contend on it.
+     */
+    private boolean sample() {
+        long now = System.nanoTime();
+        long windowStart = sampleWindowStart.get();
+        if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)
+                && sampleWindowStart.compareAndSet(windowStart, now)) {
+            sampledInWindow.set(0);
+        }
+        int limit = properties.getSuccessSamplesPerSecond();
+        return sampledInWindow.get() < limit && sampledInWindow.incrementAndGet() <= limit;
+    }
+
+    private void write(long epochMillis, String channel, String destination, boolean success, String errorCode) {
+        if (!success) {
+            FailureTally tally = failures.computeIfAbsent(channel + '|' + errorCode, key -> new FailureTally());
+            tally.count++;
+            tally.sampleDestination = destination;
+            return;
+        }
+        json.setLength(0);
+        json.append("{\"event\":\"delivery.sent\",\"ts\":\"").append(Instant.ofEpochMilli(epochMillis))
+                .append("\",\"channel\":");
+        appendString(channel);
+        json.append(",\"destination\":");
+        appendString(destination);
+        json.append('}');
+        sink.event(json.toString());
+    }
+
+    private void writeSummaries() {
+        overflowFailures.forEach((key, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                failures.computeIfAbsent(key, k -> new FailureTally()).count += count;
+            }
+        });
+        for (Map.Entry<String, FailureTally> entry : failures.entrySet()) {
+            FailureTally tally = entry.getValue();
+            if (tally.count == 0) {
+                continue;
+            }
+            int split = entry.getKey().indexOf('|');
+            json.setLength(0);
+            json.append("{\"event\":\"delivery.failures\",\"channel\":");
+            appendString(entry.getKey().substring(0, split));
+            json.append(",\"errorCode\":");
+            appendString(entry.getKey().substring(split + 1));
+            json.append(",\"count\":").append(tally.count).append(",\"sampleDestination\":");
+            appendString(tally.sampleDestination);
+            json.append(",\"intervalSeconds\":").append(properties.getSummaryInterval().toSeconds()).append('}');
+            sink.summary(json.toString(), true);
+            tally.count = 0;
+            tally.sampleDestination = null;
+        }
+
+        json.setLength(0);
+        json.append("{\"event\":\"delivery.summary\",\"sent\":{");
+        boolean any = false;
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(sentByChannel).entrySet()) {
+            long total = entry.getValue().sum();
+            long delta = total - sentReported.getOrDefault(entry.getKey(), 0L);
+            sentReported.put(entry.getKey(), total);
+            if (delta == 0) {
+                continue;
+            }
+            if (any) {
+                json.append(',');
+            }
+            appendString(entry.getKey());
+            json.append(':').append(delta);
+            any = true;
+        }
+        long droppedTotal = dropped.sum();
+        long droppedDelta = droppedTotal - droppedReported;
+        droppedReported = droppedTotal;
+        if (any || droppedDelta > 0) {
+            json.append("},\"dropped\":").append(droppedDelta)
+                    .append(",\"intervalSeconds\":").append(properties.getSummaryInterval().toSeconds()).append('}');
+            sink.summary(json.toString(), false);
+        }
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
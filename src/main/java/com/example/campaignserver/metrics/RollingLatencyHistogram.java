@@ -0,0 +1,57 @@
+package com.example.campaignserver.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latency histogram over a sliding window of one to two intervals.
+ *
+ * Records go to the current interval; reads merge it with the previous one,
+ * so percentiles always reflect at least one full interval of recent traffic
+ * and old spikes age out.
+ */
+public class RollingLatencyHistogram {
+
+    private record Window(long startNanos, LatencyHistogram current, LatencyHistogram previous) {
+    }
+
+    private final long intervalNanos;
+    private final AtomicReference<Window> window;
+
+    public RollingLatencyHistogram(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.window = new AtomicReference<>(
+                new Window(System.nanoTime(), new LatencyHistogram(), new LatencyHistogram()));
+    }
+
+    public void recordNanos(long nanos) {
+        rotateIfDue().current().recordNanos(nanos);
+    }
+
+    /**
+     * @return a merged copy of the current and previous interval
+     */
+    public LatencyHistogram snapshot() {
+        Window w = rotateIfDue();
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(w.previous());
+        merged.add(w.current());
+        return merged;
+    }
+
+    private Window rotateIfDue() {
+        while (true) {
+            Window w = window.get();
+            long now = System.nanoTime();
+            if (now - w.startNanos() < intervalNanos) {
+                return w;
+            }
+            // After a long idle period the previous interval is stale as well
+            LatencyHistogram previous = now - w.startNanos() < 2 * intervalNanos ? w.current() : new LatencyHistogram();
+            Window next = new Window(now, new LatencyHistogram(), previous);
+            if (window.compareAndSet(w, next)) {
+                return next;
+            }
+        }
+    }
+}
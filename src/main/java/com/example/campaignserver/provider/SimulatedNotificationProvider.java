@@ -1,37 +1,76 @@
 package com.example.campaignserver.provider;
 
-import lombok.extern.slf4j.Slf4j;
+import com.example.campaignserver.config.DeliveryLogProperties;
+import com.example.campaignserver.config.SimulatorProperties;
+import com.example.campaignserver.logging.DeliveryLog;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
- * Very small in‑memory provider simulator used mainly for tests.
+ * In‑memory provider simulator used by the dispatch engine and for offline
+ * benchmarking.
  *
- * Behaviour:
+ * Behaviour (see {@link SimulatorProperties}):
  * - Supports channels: EMAIL, SMS, PUSH
- * - Applies a simple per‑instance, per‑channel limit of 100 requests
- * (after that, returns RATE_LIMITED)
- * - For allowed requests, randomly fails a percentage of calls to simulate
- * provider instability.
+ * - Per‑channel throughput ceiling; sends above it return RATE_LIMITED
+ * - Configurable latency: fixed, normal or long‑tail
+ * - Random PROVIDER_FAILURE at a base rate, raised during periodic burst
+ * failure windows
+ * - Deterministic when a seed is configured; otherwise uses ThreadLocalRandom
+ * so concurrent senders never contend on a shared Random
  *
- * This is intentionally lightweight and is not wired into the main campaign
- * flow yet; it serves to demonstrate how provider behaviour and rate limiting
- * could be tested.
+ * Seeded draws are derived from the seed, the destination and how many times
+ * it has been sent to, not from the sending thread, so a run reproduces on
+ * any pool or virtual threads in any interleaving. That takes a counter per
+ * destination for the life of the provider, which is fine for the benchmarks
+ * and tests seeds are meant for.
+ *
+ * Outcomes are reported to the {@link DeliveryLog}, which samples and writes
+ * them off the sending thread.
  */
-@Slf4j
 @Component
 public class SimulatedNotificationProvider {
 
-    private static final int MAX_REQUESTS_PER_CHANNEL = 100;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final SimulatorProperties properties;
+    private final Map<String, RateCeiling> ceilings = new ConcurrentHashMap<>();
+    private final Long seed;
+    // Sends so far per destination; only kept when seeded
+    private final Map<String, Integer> sendsByDestination = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private final DeliveryLog deliveryLog;
+
+    /**
+     * A provider that does not log sends, for benchmarks and tests.
+     */
+    public SimulatedNotificationProvider(SimulatorProperties properties) {
+        this(properties, disabledLog());
+    }
 
-    private final Map<String, Integer> requestCounts = new HashMap<>();
-    private final Random random = new Random();
+    @Autowired
+    public SimulatedNotificationProvider(SimulatorProperties properties, DeliveryLog deliveryLog) {
+        this.properties = properties;
+        this.deliveryLog = deliveryLog;
+        this.seed = properties.getSeed();
+    }
 
     public ProviderResponse send(String channel, String destination, String message) {
         String normalizedChannel = channel == null ? "" : channel.toUpperCase();
+        ProviderResponse response = attempt(normalizedChannel, destination);
+        deliveryLog.record(normalizedChannel, destination, response.isSuccess(), response.getErrorCode());
+        return response;
+    }
+
+    private ProviderResponse attempt(String normalizedChannel, String destination) {
 
         // Validate channel
         if (!normalizedChannel.equals("EMAIL")
@@ -40,21 +79,116 @@ public class SimulatedNotificationProvider {
             return new ProviderResponse(false, "UNKNOWN_CHANNEL");
         }
 
-        // Simple per‑channel rate limiting (per provider instance)
-        int used = requestCounts.getOrDefault(normalizedChannel, 0);
-        if (used >= MAX_REQUESTS_PER_CHANNEL) {
+        // Per‑channel throughput ceiling
+        RateCeiling ceiling = ceilings.computeIfAbsent(normalizedChannel, this::createCeiling);
+        if (ceiling != RateCeiling.UNLIMITED && !ceiling.tryAcquire()) {
             return new ProviderResponse(false, "RATE_LIMITED");
         }
-        requestCounts.put(normalizedChannel, used + 1);
 
-        // Simulate provider failure with ~20% probability
-        boolean fail = random.nextDouble() < 0.20;
-        if (fail) {
-            log.error("[SIMULATOR] FAILED to send {} to {}: PROVIDER_FAILURE", normalizedChannel, destination);
+        RandomGenerator random = random(destination);
+        if (!simulateLatency(random)) {
             return new ProviderResponse(false, "PROVIDER_FAILURE");
         }
 
-        log.info("[SIMULATOR] SUCCESS sending {} to {}: \"{}\"", normalizedChannel, destination, message);
+        // Simulate provider failure, more often inside a burst window
+        if (random.nextDouble() < currentFailureRate()) {
+            return new ProviderResponse(false, "PROVIDER_FAILURE");
+        }
         return new ProviderResponse(true, null);
     }
+
+    private static DeliveryLog disabledLog() {
+        DeliveryLogProperties disabled = new DeliveryLogProperties();
+        disabled.setEnabled(false);
+        return new DeliveryLog(disabled);
+    }
+
+    private RandomGenerator random(String destination) {
+        if (seed == null) {
+            return ThreadLocalRandom.current();
+        }
+        String key = String.valueOf(destination);
+        long occurrence = sendsByDestination.merge(key, 1, Integer::sum);
+        // SplittableRandom scrambles its seed, so neighbouring keys still give unrelated draws
+        return new SplittableRandom(seed + GOLDEN_GAMMA * ((long) key.hashCode() << 32 | occurrence));
+    }
+
+    /**
+     * Sleeps for a latency drawn from the configured distribution.
+     *
+     * @return false if the sending thread was interrupted
+     */
+    private boolean simulateLatency(RandomGenerator random) {
+        SimulatorProperties.Latency latency = properties.getLatency();
+        long meanNanos = latency.getMean().toNanos();
+        long nanos = switch (latency.getDistribution()) {
+            case FIXED -> meanNanos;
+            case NORMAL -> (long) (meanNanos + random.nextGaussian() * latency.getStddev().toNanos());
+            case LONG_TAIL -> (long) (meanNanos * Math.exp(random.nextGaussian() * latency.getTailSigma()));
+        };
+        nanos = Math.min(Math.max(nanos, 0L), latency.getMax().toNanos());
+        if (nanos == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private double currentFailureRate() {
+        SimulatorProperties.Burst burst = properties.getBurst();
+        if (burst.isEnabled()) {
+            long intoPeriod = (System.nanoTime() - startNanos) % burst.getPeriod().toNanos();
+            if (intoPeriod < burst.getDuration().toNanos()) {
+                return burst.getFailureRate();
+            }
+        }
+        return properties.getFailureRate();
+    }
+
+    private RateCeiling createCeiling(String channel) {
+        SimulatorProperties.Channel config = properties.getChannels().get(channel);
+        if (config == null || config.getThroughputPerSecond() <= 0) {
+            return RateCeiling.UNLIMITED;
+        }
+        int burst = config.getBurstCapacity() != null ? config.getBurstCapacity() : config.getThroughputPerSecond();
+        return new RateCeiling(config.getThroughputPerSecond(), burst);
+    }
+
+    /**
+     * Lock-free GCRA rate limiter: tracks the theoretical arrival time of the
+     * next send and rejects sends that would run more than {@code burst}
+     * emission intervals ahead of the clock.
+     */
+    static final class RateCeiling {
+
+        static final RateCeiling UNLIMITED = new RateCeiling(1, 1);
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        RateCeiling(int perSecond, int burst) {
+            this.intervalNanos = 1_000_000_000L / perSecond;
+            this.toleranceNanos = intervalNanos * burst;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                long now = System.nanoTime();
+                long tat = theoreticalArrival.get();
+                long next = Math.max(tat, now) + intervalNanos;
+                if (next - now > toleranceNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return true;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.AudienceMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Repository
+public interface AudienceMemberRepository extends JpaRepository<AudienceMember, UUID> {
+
+    /**
+     * Deletes up to {@code limit} members of a snapshot; called repeatedly to
+     * purge a snapshot in bounded transactions.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM audience_member WHERE id IN " +
+            "(SELECT id FROM audience_member WHERE snapshot_id = :snapshotId LIMIT :limit)", nativeQuery = true)
+    int deleteBatchBySnapshotId(@Param("snapshotId") UUID snapshotId, @Param("limit") int limit);
+}
@@ -0,0 +1,24 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.Audience;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AudienceRepository extends JpaRepository<Audience, UUID> {
+
+    List<Audience> findByTenantIdOrderByCreatedAtDesc(UUID tenantId);
+
+    Optional<Audience> findByIdAndTenantId(UUID id, UUID tenantId);
+
+    @Modifying
+    @Query("UPDATE Audience a SET a.currentSnapshotId = :snapshotId WHERE a.id = :id")
+    void updateCurrentSnapshot(@Param("id") UUID id, @Param("snapshotId") UUID snapshotId);
+}
@@ -0,0 +1,44 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.AudienceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AudienceSnapshotRepository extends JpaRepository<AudienceSnapshot, UUID> {
+
+    List<AudienceSnapshot> findByAudienceIdOrderByVersionDesc(UUID audienceId);
+
+    @Query("SELECT COALESCE(MAX(s.version), 0) FROM AudienceSnapshot s WHERE s.audienceId = :audienceId")
+    int findLatestVersion(@Param("audienceId") UUID audienceId);
+
+    /**
+     * Published snapshots older than {@code belowVersion} that no campaign was
+     * ever pinned to. Staging ones are left to ingestion cleanup.
+     */
+    @Query("SELECT s.id FROM AudienceSnapshot s WHERE s.audienceId = :audienceId AND s.version < :belowVersion " +
+            "AND s.status = 'READY' " +
+            "AND NOT EXISTS (SELECT 1 FROM Campaign c WHERE c.audienceSnapshotId = s.id)")
+    List<UUID> findUnreferencedBefore(@Param("audienceId") UUID audienceId,
+            @Param("belowVersion") int belowVersion);
+
+    /**
+     * Makes a staged snapshot visible. Runs in the ingestion's publish
+     * transaction.
+     */
+    @Modifying
+    @Query("UPDATE AudienceSnapshot s SET s.status = 'READY', s.memberCount = :count WHERE s.id = :id")
+    void markReady(@Param("id") UUID id, @Param("count") long count);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AudienceSnapshot s WHERE s.id = :id")
+    void deleteSnapshot(@Param("id") UUID id);
+}
@@ -0,0 +1,24 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.CampaignProfile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CampaignProfileRepository extends JpaRepository<CampaignProfile, UUID> {
+
+    /**
+     * Locks the profile so nodes merging into it take turns. Runs in the
+     * caller's transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM CampaignProfile p WHERE p.campaignId = :campaignId")
+    Optional<CampaignProfile> findForUpdate(@Param("campaignId") UUID campaignId);
+}
@@ -1,13 +1,17 @@
 package com.example.campaignserver.repository;
 
 import com.example.campaignserver.entity.Campaign;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -21,6 +25,29 @@ public interface CampaignRepository extends JpaRepository<Campaign, UUID> {
 
     Optional<Campaign> findByIdAndTenantId(UUID id, UUID tenantId);
 
+    /**
+     * Locks the campaign against status changes and concurrent recipient
+     * changes. Runs in the caller's transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campaign c WHERE c.id = :id")
+    Optional<Campaign> findForUpdate(@Param("id") UUID id);
+
+    /**
+     * First keyset page of a tenant's campaigns, newest first.
+     */
+    List<Campaign> findByTenantIdOrderByCreatedAtDescIdDesc(UUID tenantId, Limit limit);
+
+    /**
+     * Keyset page after the given (createdAt, id). The row-value comparison
+     * is a single range scan on idx_campaign_tenant_created, so every page
+     * costs the same as the first.
+     */
+    @Query("SELECT c FROM Campaign c WHERE c.tenantId = :tenantId AND (c.createdAt, c.id) < (:createdAt, :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Campaign> findByTenantIdBefore(@Param("tenantId") UUID tenantId, @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id, Limit limit);
+
     @Query("SELECT c FROM Campaign c WHERE c.status = 'RUNNING'")
     List<Campaign> findRunningCampaigns();
 
@@ -31,10 +58,78 @@ public interface CampaignRepository extends JpaRepository<Campaign, UUID> {
     @Query("SELECT c FROM Campaign c WHERE c.status = 'SCHEDULED' AND c.scheduledAt <= :now")
     List<Campaign> findScheduledCampaignsDue(@Param("now") Instant now);
 
+    /**
+     * SCHEDULED campaigns starting by {@code until} that were not pre-warmed yet.
+     */
+    @Query("SELECT c FROM Campaign c WHERE c.status = 'SCHEDULED' AND c.prewarmedAt IS NULL " +
+            "AND c.scheduledAt <= :until ORDER BY c.scheduledAt")
+    List<Campaign> findScheduledCampaignsToPrewarm(@Param("until") Instant until);
+
+    /**
+     * Marks a still SCHEDULED campaign as pre-warmed; returns 0 if it was
+     * activated or pre-warmed in the meantime, or its recipients changed
+     * since {@code recipientsVersion} was read. Runs in the caller's
+     * transaction.
+     */
+    @Modifying
+    @Query("UPDATE Campaign c SET c.prewarmedAt = :now " +
+            "WHERE c.id = :id AND c.status = 'SCHEDULED' AND c.prewarmedAt IS NULL " +
+            "AND c.recipientsVersion = :recipientsVersion")
+    int markPrewarmed(@Param("id") UUID id, @Param("recipientsVersion") long recipientsVersion,
+            @Param("now") Instant now);
+
+    /**
+     * Records that the campaign's recipients changed. Runs in the caller's
+     * transaction.
+     */
+    @Modifying
+    @Query("UPDATE Campaign c SET c.recipientsVersion = c.recipientsVersion + 1 WHERE c.id = :id")
+    int bumpRecipientsVersion(@Param("id") UUID id);
+
+    /**
+     * Forgets a campaign's pre-warm after its recipients changed; a campaign
+     * still SCHEDULED is pre-warmed again. Runs in the caller's transaction.
+     */
+    @Modifying
+    @Query("UPDATE Campaign c SET c.prewarmedAt = null WHERE c.id = :id")
+    int clearPrewarmed(@Param("id") UUID id);
+
+    /**
+     * Moves a SCHEDULED campaign to RUNNING; returns 0 if another node
+     * activated it first. Runs in the caller's transaction.
+     */
+    @Modifying
+    @Query("UPDATE Campaign c SET c.status = 'RUNNING' WHERE c.id = :id AND c.status = 'SCHEDULED'")
+    int activateScheduled(@Param("id") UUID id);
+
     @Modifying
     @Query("UPDATE Campaign c SET c.status = :status WHERE c.id = :id")
     void updateStatus(@Param("id") UUID id, @Param("status") String status);
 
+    /**
+     * Adds to the delivery counters in place, so concurrent workers never lose
+     * each other's updates.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Campaign c SET c.sentCount = c.sentCount + :sent, c.failedCount = c.failedCount + :failed " +
+            "WHERE c.id = :id")
+    void incrementDeliveryCounts(@Param("id") UUID id, @Param("sent") long sent, @Param("failed") long failed);
+
+    /**
+     * Removes a campaign whose recipient upload was abandoned; a published
+     * campaign is never deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Campaign c WHERE c.id = :id AND c.status = 'INGESTING'")
+    int deleteIfIngesting(@Param("id") UUID id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Campaign c SET c.status = 'COMPLETED' WHERE c.id = :id AND c.status = 'RUNNING'")
+    int completeIfRunning(@Param("id") UUID id);
+
     /**
      * Count campaigns created in the current month for credit-check rule.
      * Uses nativeQuery = true because JPQL FUNCTION() for date_trunc is
@@ -0,0 +1,53 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.DeliveryRetry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DeliveryRetryRepository extends JpaRepository<DeliveryRetry, UUID> {
+
+    /**
+     * Locks the next due retries, skipping rows another worker already holds
+     * (lock timeout -2 is Hibernate's SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM DeliveryRetry r WHERE r.status = 'DELAYED' AND r.nextAttemptAt <= :now " +
+            "ORDER BY r.nextAttemptAt")
+    List<DeliveryRetry> findDueForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    long countByCampaignIdAndStatus(UUID campaignId, String status);
+
+    /**
+     * Per-campaign counts of retries in a status, as (campaignId, count) rows.
+     */
+    @Query("SELECT r.campaignId, COUNT(r) FROM DeliveryRetry r WHERE r.campaignId IN :campaignIds " +
+            "AND r.status = :status GROUP BY r.campaignId")
+    List<Object[]> countByCampaignIdsAndStatus(@Param("campaignIds") Collection<UUID> campaignIds,
+            @Param("status") String status);
+
+    /**
+     * Moves every FAILED retry of a campaign back to DELAYED with a fresh
+     * attempt budget, due immediately.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DeliveryRetry r SET r.status = 'DELAYED', r.attempts = 0, r.nextAttemptAt = :now " +
+            "WHERE r.campaignId = :campaignId AND r.status = 'FAILED'")
+    int requeueFailed(@Param("campaignId") UUID campaignId, @Param("now") Instant now);
+}
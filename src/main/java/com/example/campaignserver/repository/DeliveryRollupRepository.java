@@ -0,0 +1,22 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.DeliveryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DeliveryRollupRepository extends JpaRepository<DeliveryRollup, UUID> {
+
+    @Query("SELECT r FROM DeliveryRollup r WHERE r.tenantId = :tenantId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.channel")
+    List<DeliveryRollup> findBuckets(@Param("tenantId") UUID tenantId,
+                                     @Param("granularity") String granularity,
+                                     @Param("from") Instant from,
+                                     @Param("to") Instant to);
+}
@@ -0,0 +1,101 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.DispatchShard;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DispatchShardRepository extends JpaRepository<DispatchShard, UUID> {
+
+    /**
+     * Ids of the shards of a lane that are unclaimed or whose owner's lease
+     * ran out, taken round-robin across tenants: each tenant's shards are
+     * numbered oldest first, after the ones it already has running, and the
+     * lowest numbers go first. A tenant with one huge campaign therefore gets
+     * no second shard while another tenant is waiting for its first.
+     */
+    @Query("""
+            SELECT c.id FROM (
+                SELECT s.id AS id, s.createdAt AS createdAt, s.shardIndex AS shardIndex,
+                       ROW_NUMBER() OVER (PARTITION BY s.tenantId ORDER BY s.createdAt, s.shardIndex)
+                       + (SELECT COUNT(h) FROM DispatchShard h
+                          WHERE h.tenantId = s.tenantId AND h.lane = s.lane AND h.status = 'RUNNING'
+                            AND h.leaseExpiresAt >= :now) AS turn
+                FROM DispatchShard s
+                WHERE s.lane = :lane
+                  AND (s.status = 'PENDING' OR (s.status = 'RUNNING' AND s.leaseExpiresAt < :now))
+            ) c
+            ORDER BY c.turn, c.createdAt, c.shardIndex""")
+    List<UUID> findClaimOrder(@Param("lane") String lane, @Param("now") Instant now, Limit limit);
+
+    /**
+     * Locks those of the given shards that are still claimable, skipping ones
+     * another node is claiming right now (lock timeout -2 is Hibernate's SKIP
+     * LOCKED), so concurrent claimers never block on or double-claim the same
+     * shard. Must run in the caller's transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM DispatchShard s WHERE s.id IN :ids AND (s.status = 'PENDING' " +
+            "OR (s.status = 'RUNNING' AND s.leaseExpiresAt < :now))")
+    List<DispatchShard> lockClaimable(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    /**
+     * Records a committed batch and extends the lease. Returns 0 if the
+     * shard is no longer held by {@code owner}, i.e. the lease was lost.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DispatchShard s SET s.cursor = :cursor, s.dispatchedCount = s.dispatchedCount + :count, " +
+            "s.leaseExpiresAt = :leaseUntil WHERE s.id = :id AND s.owner = :owner AND s.status = 'RUNNING'")
+    int advance(@Param("id") UUID id, @Param("owner") String owner, @Param("cursor") UUID cursor,
+            @Param("count") long count, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DispatchShard s SET s.leaseExpiresAt = :leaseUntil " +
+            "WHERE s.owner = :owner AND s.status = 'RUNNING'")
+    int renewLeases(@Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Moves a held shard to COMPLETED or FAILED. Returns 0 if the lease was
+     * lost in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DispatchShard s SET s.status = :status, s.leaseExpiresAt = null " +
+            "WHERE s.id = :id AND s.owner = :owner AND s.status = 'RUNNING'")
+    int finish(@Param("id") UUID id, @Param("owner") String owner, @Param("status") String status);
+
+    /**
+     * Locks the campaign's highest-numbered shard, the one whose range is
+     * open ended. Runs in the caller's transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DispatchShard> findFirstByCampaignIdOrderByShardIndexDesc(UUID campaignId);
+
+    boolean existsByCampaignIdAndStatusIn(UUID campaignId, Collection<String> statuses);
+
+    /**
+     * Shard totals for a page of campaigns, as (campaignId, shards, completed)
+     * rows.
+     */
+    @Query("SELECT s.campaignId, COUNT(s), SUM(CASE WHEN s.status = 'COMPLETED' THEN 1 ELSE 0 END) " +
+            "FROM DispatchShard s WHERE s.campaignId IN :campaignIds GROUP BY s.campaignId")
+    List<Object[]> countByCampaignIds(@Param("campaignIds") Collection<UUID> campaignIds);
+}
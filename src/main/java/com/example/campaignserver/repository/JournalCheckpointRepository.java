@@ -0,0 +1,24 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.JournalCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, UUID> {
+
+    /**
+     * Locks the checkpoint while a batch of outcomes is applied. Runs in the
+     * caller's transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JournalCheckpoint c WHERE c.journalId = :journalId")
+    Optional<JournalCheckpoint> findForUpdate(@Param("journalId") UUID journalId);
+}
@@ -2,12 +2,55 @@ package com.example.campaignserver.repository;
 
 import com.example.campaignserver.entity.OutboxEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OutboxRepository extends JpaRepository<OutboxEvent, UUID> {
     List<OutboxEvent> findByStatus(String status);
+
+    List<OutboxEvent> findByStatusAndLaneOrderByCreatedAtAsc(String status, String lane);
+
+    long countByStatusAndLane(String status, String lane);
+
+    long countByStatusInAndLane(Collection<String> statuses, String lane);
+
+    long countByLaneAndProcessedAtAfter(String lane, Instant since);
+
+    boolean existsByAggregateIdAndStatusIn(UUID aggregateId, Collection<String> statuses);
+
+    /**
+     * Puts a COMPLETED event back to PROCESSING because its campaign got more
+     * shards. Runs in the caller's transaction.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING', e.processedAt = null " +
+            "WHERE e.id = :id AND e.status = 'COMPLETED'")
+    int reopen(@Param("id") UUID id);
+
+    /**
+     * Claims a PENDING event. Returns 0 if another node got there first. Runs
+     * in the caller's transaction.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING' WHERE e.id = :id AND e.status = 'PENDING'")
+    int claimPending(@Param("id") UUID id);
+
+    /**
+     * Moves a PROCESSING event to {@code status}; returns 0 if it already left
+     * PROCESSING, so only one node finishes it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :now " +
+            "WHERE e.id = :id AND e.status = 'PROCESSING'")
+    int finishProcessing(@Param("id") UUID id, @Param("status") String status, @Param("now") Instant now);
 }
@@ -0,0 +1,34 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.PreparedBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Repository
+public interface PreparedBatchRepository extends JpaRepository<PreparedBatch, UUID> {
+
+    long countByCampaignId(UUID campaignId);
+
+    /**
+     * Runs in the caller's transaction.
+     */
+    @Modifying
+    @Query("DELETE FROM PreparedBatch b WHERE b.campaignId = :campaignId")
+    int deleteByCampaignId(@Param("campaignId") UUID campaignId);
+
+    /**
+     * Drops the pages of campaigns that are no longer scheduled or running,
+     * including ones that were deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PreparedBatch b WHERE NOT EXISTS (SELECT c.id FROM Campaign c " +
+            "WHERE c.id = b.campaignId AND c.status IN ('SCHEDULED', 'RUNNING'))")
+    int deleteFinished();
+}
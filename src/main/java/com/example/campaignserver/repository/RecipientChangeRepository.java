@@ -0,0 +1,24 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.RecipientChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Repository
+public interface RecipientChangeRepository extends JpaRepository<RecipientChange, UUID> {
+
+    /**
+     * Deletes up to {@code limit} staged rows of a change set.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM recipient_change WHERE id IN " +
+            "(SELECT id FROM recipient_change WHERE change_set_id = :changeSetId LIMIT :limit)", nativeQuery = true)
+    int deleteBatchByChangeSetId(@Param("changeSetId") UUID changeSetId, @Param("limit") int limit);
+}
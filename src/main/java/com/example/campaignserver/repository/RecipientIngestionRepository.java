@@ -0,0 +1,57 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.RecipientIngestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RecipientIngestionRepository extends JpaRepository<RecipientIngestion, UUID> {
+
+    /**
+     * Adds a committed chunk to the progress counters and refreshes the
+     * heartbeat. Runs inside the chunk's own transaction.
+     */
+    @Modifying
+    @Query("UPDATE RecipientIngestion i SET i.rowCount = i.rowCount + :rows, i.chunkCount = i.chunkCount + 1, " +
+            "i.rejectedCount = i.rejectedCount + :rejected, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status = 'STAGING'")
+    int recordChunk(@Param("id") UUID id, @Param("rows") long rows, @Param("rejected") long rejected,
+            @Param("now") Instant now);
+
+    /**
+     * Moves an ingestion out of STAGING. Returns 0 if another thread (publish
+     * or cleanup) already did, so exactly one of them wins.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RecipientIngestion i SET i.status = :status, i.error = :error, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status = 'STAGING'")
+    int finishStaging(@Param("id") UUID id, @Param("status") String status, @Param("error") String error,
+            @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RecipientIngestion i SET i.status = 'PURGED', i.updatedAt = :now WHERE i.id = :id")
+    void markPurged(@Param("id") UUID id, @Param("now") Instant now);
+
+    List<RecipientIngestion> findByStatus(String status);
+
+    // A scalar query, so an entity cached earlier in the request cannot return a stale count
+    @Query("SELECT i.rejectedCount FROM RecipientIngestion i WHERE i.id = :id")
+    Optional<Long> findRejectedCount(@Param("id") UUID id);
+
+    Optional<RecipientIngestion> findFirstByTargetTypeAndTargetIdOrderByCreatedAtDesc(String targetType,
+            UUID targetId);
+
+    @Query("SELECT i FROM RecipientIngestion i WHERE i.status = 'STAGING' AND i.updatedAt < :cutoff")
+    List<RecipientIngestion> findStale(@Param("cutoff") Instant cutoff);
+}
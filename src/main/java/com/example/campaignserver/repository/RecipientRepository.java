@@ -2,10 +2,13 @@ package com.example.campaignserver.repository;
 
 import com.example.campaignserver.entity.Recipient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,6 +19,23 @@ public interface RecipientRepository extends JpaRepository<Recipient, UUID> {
 
     long countByCampaignId(UUID campaignId);
 
+    /**
+     * Recipient totals for several campaigns in one query, as
+     * (campaignId, count) rows.
+     */
+    @Query("SELECT r.campaignId, COUNT(r) FROM Recipient r WHERE r.campaignId IN :campaignIds GROUP BY r.campaignId")
+    List<Object[]> countByCampaignIds(@Param("campaignIds") Collection<UUID> campaignIds);
+
+    /**
+     * Deletes up to {@code limit} of a campaign's recipients, so purging a huge
+     * abandoned upload never becomes one giant transaction.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM recipient WHERE id IN " +
+            "(SELECT id FROM recipient WHERE campaign_id = :campaignId LIMIT :limit)", nativeQuery = true)
+    int deleteBatchByCampaignId(@Param("campaignId") UUID campaignId, @Param("limit") int limit);
+
     /**
      * Count messages sent this month for the given tenant (for rate limiting /
      * credit check).
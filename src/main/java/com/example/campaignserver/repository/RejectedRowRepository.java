@@ -0,0 +1,23 @@
+package com.example.campaignserver.repository;
+
+import com.example.campaignserver.entity.RejectedRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RejectedRowRepository extends JpaRepository<RejectedRow, UUID> {
+
+    List<RejectedRow> findByIngestionIdOrderByRecordNumberAsc(UUID ingestionId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RejectedRow r WHERE r.ingestionId = :ingestionId")
+    int deleteByIngestionId(@Param("ingestionId") UUID ingestionId);
+}
@@ -0,0 +1,271 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.AdmissionProperties;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.exception.AdmissionRejectedException;
+import com.example.campaignserver.repository.OutboxRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a new campaign may be accepted right now.
+ *
+ * Three load signals are compared against the budget of the campaign's
+ * lane:
+ * - outbox depth: campaign events of the lane not finished yet,
+ * - ingest bytes: recipient upload bytes currently being parsed,
+ * - pool utilization: share of the primary connection pool in use.
+ *
+ * Depth and pool usage are sampled every
+ * {@code campaign.admission.sample-interval-ms}, so admitting a request only
+ * reads the last sample. A rejected request gets a Retry-After sized from
+ * how fast the exceeded signal has recently been draining.
+ */
+@Slf4j
+@Component
+public class AdmissionController {
+
+    private static final List<String> OPEN_STATUSES = List.of("PENDING", "PROCESSING");
+
+    // Drain-rate floors, so an idle system does not produce an infinite wait
+    private static final double MIN_EVENTS_PER_SECOND = 0.1;
+    private static final double MIN_BYTES_PER_SECOND = 1024 * 1024;
+
+    private final AdmissionProperties properties;
+    private final OutboxRepository outboxRepository;
+    private final DataSource dataSource;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final LongAdder ingestedBytes = new LongAdder();
+
+    private volatile Sample sample;
+    private HikariDataSource hikari;
+    private boolean poolResolved;
+    private Instant lastSampledAt;
+    private long lastIngestedBytes;
+
+    /**
+     * Load observed at one point in time, with drain rates averaged over the
+     * previous samples.
+     */
+    record Sample(Map<DispatchLane, Long> outboxDepth,
+                  Map<DispatchLane, Double> eventsPerSecond,
+                  double bytesPerSecond,
+                  int poolActive,
+                  int poolMax,
+                  int poolWaiting) {
+
+        double poolUtilization() {
+            return poolMax == 0 ? 0 : (double) poolActive / poolMax;
+        }
+    }
+
+    /**
+     * Upload bytes held by one admitted request until it is closed.
+     */
+    public final class Permit implements AutoCloseable {
+        private long bytes;
+        private boolean closed;
+
+        private Permit(long declaredBytes) {
+            add(declaredBytes);
+        }
+
+        private synchronized void add(long count) {
+            if (count > 0 && !closed) {
+                bytes += count;
+                inFlightBytes.addAndGet(count);
+            }
+        }
+
+        /**
+         * Counts upload bytes as they are read, for bodies whose length was
+         * not known up front.
+         */
+        public InputStream track(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        add(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        add(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                inFlightBytes.addAndGet(-bytes);
+                ingestedBytes.add(bytes);
+            }
+        }
+    }
+
+    public AdmissionController(AdmissionProperties properties,
+            OutboxRepository outboxRepository,
+            DataSource dataSource) {
+        this.properties = properties;
+        this.outboxRepository = outboxRepository;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Admits a campaign or throws with a Retry-After.
+     *
+     * @param uploadBytes size of the recipient upload if known, else 0; the
+     *                    permit can count the rest with {@link Permit#track}
+     * @throws AdmissionRejectedException if a load signal is over the lane's budget
+     */
+    public Permit admit(DispatchLane lane, long uploadBytes) {
+        if (properties.isEnabled()) {
+            Sample current = sample;
+            if (current != null) {
+                check(lane, current, inFlightBytes.get() + Math.max(uploadBytes, 0));
+            }
+        }
+        return new Permit(uploadBytes);
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.admission.sample-interval-ms:1000}")
+    public void sample() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Map<DispatchLane, Long> depth = new EnumMap<>(DispatchLane.class);
+        Map<DispatchLane, Long> finished = new EnumMap<>(DispatchLane.class);
+        for (DispatchLane lane : DispatchLane.values()) {
+            depth.put(lane, outboxRepository.countByStatusInAndLane(OPEN_STATUSES, lane.name()));
+            if (lastSampledAt != null) {
+                finished.put(lane, outboxRepository.countByLaneAndProcessedAtAfter(lane.name(), lastSampledAt));
+            }
+        }
+        HikariDataSource primaryPool = primaryPool();
+        HikariPoolMXBean poolBean = primaryPool != null ? primaryPool.getHikariPoolMXBean() : null;
+        long ingested = ingestedBytes.sum();
+        double elapsed = lastSampledAt == null ? 0 : Duration.between(lastSampledAt, now).toMillis() / 1000.0;
+
+        record(depth, finished, ingested - lastIngestedBytes,
+                poolBean != null ? poolBean.getActiveConnections() : 0,
+                poolBean != null ? primaryPool.getMaximumPoolSize() : 0,
+                poolBean != null ? poolBean.getThreadsAwaitingConnection() : 0,
+                elapsed);
+        lastSampledAt = now;
+        lastIngestedBytes = ingested;
+    }
+
+    /**
+     * Folds one observation into the current sample.
+     *
+     * @param finished outbox events of each lane finished since the previous sample
+     * @param ingested upload bytes fully ingested since the previous sample
+     * @param elapsedSeconds time since the previous sample, 0 for the first
+     */
+    void record(Map<DispatchLane, Long> depth, Map<DispatchLane, Long> finished, long ingested,
+            int poolActive, int poolMax, int poolWaiting, double elapsedSeconds) {
+        Sample previous = sample;
+        double alpha = properties.getRateSmoothing();
+        Map<DispatchLane, Double> eventRates = new EnumMap<>(DispatchLane.class);
+        for (DispatchLane lane : DispatchLane.values()) {
+            double before = previous != null ? previous.eventsPerSecond().getOrDefault(lane, 0.0) : 0;
+            eventRates.put(lane, elapsedSeconds > 0
+                    ? smooth(before, finished.getOrDefault(lane, 0L) / elapsedSeconds, alpha)
+                    : before);
+        }
+        double byteRate = previous != null ? previous.bytesPerSecond() : 0;
+        if (elapsedSeconds > 0) {
+            byteRate = smooth(byteRate, ingested / elapsedSeconds, alpha);
+        }
+        sample = new Sample(depth, eventRates, byteRate, poolActive, poolMax, poolWaiting);
+    }
+
+    long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    private void check(DispatchLane lane, Sample current, long bytes) {
+        AdmissionProperties.Budget budget = properties.budgetFor(lane.name());
+        List<String> reasons = new ArrayList<>();
+        double waitSeconds = 0;
+
+        long depth = current.outboxDepth().getOrDefault(lane, 0L);
+        if (depth >= budget.getMaxOutboxDepth()) {
+            reasons.add(lane + " outbox depth " + depth + " >= " + budget.getMaxOutboxDepth());
+            double rate = Math.max(current.eventsPerSecond().getOrDefault(lane, 0.0), MIN_EVENTS_PER_SECOND);
+            waitSeconds = Math.max(waitSeconds, (depth - budget.getMaxOutboxDepth() + 1) / rate);
+        }
+
+        if (bytes > budget.getMaxIngestBytes()) {
+            reasons.add("ingest backlog " + bytes + " bytes > " + budget.getMaxIngestBytes());
+            double rate = Math.max(current.bytesPerSecond(), MIN_BYTES_PER_SECOND);
+            waitSeconds = Math.max(waitSeconds, (bytes - budget.getMaxIngestBytes()) / rate);
+        }
+
+        if (current.poolMax() > 0 && current.poolUtilization() >= budget.getMaxPoolUtilization()) {
+            reasons.add(String.format("connection pool %d/%d in use, %d waiting",
+                    current.poolActive(), current.poolMax(), current.poolWaiting()));
+            // Pool pressure clears quickly; back off longer the more threads queue for it
+            waitSeconds = Math.max(waitSeconds, properties.getMinRetryAfter().toSeconds()
+                    * (1.0 + (double) current.poolWaiting() / current.poolMax()));
+        }
+
+        if (reasons.isEmpty()) {
+            return;
+        }
+        long seconds = (long) Math.ceil(waitSeconds);
+        seconds = Math.max(seconds, properties.getMinRetryAfter().toSeconds());
+        seconds = Math.min(seconds, properties.getMaxRetryAfter().toSeconds());
+        throw new AdmissionRejectedException("Server is overloaded: " + String.join(", ", reasons),
+                Duration.ofSeconds(seconds));
+    }
+
+    /**
+     * The Hikari pool behind the (possibly wrapped or routing) data source;
+     * outside a read-only transaction that is the primary.
+     */
+    private HikariDataSource primaryPool() {
+        if (!poolResolved) {
+            poolResolved = true;
+            try {
+                hikari = dataSource.unwrap(HikariDataSource.class);
+            } catch (SQLException e) {
+                log.info("Connection pool is not Hikari, admission ignores pool utilization");
+            }
+        }
+        return hikari;
+    }
+
+    private static double smooth(double average, double value, double alpha) {
+        return average == 0 ? value : alpha * value + (1 - alpha) * average;
+    }
+}
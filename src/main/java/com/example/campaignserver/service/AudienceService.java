@@ -0,0 +1,178 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.dto.response.AudienceResponse;
+import com.example.campaignserver.entity.Audience;
+import com.example.campaignserver.entity.AudienceSnapshot;
+import com.example.campaignserver.entity.RecipientIngestion;
+import com.example.campaignserver.exception.ResourceNotFoundException;
+import com.example.campaignserver.exception.TenantNotFoundException;
+import com.example.campaignserver.repository.AudienceRepository;
+import com.example.campaignserver.repository.AudienceSnapshotRepository;
+import com.example.campaignserver.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Manages reusable audiences.
+ *
+ * Each upload is parsed once into a new snapshot. Campaigns created for an
+ * audience pin its current snapshot, so re-uploading never changes who an
+ * already created campaign sends to.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AudienceService {
+
+    private final AudienceRepository audienceRepository;
+    private final AudienceSnapshotRepository snapshotRepository;
+    private final TenantRepository tenantRepository;
+    private final RecipientIngestionService recipientIngestionService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AudienceResponse createAudience(UUID tenantId, String name, InputStream csv, String contentEncoding) {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new TenantNotFoundException("Tenant not found: " + tenantId);
+        }
+        Audience audience = audienceRepository.save(Audience.builder()
+                .tenantId(tenantId)
+                .name(name)
+                .build());
+        log.info("Created audience {} for tenant {}", audience.getId(), tenantId);
+
+        AudienceSnapshot snapshot = ingestSnapshot(audience, csv, contentEncoding);
+        return toResponse(audience, snapshot);
+    }
+
+    /**
+     * Uploads a new version of the audience's members and makes it current.
+     * Members are committed in chunks; the version only becomes current once
+     * all of them are in.
+     */
+    public AudienceResponse uploadSnapshot(UUID tenantId, UUID audienceId, InputStream csv,
+            String contentEncoding) {
+        Audience audience = findAudience(tenantId, audienceId);
+        AudienceSnapshot snapshot = ingestSnapshot(audience, csv, contentEncoding);
+        pruneSuperseded(audience, snapshot);
+        return toResponse(audience, snapshot);
+    }
+
+    @Transactional(readOnly = true)
+    public AudienceResponse getAudience(UUID tenantId, UUID audienceId) {
+        Audience audience = findAudience(tenantId, audienceId);
+        return toResponse(audience, currentSnapshot(audience));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AudienceResponse> getAudiences(UUID tenantId) {
+        return audienceRepository.findByTenantIdOrderByCreatedAtDesc(tenantId).stream()
+                .map(a -> toResponse(a, currentSnapshot(a)))
+                .toList();
+    }
+
+    /**
+     * CSV report of the rows rejected from the upload of the audience's
+     * current version.
+     */
+    public StreamingResponseBody rejectionsReport(UUID tenantId, UUID audienceId) {
+        UUID snapshotId = findAudience(tenantId, audienceId).getCurrentSnapshotId();
+        return out -> {
+            if (snapshotId != null) {
+                recipientIngestionService.writeRejections(RecipientIngestion.TARGET_AUDIENCE_SNAPSHOT, snapshotId,
+                        out);
+            }
+        };
+    }
+
+    /**
+     * The snapshot a new campaign for this audience should send to. Read on
+     * the primary: a lagging replica could still return the snapshot before
+     * the latest upload.
+     */
+    @Transactional
+    public AudienceSnapshot pinCurrentSnapshot(UUID tenantId, UUID audienceId) {
+        AudienceSnapshot snapshot = currentSnapshot(findAudience(tenantId, audienceId));
+        if (snapshot == null || !"READY".equals(snapshot.getStatus())) {
+            throw new IllegalArgumentException("Audience " + audienceId + " has no members yet");
+        }
+        return snapshot;
+    }
+
+    private AudienceSnapshot ingestSnapshot(Audience audience, InputStream csv, String contentEncoding) {
+        AudienceSnapshot snapshot = AudienceSnapshot.builder()
+                .audienceId(audience.getId())
+                .tenantId(audience.getTenantId())
+                .build();
+        RecipientIngestion ingestion = transactionTemplate.execute(tx -> {
+            snapshot.setVersion(snapshotRepository.findLatestVersion(audience.getId()) + 1);
+            snapshotRepository.save(snapshot);
+            return recipientIngestionService.begin(audience.getTenantId(),
+                    RecipientIngestion.TARGET_AUDIENCE_SNAPSHOT, snapshot.getId());
+        });
+
+        int count = csv != null
+                ? recipientIngestionService.ingestAudienceMembers(ingestion, csv, contentEncoding)
+                : 0;
+
+        recipientIngestionService.publish(ingestion.getId(), () -> {
+            snapshotRepository.markReady(snapshot.getId(), count);
+            audienceRepository.updateCurrentSnapshot(audience.getId(), snapshot.getId());
+        });
+        snapshot.setStatus("READY");
+        snapshot.setMemberCount(count);
+        audience.setCurrentSnapshotId(snapshot.getId());
+
+        log.info("Audience {} version {} ready with {} members", audience.getId(), snapshot.getVersion(), count);
+        return snapshot;
+    }
+
+    /**
+     * Drops old versions no campaign uses. The version just before the new
+     * one is always kept, since a campaign being created concurrently may
+     * still pin it.
+     */
+    private void pruneSuperseded(Audience audience, AudienceSnapshot current) {
+        List<UUID> unused = snapshotRepository.findUnreferencedBefore(audience.getId(),
+                current.getVersion() - 1);
+        long members = 0;
+        for (UUID snapshotId : unused) {
+            members += recipientIngestionService.purgeRows(RecipientIngestion.TARGET_AUDIENCE_SNAPSHOT, snapshotId);
+            snapshotRepository.deleteSnapshot(snapshotId);
+        }
+        if (!unused.isEmpty()) {
+            log.info("Pruned {} unused snapshots ({} members) of audience {}", unused.size(), members,
+                    audience.getId());
+        }
+    }
+
+    private Audience findAudience(UUID tenantId, UUID audienceId) {
+        return audienceRepository.findByIdAndTenantId(audienceId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Audience not found: " + audienceId + " for tenant: " + tenantId));
+    }
+
+    private AudienceSnapshot currentSnapshot(Audience audience) {
+        return audience.getCurrentSnapshotId() == null ? null
+                : snapshotRepository.findById(audience.getCurrentSnapshotId()).orElse(null);
+    }
+
+    private AudienceResponse toResponse(Audience audience, AudienceSnapshot snapshot) {
+        return AudienceResponse.builder()
+                .id(audience.getId())
+                .tenantId(audience.getTenantId())
+                .name(audience.getName())
+                .currentSnapshotId(snapshot != null ? snapshot.getId() : null)
+                .currentVersion(snapshot != null ? snapshot.getVersion() : 0)
+                .memberCount(snapshot != null ? snapshot.getMemberCount() : 0)
+                .createdAt(audience.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.entity.Campaign;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a tenant's campaign list, newest first: the (createdAt, id) of
+ * the last campaign returned. Clients only see it as an opaque URL-safe
+ * string.
+ */
+public record CampaignCursor(Instant createdAt, UUID id) {
+
+    public static CampaignCursor after(Campaign campaign) {
+        return new CampaignCursor(campaign.getCreatedAt(), campaign.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by
+     *                                  {@link #encode()}
+     */
+    public static CampaignCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new CampaignCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.DispatchProperties;
+import com.example.campaignserver.config.ScheduleProperties;
+import com.example.campaignserver.dispatch.PreparedBatchStore;
+import com.example.campaignserver.dispatch.RecipientBatch;
+import com.example.campaignserver.dispatch.RecipientBatchPool;
+import com.example.campaignserver.dispatch.RecipientBatchReader;
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.PreparedBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Prepares SCHEDULED campaigns before they start.
+ *
+ * Within {@code campaign.schedule.prewarm-window} of its scheduledAt, a
+ * campaign is planned into the same shards dispatch would use and its
+ * recipients are written out shard by shard as encoded pages of
+ * {@code dispatch.batch-size} rows ({@link PreparedBatchStore}). On
+ * activation the shard plan is taken from those pages instead of being
+ * computed, and the dispatcher sends from the pages instead of querying
+ * recipients, so a campaign starts at full rate as soon as it is due.
+ *
+ * Pages are committed a few at a time as they are read, and only take
+ * effect once the prewarmedAt marker is set at the end: dispatch and shard
+ * planning ignore the pages of an unmarked campaign. The marker is only set
+ * if the campaign's recipientsVersion is still the one taken, under the
+ * campaign's lock, when the pre-warm started, so a recipient change
+ * published meanwhile leaves the campaign unmarked and it is sent the usual
+ * way, or pre-warmed again on the next pass. A campaign activated before
+ * its pre-warm finishes is likewise sent the usual way.
+ */
+@Slf4j
+@Service
+public class CampaignPrewarmService {
+
+    private final CampaignRepository campaignRepository;
+    private final PreparedBatchRepository preparedBatchRepository;
+    private final PreparedBatchStore preparedBatches;
+    private final DispatchShardService shardService;
+    private final RecipientBatchReader batchReader;
+    private final RecipientBatchPool batchPool;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduleProperties properties;
+    private final DispatchProperties dispatchProperties;
+
+    public CampaignPrewarmService(CampaignRepository campaignRepository,
+            PreparedBatchRepository preparedBatchRepository,
+            PreparedBatchStore preparedBatches,
+            DispatchShardService shardService,
+            RecipientBatchReader batchReader,
+            RecipientBatchPool batchPool,
+            TransactionTemplate transactionTemplate,
+            ScheduleProperties properties,
+            DispatchProperties dispatchProperties) {
+        this.campaignRepository = campaignRepository;
+        this.preparedBatchRepository = preparedBatchRepository;
+        this.preparedBatches = preparedBatches;
+        this.shardService = shardService;
+        this.batchReader = batchReader;
+        this.batchPool = batchPool;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.dispatchProperties = dispatchProperties;
+    }
+
+    /**
+     * Pre-warms every scheduled campaign starting within the window, soonest
+     * first.
+     *
+     * @return the number of campaigns pre-warmed
+     */
+    public int prewarmUpcoming() {
+        if (!properties.isPrewarmEnabled()) {
+            return 0;
+        }
+        Instant until = Instant.now().plus(properties.getPrewarmWindow());
+        int prewarmed = 0;
+        for (Campaign campaign : campaignRepository.findScheduledCampaignsToPrewarm(until)) {
+            try {
+                if (prewarm(campaign)) {
+                    prewarmed++;
+                }
+            } catch (Exception e) {
+                // Typically another node pre-warming the same campaign; its pages win
+                log.warn("Failed to pre-warm campaign {}: {}", campaign.getId(), e.getMessage());
+            }
+        }
+        return prewarmed;
+    }
+
+    /**
+     * Drops the pages of campaigns that have finished.
+     */
+    public int purgeFinished() {
+        int purged = preparedBatchRepository.deleteFinished();
+        if (purged > 0) {
+            log.info("Purged {} prepared batches of finished campaigns", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * @return false if the campaign was activated, pre-warmed elsewhere or
+     *         had its recipients changed before this pre-warm finished
+     */
+    private boolean prewarm(Campaign campaign) {
+        long started = System.nanoTime();
+        UUID campaignId = campaign.getId();
+        int pageSize = dispatchProperties.getBatchSize();
+        List<UUID> boundaries = new ArrayList<>();
+        Long version = transactionTemplate.execute(tx -> {
+            Campaign locked = campaignRepository.findForUpdate(campaignId).orElse(null);
+            if (locked == null || !"SCHEDULED".equals(locked.getStatus()) || locked.getPrewarmedAt() != null) {
+                return null;
+            }
+            // Pages of an earlier attempt that did not finish
+            preparedBatchRepository.deleteByCampaignId(campaignId);
+            // Supersedes any pre-warm still running elsewhere
+            campaignRepository.bumpRecipientsVersion(campaignId);
+            boundaries.addAll(shardService.shardBoundaries(locked));
+            return locked.getRecipientsVersion() + 1;
+        });
+        if (version == null) {
+            return false;
+        }
+
+        PreparedBatchStore.Writer writer = preparedBatches.writer(campaignId, properties.getPrewarmWriteBatch());
+        UUID lower = null;
+        for (UUID upper : boundaries) {
+            UUID[] cursor = { lower };
+            boolean[] lastPage = { false };
+            do {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    RecipientBatch page = batchPool.acquire(campaignId, campaign.getTenantId(), pageSize);
+                    try {
+                        read(page, campaign, cursor[0], upper, pageSize);
+                        // Short (possibly empty) page ends the shard, as it does for the dispatcher
+                        lastPage[0] = page.size() < pageSize;
+                        writer.add(cursor[0], upper, page, lastPage[0]);
+                        if (!lastPage[0]) {
+                            cursor[0] = page.recipientId(page.size() - 1);
+                        }
+                    } finally {
+                        batchPool.release(page);
+                    }
+                });
+            } while (!lastPage[0]);
+            lower = upper;
+        }
+
+        boolean marked = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            writer.flush();
+            return campaignRepository.markPrewarmed(campaignId, version, Instant.now()) > 0;
+        }));
+        if (!marked) {
+            // Its pages are never used unmarked; the next pre-warm or purge drops them
+            log.info("Campaign {} was activated or changed before its pre-warm finished", campaignId);
+            return false;
+        }
+        log.info("Pre-warmed campaign {} scheduled at {}: {} pages in {} ms", campaignId,
+                campaign.getScheduledAt(), writer.getPages(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return true;
+    }
+
+    private void read(RecipientBatch page, Campaign campaign, UUID afterId, UUID upToId, int limit) {
+        if (campaign.getAudienceSnapshotId() != null) {
+            batchReader.readAudienceMembers(page, campaign.getAudienceSnapshotId(), afterId, upToId, limit);
+        } else {
+            batchReader.readRecipients(page, campaign.getId(), afterId, upToId, limit);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.dto.response.CampaignProfileResponse;
+import com.example.campaignserver.entity.CampaignProfile;
+import com.example.campaignserver.exception.ResourceNotFoundException;
+import com.example.campaignserver.metrics.LatencyHistogram;
+import com.example.campaignserver.repository.CampaignProfileRepository;
+import com.example.campaignserver.repository.CampaignRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Records the phase timeline of every campaign.
+ *
+ * Ingestion, outbox claim and per-batch load/send timings are collected in
+ * memory per campaign and merged into campaign_profile every
+ * {@code campaign.profile.flush-interval-ms}. Each node merges under a row
+ * lock, so a campaign sent by several nodes ends up with one timeline:
+ * earliest starts, latest ends, summed counts and merged histograms.
+ */
+@Slf4j
+@Service
+public class CampaignProfileService {
+
+    private final CampaignProfileRepository profileRepository;
+    private final CampaignRepository campaignRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Observations of this node not yet merged into the stored profile.
+     * Only modified inside {@code pending.compute}, which serializes it with
+     * the flush taking it out of the map.
+     */
+    private static final class Pending {
+        private Instant ingestStartedAt;
+        private Instant ingestFinishedAt;
+        private long ingestedRows;
+        private Instant queuedAt;
+        private Instant claimedAt;
+        private Instant firstSendAt;
+        private Instant lastSendAt;
+        private long batchCount;
+        private long sendCount;
+        private final LatencyHistogram loadLatency = new LatencyHistogram();
+        private final LatencyHistogram sendLatency = new LatencyHistogram();
+
+        private Pending merge(Pending other) {
+            ingestStartedAt = earliest(ingestStartedAt, other.ingestStartedAt);
+            ingestFinishedAt = latest(ingestFinishedAt, other.ingestFinishedAt);
+            ingestedRows += other.ingestedRows;
+            queuedAt = earliest(queuedAt, other.queuedAt);
+            claimedAt = earliest(claimedAt, other.claimedAt);
+            firstSendAt = earliest(firstSendAt, other.firstSendAt);
+            lastSendAt = latest(lastSendAt, other.lastSendAt);
+            batchCount += other.batchCount;
+            sendCount += other.sendCount;
+            loadLatency.add(other.loadLatency);
+            sendLatency.add(other.sendLatency);
+            return this;
+        }
+    }
+
+    public CampaignProfileService(CampaignProfileRepository profileRepository,
+            CampaignRepository campaignRepository,
+            TransactionTemplate transactionTemplate) {
+        this.profileRepository = profileRepository;
+        this.campaignRepository = campaignRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void recordIngest(UUID campaignId, Instant startedAt, Instant finishedAt, long rows) {
+        update(campaignId, p -> {
+            p.ingestStartedAt = earliest(p.ingestStartedAt, startedAt);
+            p.ingestFinishedAt = latest(p.ingestFinishedAt, finishedAt);
+            p.ingestedRows += rows;
+        });
+    }
+
+    /**
+     * @param queuedAt when the outbox event was written
+     */
+    public void recordClaim(UUID campaignId, Instant queuedAt, Instant claimedAt) {
+        update(campaignId, p -> {
+            p.queuedAt = earliest(p.queuedAt, queuedAt);
+            p.claimedAt = earliest(p.claimedAt, claimedAt);
+        });
+    }
+
+    /**
+     * Records one dispatched batch.
+     *
+     * @param loadNanos time spent reading the batch's recipients
+     * @param sendNanos time spent sending them
+     */
+    public void recordBatch(UUID campaignId, int size, long loadNanos, long sendNanos) {
+        Instant now = Instant.now();
+        Instant started = now.minusNanos(sendNanos);
+        update(campaignId, p -> {
+            p.firstSendAt = earliest(p.firstSendAt, started);
+            p.lastSendAt = latest(p.lastSendAt, now);
+            p.batchCount++;
+            p.sendCount += size;
+            p.loadLatency.recordNanos(loadNanos);
+            p.sendLatency.recordNanos(sendNanos);
+        });
+    }
+
+    /**
+     * Merges this node's observations into the stored profiles. A profile
+     * that fails to merge keeps its observations for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${campaign.profile.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        for (UUID campaignId : pending.keySet()) {
+            Pending observed = pending.remove(campaignId);
+            if (observed == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    CampaignProfile profile = profileRepository.findForUpdate(campaignId)
+                            .orElseGet(() -> CampaignProfile.builder().campaignId(campaignId).build());
+                    merge(profile, observed);
+                    profileRepository.save(profile);
+                });
+            } catch (Exception e) {
+                // Typically another node created the same profile first; the next flush updates it
+                log.warn("Failed to store profile of campaign {}, retrying next interval: {}", campaignId,
+                        e.getMessage());
+                pending.merge(campaignId, observed, Pending::merge);
+            }
+        }
+    }
+
+    /**
+     * The stored timeline plus whatever this node has not flushed yet.
+     */
+    @Transactional(readOnly = true)
+    public CampaignProfileResponse getProfile(UUID tenantId, UUID campaignId) {
+        campaignRepository.findByIdAndTenantId(campaignId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Campaign not found: " + campaignId + " for tenant: " + tenantId));
+
+        CampaignProfile profile = profileRepository.findById(campaignId)
+                .orElseGet(() -> CampaignProfile.builder().campaignId(campaignId).build());
+        CampaignProfile view = CampaignProfile.builder()
+                .campaignId(campaignId)
+                .ingestStartedAt(profile.getIngestStartedAt())
+                .ingestFinishedAt(profile.getIngestFinishedAt())
+                .ingestedRows(profile.getIngestedRows())
+                .queuedAt(profile.getQueuedAt())
+                .claimedAt(profile.getClaimedAt())
+                .firstSendAt(profile.getFirstSendAt())
+                .lastSendAt(profile.getLastSendAt())
+                .batchCount(profile.getBatchCount())
+                .sendCount(profile.getSendCount())
+                .loadLatency(profile.getLoadLatency())
+                .sendLatency(profile.getSendLatency())
+                .build();
+        pending.computeIfPresent(campaignId, (id, p) -> {
+            merge(view, p);
+            return p;
+        });
+        return toResponse(view);
+    }
+
+    private void update(UUID campaignId, Consumer<Pending> change) {
+        pending.compute(campaignId, (id, p) -> {
+            Pending target = p != null ? p : new Pending();
+            change.accept(target);
+            return target;
+        });
+    }
+
+    private static void merge(CampaignProfile profile, Pending observed) {
+        profile.setIngestStartedAt(earliest(profile.getIngestStartedAt(), observed.ingestStartedAt));
+        profile.setIngestFinishedAt(latest(profile.getIngestFinishedAt(), observed.ingestFinishedAt));
+        profile.setIngestedRows(profile.getIngestedRows() + observed.ingestedRows);
+        profile.setQueuedAt(earliest(profile.getQueuedAt(), observed.queuedAt));
+        profile.setClaimedAt(earliest(profile.getClaimedAt(), observed.claimedAt));
+        profile.setFirstSendAt(earliest(profile.getFirstSendAt(), observed.firstSendAt));
+        profile.setLastSendAt(latest(profile.getLastSendAt(), observed.lastSendAt));
+        profile.setBatchCount(profile.getBatchCount() + observed.batchCount);
+        profile.setSendCount(profile.getSendCount() + observed.sendCount);
+        profile.setLoadLatency(mergeHistogram(profile.getLoadLatency(), observed.loadLatency));
+        profile.setSendLatency(mergeHistogram(profile.getSendLatency(), observed.sendLatency));
+    }
+
+    private static byte[] mergeHistogram(byte[] stored, LatencyHistogram observed) {
+        if (observed.getTotalCount() == 0) {
+            return stored;
+        }
+        LatencyHistogram merged = LatencyHistogram.decode(stored);
+        merged.add(observed);
+        return merged.encode();
+    }
+
+    private static CampaignProfileResponse toResponse(CampaignProfile profile) {
+        Long ingestMillis = millisBetween(profile.getIngestStartedAt(), profile.getIngestFinishedAt());
+        return CampaignProfileResponse.builder()
+                .campaignId(profile.getCampaignId())
+                .ingestStartedAt(profile.getIngestStartedAt())
+                .ingestFinishedAt(profile.getIngestFinishedAt())
+                .ingestMillis(ingestMillis)
+                .ingestedRows(profile.getIngestedRows())
+                .ingestRowsPerSecond(ingestMillis != null
+                        ? profile.getIngestedRows() * 1000.0 / Math.max(ingestMillis, 1)
+                        : null)
+                .queuedAt(profile.getQueuedAt())
+                .claimedAt(profile.getClaimedAt())
+                .outboxWaitMillis(millisBetween(profile.getQueuedAt(), profile.getClaimedAt()))
+                .firstSendAt(profile.getFirstSendAt())
+                .lastSendAt(profile.getLastSendAt())
+                .startupMillis(millisBetween(profile.getClaimedAt(), profile.getFirstSendAt()))
+                .sendMillis(millisBetween(profile.getFirstSendAt(), profile.getLastSendAt()))
+                .batchCount(profile.getBatchCount())
+                .sendCount(profile.getSendCount())
+                .loadLatency(summarize(LatencyHistogram.decode(profile.getLoadLatency())))
+                .sendLatency(summarize(LatencyHistogram.decode(profile.getSendLatency())))
+                .build();
+    }
+
+    private static CampaignProfileResponse.LatencySummary summarize(LatencyHistogram histogram) {
+        return CampaignProfileResponse.LatencySummary.builder()
+                .count(histogram.getTotalCount())
+                .p50Micros(histogram.percentileMicros(50.0))
+                .p90Micros(histogram.percentileMicros(90.0))
+                .p99Micros(histogram.percentileMicros(99.0))
+                .maxMicros(histogram.getMaxMicros())
+                .build();
+    }
+
+    private static Long millisBetween(Instant from, Instant to) {
+        return from != null && to != null ? Duration.between(from, to).toMillis() : null;
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+}
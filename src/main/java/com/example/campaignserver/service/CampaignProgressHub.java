@@ -0,0 +1,288 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.ProgressProperties;
+import com.example.campaignserver.dto.response.CampaignProgressEvent;
+import com.example.campaignserver.dto.response.CampaignResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * In-memory fan-out of campaign progress to Server-Sent Event subscribers.
+ *
+ * The dispatcher and retry worker report count changes here as they commit
+ * them. Changes are only tracked for campaigns somebody is watching, summed
+ * per campaign, and pushed to every subscriber at most once per
+ * {@code campaign.progress.push-interval-ms}. Any number of subscribers
+ * share one campaign's state.
+ *
+ * Those changes are only this node's, so each watched campaign's counts and
+ * status are also re-read from the database once per
+ * {@code campaign.progress.resync-interval}: that is how shards sent by
+ * other nodes and completion show up. The first subscriber registers the
+ * campaign before its baseline is read, so nothing committed while it loads
+ * is missed. A reading replaces the changes recorded before it started;
+ * one committed just as a reading starts can be counted twice until the
+ * next one.
+ */
+@Slf4j
+@Component
+public class CampaignProgressHub {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED");
+
+    private final ProgressProperties properties;
+    private final Map<UUID, CampaignChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * State of one watched campaign: the totals last pushed and the deltas
+     * accumulated since.
+     */
+    private static final class CampaignChannel {
+        private final Supplier<CampaignResponse> stats;
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicLong sentDelta = new AtomicLong();
+        private final AtomicLong failedDelta = new AtomicLong();
+        private final AtomicLong delayedDelta = new AtomicLong();
+        private final AtomicReference<String> pendingStatus = new AtomicReference<>();
+
+        // Only touched while holding the channel's monitor; null until the baseline is read
+        private CampaignProgressEvent totals;
+        private long readAtNanos;
+
+        private CampaignChannel(Supplier<CampaignResponse> stats) {
+            this.stats = stats;
+        }
+    }
+
+    public CampaignProgressHub(ProgressProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Opens a progress stream. The first event ("snapshot") carries the
+     * current totals, later ones ("progress") the coalesced changes.
+     *
+     * @param stats reads the campaign's current stats from the primary: for
+     *              the baseline if nobody is watching the campaign yet, and
+     *              then once per resync interval while anybody is
+     */
+    public SseEmitter subscribe(UUID campaignId, Supplier<CampaignResponse> stats) {
+        return subscribe(campaignId, stats, new SseEmitter(properties.getEmitterTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(UUID campaignId, Supplier<CampaignResponse> stats, SseEmitter emitter) {
+        // Registered first, so changes committed while the baseline loads are recorded
+        CampaignChannel channel = channels.compute(campaignId, (id, existing) -> {
+            CampaignChannel c = existing != null ? existing : new CampaignChannel(stats);
+            c.subscribers.add(emitter);
+            return c;
+        });
+
+        Runnable unsubscribe = () -> remove(campaignId, channel, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        CampaignProgressEvent snapshot;
+        synchronized (channel) {
+            if (channel.totals == null) {
+                try {
+                    read(channel);
+                } catch (RuntimeException e) {
+                    unsubscribe.run();
+                    throw e;
+                }
+            }
+            snapshot = copy(channel.totals);
+        }
+        send(campaignId, channel, emitter, SseEmitter.event().name("snapshot").data(snapshot));
+        if (TERMINAL_STATUSES.contains(snapshot.getStatus())) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Records committed count changes. A no-op unless the campaign is being
+     * watched; inside a transaction the change is applied after commit.
+     */
+    public void recordDelta(UUID campaignId, long sent, long failed, long delayed) {
+        if (!channels.containsKey(campaignId) || (sent == 0 && failed == 0 && delayed == 0)) {
+            return;
+        }
+        afterCommit(() -> {
+            CampaignChannel channel = channels.get(campaignId);
+            if (channel != null) {
+                channel.sentDelta.addAndGet(sent);
+                channel.failedDelta.addAndGet(failed);
+                channel.delayedDelta.addAndGet(delayed);
+            }
+        });
+    }
+
+    public void recordStatus(UUID campaignId, String status) {
+        if (!channels.containsKey(campaignId)) {
+            return;
+        }
+        afterCommit(() -> {
+            CampaignChannel channel = channels.get(campaignId);
+            if (channel != null) {
+                channel.pendingStatus.set(status);
+            }
+        });
+    }
+
+    /**
+     * Pushes one coalesced event per campaign that changed since the last
+     * push, and closes the streams of campaigns that finished. Campaigns due
+     * a resync are re-read first.
+     */
+    @Scheduled(fixedDelayString = "${campaign.progress.push-interval-ms:1000}")
+    public void flush() {
+        long resyncNanos = properties.getResyncInterval().toNanos();
+        channels.forEach((campaignId, channel) -> {
+            CampaignProgressEvent event;
+            try {
+                event = drain(channel, resyncNanos);
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh progress of campaign {}: {}", campaignId, e.getMessage());
+                return;
+            }
+            if (event == null) {
+                return;
+            }
+            for (SseEmitter emitter : channel.subscribers) {
+                send(campaignId, channel, emitter, SseEmitter.event().name("progress").data(event));
+            }
+            if (TERMINAL_STATUSES.contains(event.getStatus())) {
+                channel.subscribers.forEach(SseEmitter::complete);
+                channels.remove(campaignId, channel);
+            }
+        });
+    }
+
+    public int subscriberCount(UUID campaignId) {
+        CampaignChannel channel = channels.get(campaignId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    /**
+     * Re-reads the campaign if a resync is due and folds pending deltas into
+     * the totals.
+     *
+     * @return the event to push, or null if nothing changed
+     */
+    private CampaignProgressEvent drain(CampaignChannel channel, long resyncNanos) {
+        synchronized (channel) {
+            if (channel.totals == null) {
+                // The first subscriber's baseline failed to load
+                return null;
+            }
+            CampaignProgressEvent before = copy(channel.totals);
+            if (System.nanoTime() - channel.readAtNanos >= resyncNanos) {
+                read(channel);
+            }
+
+            long sent = channel.sentDelta.getAndSet(0);
+            long failed = channel.failedDelta.getAndSet(0);
+            long delayed = channel.delayedDelta.getAndSet(0);
+            String status = channel.pendingStatus.getAndSet(null);
+            CampaignProgressEvent totals = channel.totals;
+            totals.setSentCount(totals.getSentCount() + sent);
+            totals.setFailedCount(totals.getFailedCount() + failed);
+            totals.setDelayedCount(totals.getDelayedCount() + delayed);
+            totals.setPendingCount(Math.max(0L, totals.getTotalRecipients() - totals.getSentCount()
+                    - totals.getFailedCount() - totals.getDelayedCount()));
+            if (status != null) {
+                totals.setStatus(status);
+            }
+            if (totals.equals(before)) {
+                return null;
+            }
+            CampaignProgressEvent event = copy(totals);
+            event.setSentDelta(totals.getSentCount() - before.getSentCount());
+            event.setFailedDelta(totals.getFailedCount() - before.getFailedCount());
+            event.setDelayedDelta(totals.getDelayedCount() - before.getDelayedCount());
+            return event;
+        }
+    }
+
+    /**
+     * Replaces the totals with the campaign's stats read now. Changes
+     * recorded before the read are dropped, as the read covers them. Called
+     * holding the channel's monitor.
+     */
+    private static void read(CampaignChannel channel) {
+        channel.sentDelta.set(0);
+        channel.failedDelta.set(0);
+        channel.delayedDelta.set(0);
+        channel.pendingStatus.set(null);
+        CampaignResponse current = channel.stats.get();
+        channel.readAtNanos = System.nanoTime();
+        channel.totals = CampaignProgressEvent.builder()
+                .campaignId(current.getId())
+                .status(current.getStatus())
+                .totalRecipients(current.getTotalRecipients())
+                .sentCount(current.getSentCount())
+                .failedCount(current.getFailedCount())
+                .delayedCount(current.getDelayedCount())
+                .pendingCount(current.getPendingCount())
+                .build();
+    }
+
+    private void send(UUID campaignId, CampaignChannel channel, SseEmitter emitter,
+            SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; drop it so it is not retried on every push
+            log.debug("Dropping progress subscriber of campaign {}: {}", campaignId, e.getMessage());
+            remove(campaignId, channel, emitter);
+        }
+    }
+
+    private void remove(UUID campaignId, CampaignChannel channel, SseEmitter emitter) {
+        channel.subscribers.remove(emitter);
+        channels.computeIfPresent(campaignId, (id, c) -> c == channel && c.subscribers.isEmpty() ? null : c);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static CampaignProgressEvent copy(CampaignProgressEvent e) {
+        return CampaignProgressEvent.builder()
+                .campaignId(e.getCampaignId())
+                .status(e.getStatus())
+                .totalRecipients(e.getTotalRecipients())
+                .sentCount(e.getSentCount())
+                .failedCount(e.getFailedCount())
+                .delayedCount(e.getDelayedCount())
+                .pendingCount(e.getPendingCount())
+                .build();
+    }
+}
@@ -1,23 +1,43 @@
 package com.example.campaignserver.service;
 
+import com.example.campaignserver.dispatch.DispatchLane;
 import com.example.campaignserver.dto.request.CampaignCreateRequest;
 import com.example.campaignserver.dto.response.CampaignResponse;
+import com.example.campaignserver.dto.response.CursorPage;
 import com.example.campaignserver.dto.response.PagedResponse;
 import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.entity.OutboxEvent;
+import com.example.campaignserver.entity.RecipientIngestion;
+import com.example.campaignserver.exception.CsvParseException;
 import com.example.campaignserver.exception.ResourceNotFoundException;
 import com.example.campaignserver.exception.TenantNotFoundException;
+import com.example.campaignserver.entity.AudienceSnapshot;
+import com.example.campaignserver.repository.AudienceSnapshotRepository;
 import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.OutboxRepository;
 import com.example.campaignserver.repository.RecipientRepository;
 import com.example.campaignserver.repository.TenantRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -33,18 +53,29 @@ public class CampaignService {
         private final CampaignRepository campaignRepository;
         private final RecipientRepository recipientRepository;
         private final TenantRepository tenantRepository;
-        private final CsvParsingService csvParsingService;
-        private final com.example.campaignserver.repository.OutboxRepository outboxRepository;
+        private final RecipientIngestionService recipientIngestionService;
+        private final TransactionTemplate transactionTemplate;
+        private final CampaignProgressHub progressHub;
+        private final OutboxRepository outboxRepository;
+        private final DeliveryRetryService deliveryRetryService;
+        private final AudienceService audienceService;
+        private final AudienceSnapshotRepository audienceSnapshotRepository;
+        private final DispatchShardService dispatchShardService;
+        private final CampaignProfileService profileService;
 
         /**
          * Creates a new campaign.
          * It validates the tenant, saves the campaign, parses the recipients CSV,
          * and records an outbox event for background processing.
+         *
+         * Not one transaction: with a CSV the campaign is first saved as INGESTING,
+         * recipients are committed chunk by chunk through the
+         * {@link RecipientIngestionService}, and a final short transaction makes
+         * the campaign RUNNING/SCHEDULED together with its outbox event.
          * 
          * @param request The campaign creation request data
          * @return CampaignResponse with the initial stats
          */
-        @Transactional
         public CampaignResponse createCampaign(CampaignCreateRequest request) {
                 log.info("Starting createCampaign for tenant: {}", request.getTenantId());
 
@@ -56,6 +87,20 @@ public class CampaignService {
                         throw new TenantNotFoundException("Tenant not found: " + tId);
                 }
 
+                boolean hasCsv = request.getRecipientsStream() != null
+                                || (request.getRecipientsCsv() != null && !request.getRecipientsCsv().isEmpty());
+
+                // An audience campaign sends to the audience's current snapshot, pinned now so
+                // later uploads to the audience do not change it
+                AudienceSnapshot snapshot = null;
+                if (request.getAudienceId() != null) {
+                        if (hasCsv) {
+                                throw new IllegalArgumentException(
+                                                "Provide either an audienceId or a recipients CSV, not both");
+                        }
+                        snapshot = audienceService.pinCurrentSnapshot(tId, request.getAudienceId());
+                }
+
                 // Determine if the status should be RUNNING or SCHEDULED
                 String status = "RUNNING";
                 if (request.getScheduledAt() != null) {
@@ -70,47 +115,60 @@ public class CampaignService {
                                 .messageTemplate(request.getMessageTemplate())
                                 .isTransactional(request.isTransactional())
                                 .scheduledAt(request.getScheduledAt())
-                                .status(status)
+                                .status(hasCsv ? "INGESTING" : status)
+                                .audienceSnapshotId(snapshot != null ? snapshot.getId() : null)
                                 .build();
 
-                // Save campaign to database
-                campaign = campaignRepository.save(campaign);
-                UUID campaignId = campaign.getId();
-                log.info("Campaign saved with ID: {}", campaignId);
-
-                // Process recipients if CSV is provided
                 int count = 0;
-                if (request.getRecipientsCsv() != null && !request.getRecipientsCsv().isEmpty()) {
-                        try {
-                                // Use the CsvParsingService to parse and save recipients in batches
-                                count = csvParsingService.streamRecipients(
-                                                request.getRecipientsCsv(), tId, campaignId,
-                                                batch -> {
-                                                        // In this simplified version the consumer is ignored by the
-                                                        // service, but we keep
-                                                        // the call for backwards compatibility.
-                                                });
-                                log.info("Processed {} recipients for campaign {}", count, campaignId);
-                        } catch (Exception e) {
-                                log.error("Error parsing recipients CSV: {}", e.getMessage());
-                                // Rethrow as a runtime exception or handle as needed
-                                throw new RuntimeException("Failed to process recipients CSV", e);
+                long rejected = 0;
+                if (!hasCsv) {
+                        // Nothing to ingest: save and publish in one transaction
+                        Campaign toSave = campaign;
+                        campaign = transactionTemplate.execute(tx -> {
+                                Campaign saved = campaignRepository.save(toSave);
+                                recordOutboxEvent(saved);
+                                return saved;
+                        });
+                        if (snapshot != null) {
+                                count = (int) snapshot.getMemberCount();
+                                log.info("Campaign {} sends to audience snapshot {} ({} members)", campaign.getId(),
+                                                snapshot.getId(), count);
                         }
-                }
+                } else {
+                        Campaign staged = campaign;
+                        RecipientIngestion ingestion = transactionTemplate.execute(tx -> {
+                                campaignRepository.save(staged);
+                                return recipientIngestionService.begin(tId, RecipientIngestion.TARGET_CAMPAIGN,
+                                                staged.getId());
+                        });
+                        UUID campaignId = staged.getId();
+                        log.info("Campaign saved with ID: {}, ingesting recipients as {}", campaignId,
+                                        ingestion.getId());
 
-                // Record an outbox event for background processing
-                if ("RUNNING".equals(status)) {
-                        com.example.campaignserver.entity.OutboxEvent event = com.example.campaignserver.entity.OutboxEvent
-                                        .builder()
-                                        .tenantId(tId)
-                                        .aggregateType("CAMPAIGN")
-                                        .aggregateId(campaignId)
-                                        .eventType("CAMPAIGN_CREATED")
-                                        .status("PENDING")
-                                        .payload("{}")
-                                        .build();
-                        outboxRepository.save(event);
-                        log.info("Outbox event created for campaign: {}", campaignId);
+                        Instant ingestStartedAt = Instant.now();
+                        if (request.getRecipientsStream() != null) {
+                                // Streamed request body: parsed as it arrives, never written to disk
+                                count = recipientIngestionService.ingestRecipients(ingestion,
+                                                request.getRecipientsStream(), request.getRecipientsEncoding());
+                        } else {
+                                try (InputStream in = request.getRecipientsCsv().getInputStream()) {
+                                        count = recipientIngestionService.ingestRecipients(ingestion, in, null);
+                                } catch (IOException e) {
+                                        throw new CsvParseException("Failed to read CSV file: " + e.getMessage(), e);
+                                }
+                        }
+                        profileService.recordIngest(campaignId, ingestStartedAt, Instant.now(), count);
+                        rejected = recipientIngestionService.getRejectedCount(ingestion.getId());
+                        log.info("Processed {} recipients for campaign {} ({} rejected)", count, campaignId,
+                                        rejected);
+
+                        // Short publish transaction: recipients, status and outbox event go live together
+                        String finalStatus = status;
+                        recipientIngestionService.publish(ingestion.getId(), () -> {
+                                campaignRepository.updateStatus(campaignId, finalStatus);
+                                staged.setStatus(finalStatus);
+                                recordOutboxEvent(staged);
+                        });
                 }
 
                 // Return the response object with basic stats
@@ -129,6 +187,7 @@ public class CampaignService {
                                 .skippedCount(0L)
                                 .pendingCount((long) count)
                                 .delayedCount(0L)
+                                .rejectedCount(rejected)
                                 .build();
         }
 
@@ -139,15 +198,11 @@ public class CampaignService {
         public PagedResponse<CampaignResponse> getCampaigns(UUID tenantId, int page, int size) {
                 log.info("Fetching campaigns for tenant {} - page: {}, size: {}", tenantId, page, size);
 
-                PageRequest pageRequest = PageRequest.of(page, size, Sort.by("createdAt").descending());
+                PageRequest pageRequest = PageRequest.of(page, size,
+                                Sort.by("createdAt").descending().and(Sort.by("id").descending()));
                 Page<Campaign> campaignPage = campaignRepository.findByTenantId(tenantId, pageRequest);
 
-                List<CampaignResponse> responseList = new ArrayList<>();
-                // Logic to loop through and build the responses with stats
-                for (Campaign c : campaignPage.getContent()) {
-                        CampaignResponse resp = buildCampaignResponseWithStats(c);
-                        responseList.add(resp);
-                }
+                List<CampaignResponse> responseList = buildCampaignResponsesWithStats(campaignPage.getContent());
 
                 return PagedResponse.<CampaignResponse>builder()
                                 .content(responseList)
@@ -159,6 +214,41 @@ public class CampaignService {
                                 .build();
         }
 
+        /**
+         * Fetches one keyset page of a tenant's campaigns, newest first. Unlike
+         * {@link #getCampaigns(UUID, int, int)} there is no offset and no total
+         * count, so a deep page costs the same as the first.
+         *
+         * @param cursor the previous page's nextCursor, or null for the first page
+         */
+        @Transactional(readOnly = true)
+        public CursorPage<CampaignResponse> getCampaignsByCursor(UUID tenantId, String cursor, int limit) {
+                log.info("Fetching campaigns for tenant {} - cursor: {}, limit: {}", tenantId, cursor, limit);
+
+                // One extra row tells us whether another page exists
+                Limit fetch = Limit.of(limit + 1);
+                List<Campaign> campaigns;
+                if (cursor == null || cursor.isBlank()) {
+                        campaigns = campaignRepository.findByTenantIdOrderByCreatedAtDescIdDesc(tenantId, fetch);
+                } else {
+                        CampaignCursor after = CampaignCursor.decode(cursor);
+                        campaigns = campaignRepository.findByTenantIdBefore(tenantId, after.createdAt(), after.id(),
+                                        fetch);
+                }
+
+                boolean hasMore = campaigns.size() > limit;
+                if (hasMore) {
+                        campaigns = campaigns.subList(0, limit);
+                }
+
+                return CursorPage.<CampaignResponse>builder()
+                                .content(buildCampaignResponsesWithStats(campaigns))
+                                .limit(limit)
+                                .nextCursor(hasMore ? CampaignCursor.after(campaigns.get(limit - 1)).encode() : null)
+                                .hasMore(hasMore)
+                                .build();
+        }
+
         /**
          * Fetches a single campaign by its ID and tenant ID.
          */
@@ -171,6 +261,30 @@ public class CampaignService {
                 return buildCampaignResponseWithStats(campaign);
         }
 
+        /**
+         * Opens a live progress stream for a campaign. Stats are computed here
+         * if nobody else is watching the campaign yet, and again on every
+         * resync of the hub.
+         */
+        public SseEmitter streamProgress(UUID tenantId, UUID campaignId) {
+                campaignRepository.findByIdAndTenantId(campaignId, tenantId)
+                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                "Campaign not found: " + campaignId + " for tenant: " + tenantId));
+
+                return progressHub.subscribe(campaignId, () -> currentStats(campaignId));
+        }
+
+        /**
+         * CSV report of the rows rejected from the campaign's recipient upload.
+         */
+        public StreamingResponseBody rejectionsReport(UUID tenantId, UUID campaignId) {
+                campaignRepository.findByIdAndTenantId(campaignId, tenantId)
+                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                "Campaign not found: " + campaignId + " for tenant: " + tenantId));
+                return out -> recipientIngestionService.writeRejections(RecipientIngestion.TARGET_CAMPAIGN,
+                                campaignId, out);
+        }
+
         /**
          * Re-queues failed notification jobs for a campaign.
          */
@@ -181,13 +295,62 @@ public class CampaignService {
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Campaign not found: " + campaignId + " for tenant: " + tenantId));
 
-                // In this simplified implementation we do not track individual notification
-                // jobs,
-                // so there is nothing to actually retry.
-                log.info("Retry requested for campaign {} but retry logic is not implemented in simplified version.",
-                                campaignId);
+                // Failed sends are kept in the delayed-retry queue, so retrying means giving
+                // them a fresh attempt budget there
+                int requeued = deliveryRetryService.requeueFailed(campaignId);
+                log.info("Requeued {} failed sends for campaign {}", requeued, campaignId);
+
+                return requeued;
+        }
+
+        /**
+         * Starts a SCHEDULED campaign whose time has come: it becomes RUNNING
+         * together with its outbox event.
+         *
+         * @return false if another node activated it first or it is no longer
+         *         scheduled
+         */
+        @Transactional
+        public boolean activateScheduledCampaign(Campaign campaign) {
+                if (campaignRepository.activateScheduled(campaign.getId()) == 0) {
+                        return false;
+                }
+                campaign.setStatus("RUNNING");
+                recordOutboxEvent(campaign);
+                return true;
+        }
+
+        /**
+         * Records an outbox event for background processing if the campaign
+         * should start now. Runs in the caller's transaction.
+         */
+        private void recordOutboxEvent(Campaign campaign) {
+                if (!"RUNNING".equals(campaign.getStatus())) {
+                        return;
+                }
+                OutboxEvent event = OutboxEvent.builder()
+                                .tenantId(campaign.getTenantId())
+                                .aggregateType("CAMPAIGN")
+                                .aggregateId(campaign.getId())
+                                .eventType("CAMPAIGN_CREATED")
+                                .status("PENDING")
+                                .lane(DispatchLane.of(campaign.isTransactional()).name())
+                                .payload("{}")
+                                .build();
+                outboxRepository.save(event);
+                log.info("Outbox event created for campaign: {}", campaign.getId());
+        }
 
-                return 0;
+        /**
+         * Reads a campaign's stats in a new read-write transaction: from the
+         * primary rather than a lagging replica, and with a fresh persistence
+         * context rather than the request's already loaded campaign.
+         */
+        private CampaignResponse currentStats(UUID campaignId) {
+                TransactionTemplate fresh = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                fresh.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                return fresh.execute(tx -> buildCampaignResponseWithStats(campaignRepository.findById(campaignId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Campaign not found: " + campaignId))));
         }
 
         /**
@@ -196,14 +359,60 @@ public class CampaignService {
         private CampaignResponse buildCampaignResponseWithStats(Campaign campaign) {
                 UUID cid = campaign.getId();
 
-                // For the junior version we only track total recipients; other stats are
-                // returned as simple defaults.
-                long total = recipientRepository.countByCampaignId(cid);
-                long sent = 0L;
-                long failed = 0L;
+                // Sent/failed are running counters on the campaign; delayed sends are the
+                // ones still waiting in the retry queue
+                long total = campaign.getAudienceSnapshotId() != null
+                                ? audienceSnapshotRepository.findById(campaign.getAudienceSnapshotId())
+                                                .map(AudienceSnapshot::getMemberCount).orElse(0L)
+                                : recipientRepository.countByCampaignId(cid);
+                return buildCampaignResponse(campaign, total, deliveryRetryService.countDelayed(cid),
+                                dispatchShardService.countShards(List.of(cid)).get(cid));
+        }
+
+        /**
+         * Builds responses for a page of campaigns with a fixed number of grouped
+         * count queries, instead of two per campaign.
+         */
+        private List<CampaignResponse> buildCampaignResponsesWithStats(List<Campaign> campaigns) {
+                if (campaigns.isEmpty()) {
+                        return List.of();
+                }
+                List<UUID> ids = campaigns.stream().map(Campaign::getId).toList();
+
+                Map<UUID, Long> totals = new HashMap<>();
+                for (Object[] row : recipientRepository.countByCampaignIds(ids)) {
+                        totals.put((UUID) row[0], (Long) row[1]);
+                }
+                List<UUID> snapshotIds = campaigns.stream().map(Campaign::getAudienceSnapshotId)
+                                .filter(Objects::nonNull).distinct().toList();
+                Map<UUID, Long> snapshotTotals = new HashMap<>();
+                for (AudienceSnapshot snapshot : audienceSnapshotRepository.findAllById(snapshotIds)) {
+                        snapshotTotals.put(snapshot.getId(), snapshot.getMemberCount());
+                }
+                Map<UUID, Long> delayed = deliveryRetryService.countDelayed(ids);
+                Map<UUID, long[]> shards = dispatchShardService.countShards(ids);
+
+                List<CampaignResponse> responses = new ArrayList<>(campaigns.size());
+                for (Campaign c : campaigns) {
+                        long total = c.getAudienceSnapshotId() != null
+                                        ? snapshotTotals.getOrDefault(c.getAudienceSnapshotId(), 0L)
+                                        : totals.getOrDefault(c.getId(), 0L);
+                        responses.add(buildCampaignResponse(c, total, delayed.getOrDefault(c.getId(), 0L),
+                                        shards.get(c.getId())));
+                }
+                return responses;
+        }
+
+        /**
+         * @param shards {shards, completed} from {@link DispatchShardService#countShards},
+         *               or null if the campaign has not been planned yet
+         */
+        private CampaignResponse buildCampaignResponse(Campaign campaign, long total, long delayed,
+                        long[] shards) {
+                long sent = campaign.getSentCount();
+                long failed = campaign.getFailedCount();
                 long skipped = 0L;
-                long delayed = 0L;
-                long pending = total;
+                long pending = Math.max(0L, total - sent - failed - skipped - delayed);
 
                 // Use the builder to construct the final response object
                 return CampaignResponse.builder()
@@ -221,6 +430,8 @@ public class CampaignService {
                                 .skippedCount(skipped)
                                 .pendingCount(pending)
                                 .delayedCount(delayed)
+                                .shardCount(shards != null ? shards[0] : 0L)
+                                .completedShards(shards != null ? shards[1] : 0L)
                                 .build();
         }
 }
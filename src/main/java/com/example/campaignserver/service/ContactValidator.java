@@ -0,0 +1,209 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.IngestionProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Validates and normalizes recipient contact fields at ingest.
+ *
+ * Every upload row goes through here, so the checks are hand-written
+ * single-pass scans over lookup tables rather than regexes, and a value that
+ * is already normal is returned as is without allocating. Each method
+ * returns the normalized value, or null if the input is not acceptable.
+ */
+@Component
+public class ContactValidator {
+
+    private static final int MAX_EMAIL_LENGTH = 254;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    // E.164: at most 15 digits including the country code
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    // RFC 5322 dot-atom characters allowed in an unquoted local part, besides '.'
+    private static final boolean[] LOCAL_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOCAL_CHARS[c] = true;
+            LOCAL_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            LOCAL_CHARS[c] = true;
+        }
+        for (char c : "!#$%&'*+/=?^_`{|}~-".toCharArray()) {
+            LOCAL_CHARS[c] = true;
+        }
+    }
+
+    private static final Map<String, String> ZONES = new HashMap<>();
+    private static final Map<String, String> ZONES_IGNORE_CASE = new HashMap<>();
+
+    static {
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            ZONES.put(id, id);
+            ZONES_IGNORE_CASE.put(id.toLowerCase(Locale.ROOT), id);
+        }
+    }
+
+    private final String defaultCallingCode;
+
+    public ContactValidator(IngestionProperties properties) {
+        String code = properties.getDefaultCallingCode();
+        this.defaultCallingCode = code == null || code.isBlank() ? null : code.replace("+", "").trim();
+    }
+
+    /**
+     * Checks dot-atom email syntax (no quoted local parts, ASCII domains) and
+     * lower-cases the domain.
+     */
+    public String normalizeEmail(String email) {
+        int length = email.length();
+        int at = email.indexOf('@');
+        if (length > MAX_EMAIL_LENGTH || at <= 0 || at > MAX_LOCAL_PART_LENGTH || at != email.lastIndexOf('@')) {
+            return null;
+        }
+
+        char previous = '.';
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (previous == '.') {
+                    return null; // leading or consecutive dot
+                }
+            } else if (c >= 128 || !LOCAL_CHARS[c]) {
+                return null;
+            }
+            previous = c;
+        }
+        if (previous == '.') {
+            return null;
+        }
+
+        int labels = 0;
+        int labelStart = at + 1;
+        boolean labelAllDigits = true;
+        boolean upperCase = false;
+        for (int i = at + 1; i <= length; i++) {
+            char c = i < length ? email.charAt(i) : '.';
+            if (c == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0 || labelLength > MAX_LABEL_LENGTH
+                        || email.charAt(labelStart) == '-' || email.charAt(i - 1) == '-') {
+                    return null;
+                }
+                labels++;
+                if (i == length && (labelLength < 2 || labelAllDigits)) {
+                    return null; // top-level domain
+                }
+                labelStart = i + 1;
+                labelAllDigits = true;
+            } else if (c >= 'a' && c <= 'z' || c == '-') {
+                labelAllDigits = false;
+            } else if (c >= 'A' && c <= 'Z') {
+                labelAllDigits = false;
+                upperCase = true;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        if (labels < 2) {
+            return null;
+        }
+        return upperCase ? email.substring(0, at + 1) + email.substring(at + 1).toLowerCase(Locale.ROOT) : email;
+    }
+
+    /**
+     * Normalizes a phone number to E.164 ({@code +} and 7 to 15 digits).
+     * Spaces, dots, dashes and parentheses are dropped and a {@code 00}
+     * international prefix becomes {@code +}. National numbers only pass when
+     * {@code campaign.ingestion.default-calling-code} is set; their leading
+     * trunk {@code 0} is replaced by it.
+     */
+    public String normalizePhone(String phone) {
+        int length = phone.length();
+        int start;
+        boolean international;
+        if (phone.startsWith("+")) {
+            start = 1;
+            international = true;
+        } else if (phone.startsWith("00")) {
+            start = 2;
+            international = true;
+        } else {
+            start = 0;
+            international = false;
+        }
+
+        char[] digits = new char[MAX_PHONE_DIGITS + 1];
+        digits[0] = '+';
+        int count = 0;
+        boolean alreadyNormal = international && start == 1;
+        for (int i = start; i < length; i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (count == MAX_PHONE_DIGITS) {
+                    return null;
+                }
+                digits[1 + count++] = c;
+            } else if (c == ' ' || c == '-' || c == '.' || c == '(' || c == ')') {
+                alreadyNormal = false;
+            } else {
+                return null;
+            }
+        }
+
+        if (!international) {
+            if (defaultCallingCode == null) {
+                return null;
+            }
+            int trunk = count > 0 && digits[1] == '0' ? 1 : 0;
+            int national = count - trunk;
+            if (defaultCallingCode.length() + national > MAX_PHONE_DIGITS) {
+                return null;
+            }
+            System.arraycopy(digits, 1 + trunk, digits, 1 + defaultCallingCode.length(), national);
+            defaultCallingCode.getChars(0, defaultCallingCode.length(), digits, 1);
+            count = defaultCallingCode.length() + national;
+        }
+
+        if (count < MIN_PHONE_DIGITS || digits[1] == '0') {
+            return null;
+        }
+        return alreadyNormal ? phone : new String(digits, 0, count + 1);
+    }
+
+    /**
+     * Resolves a timezone against the JDK's region ids (case-insensitively,
+     * returning the canonical spelling) or as a fixed offset such as
+     * {@code +02:00} or {@code UTC+2}.
+     */
+    public String normalizeTimezone(String timezone) {
+        String id = ZONES.get(timezone);
+        if (id != null) {
+            return id;
+        }
+        id = ZONES_IGNORE_CASE.get(timezone.toLowerCase(Locale.ROOT));
+        if (id != null) {
+            return id;
+        }
+        char first = timezone.charAt(0);
+        if (first != '+' && first != '-' && first != 'Z' && !timezone.startsWith("UTC")
+                && !timezone.startsWith("GMT")) {
+            return null;
+        }
+        try {
+            return ZoneId.of(timezone).getId();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
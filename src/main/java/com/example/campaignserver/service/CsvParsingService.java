@@ -1,56 +1,115 @@
 package com.example.campaignserver.service;
 
+import com.example.campaignserver.entity.AudienceMember;
 import com.example.campaignserver.entity.Recipient;
 import com.example.campaignserver.exception.CsvParseException;
-import com.example.campaignserver.repository.RecipientRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Service to parse CSV files containing recipient information.
- * This service reads the file and saves recipients in batches to the database.
+ * This service reads the file and hands recipients in batches to a sink that saves them.
+ *
+ * Parsing is pull-based: the next rows are only read from the stream once the
+ * previous batch has been written, so a slow database naturally throttles the
+ * upload instead of buffering it in memory.
+ *
+ * Contact fields are validated and normalized by the {@link ContactValidator}
+ * as rows are read. A row that fails is reported as a {@link Rejection} next
+ * to its chunk instead of aborting the upload; only a malformed file does
+ * that.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CsvParsingService {
 
-    private final RecipientRepository recipientRepository;
+    private final EntityManager entityManager;
+    private final RecipientStreamDecoder recipientStreamDecoder;
+    private final ContactValidator contactValidator;
     private static final int BATCH_SIZE = 500;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REJECTED_VALUE_LENGTH = 255;
 
     /**
-     * Parses the CSV file and saves recipients for a specific campaign.
-     * 
-     * @param file       The multipart file from the request
-     * @param tenantId   The tenant owning the campaign
-     * @param campaignId The campaign ID
-     * @return The total number of recipients saved
+     * An upload row left out because one of its fields failed validation.
+     *
+     * @param recordNumber 1-based CSV record number, not counting the header
+     * @param reason       MISSING_RECIPIENT_ID, INVALID_EMAIL, INVALID_PHONE or INVALID_TIMEZONE
+     * @param value        the offending value, truncated
      */
-    public int parseAndSaveRecipients(
-            MultipartFile file,
-            UUID tenantId,
-            UUID campaignId) {
-
-        // Basic check if file is empty
-        if (file == null || file.isEmpty()) {
-            log.warn("CSV file is empty or null");
-            return 0;
-        }
+    public record Rejection(long recordNumber, String recipientRef, String reason, String value) {
+    }
 
+    /**
+     * Receives each parsed chunk: its valid rows and the rows rejected since
+     * the previous chunk. Either list may be empty, and both are reused after
+     * the call returns.
+     */
+    @FunctionalInterface
+    public interface ChunkSink<T> {
+        void accept(List<T> rows, List<Rejection> rejections);
+    }
+
+    /**
+     * Normalized contact fields of a valid row.
+     */
+    private record Contact(String recipientRef, String email, String phone, String timezone) {
+    }
+
+    /**
+     * Parses recipients and hands each batch to {@code batchSink}, which is
+     * responsible for persisting it (e.g. in its own transaction). The stream
+     * is read exactly once and never buffered as a whole, so there is no size
+     * limit.
+     *
+     * @param contentEncoding gzip, x-gzip, zstd or identity; null to detect
+     *                        gzip and zstd from their magic bytes
+     * @return the number of valid recipients
+     */
+    public int parseRecipients(InputStream in, String contentEncoding, UUID tenantId, UUID campaignId,
+            ChunkSink<Recipient> batchSink) {
         log.info("Starting CSV parsing for campaign: {}", campaignId);
+        return parseAndSave(in, contentEncoding,
+                contact -> mapRecordToRecipient(contact, tenantId, campaignId),
+                batchSink);
+    }
 
+    /**
+     * Parses an audience upload into the members of one snapshot and hands
+     * each batch to {@code batchSink}. Same format and limits as campaign
+     * recipient lists.
+     *
+     * @return the number of valid members
+     */
+    public int parseAudienceMembers(InputStream in, String contentEncoding, UUID snapshotId,
+            ChunkSink<AudienceMember> batchSink) {
+        log.info("Starting CSV parsing for audience snapshot: {}", snapshotId);
+        return parseAndSave(in, contentEncoding,
+                contact -> mapRecordToAudienceMember(contact, snapshotId),
+                batchSink);
+    }
+
+    /**
+     * Reads the CSV and hands rows to {@code saver} in batches of
+     * {@link #BATCH_SIZE} rows, valid and rejected together.
+     */
+    private <T> int parseAndSave(InputStream in, String contentEncoding,
+            Function<Contact, T> mapper, ChunkSink<T> saver) {
         // Define the CSV format using the commons-csv library
         CSVFormat format = CSVFormat.DEFAULT.builder()
                 .setHeader()
@@ -60,12 +119,15 @@ public class CsvParsingService {
                 .build();
 
         int totalCount = 0;
-        List<Recipient> currentBatch = new ArrayList<>();
+        int rejectedCount = 0;
+        List<T> currentBatch = new ArrayList<>();
+        List<Rejection> rejections = new ArrayList<>();
 
-        try (
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
-                CSVParser parser = new CSVParser(reader, format)) {
+        // Closing the decoded stream stops a background decompressor if parsing fails early
+        try (InputStream decoded = recipientStreamDecoder.decode(in, contentEncoding)) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(decoded, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            CSVParser parser = new CSVParser(reader, format);
 
             // Validate that the required headers are present
             validateCsvHeaders(parser);
@@ -77,23 +139,25 @@ public class CsvParsingService {
                     continue;
                 }
 
-                // Map the CSV row to our Recipient entity
-                Recipient recipient = mapRecordToRecipient(record, tenantId, campaignId);
-                currentBatch.add(recipient);
-                totalCount++;
+                Contact contact = validate(record, rejections);
+                if (contact != null) {
+                    currentBatch.add(mapper.apply(contact));
+                    totalCount++;
+                } else {
+                    rejectedCount++;
+                }
 
                 // If batch size is reached, save to database and clear list
-                if (currentBatch.size() >= BATCH_SIZE) {
-                    recipientRepository.saveAll(currentBatch);
-                    log.debug("Saved batch of {} recipients", currentBatch.size());
-                    currentBatch.clear();
+                if (currentBatch.size() + rejections.size() >= BATCH_SIZE) {
+                    saveBatch(currentBatch, rejections, saver);
+                    log.debug("Saved batch of {} recipients", BATCH_SIZE);
                 }
             }
 
             // Save any remaining recipients in the last batch
-            if (!currentBatch.isEmpty()) {
-                recipientRepository.saveAll(currentBatch);
+            if (!currentBatch.isEmpty() || !rejections.isEmpty()) {
                 log.debug("Saved final batch of {} recipients", currentBatch.size());
+                saveBatch(currentBatch, rejections, saver);
             }
 
         } catch (Exception e) {
@@ -101,10 +165,24 @@ public class CsvParsingService {
             throw new CsvParseException("Failed to parse CSV file: " + e.getMessage(), e);
         }
 
-        log.info("Finished parsing CSV. Total recipients: {}", totalCount);
+        log.info("Finished parsing CSV. Total recipients: {}, rejected: {}", totalCount, rejectedCount);
         return totalCount;
     }
 
+    /**
+     * Writes a batch and detaches it, so the persistence context does not grow
+     * with the size of the upload.
+     */
+    private <T> void saveBatch(List<T> batch, List<Rejection> rejections, ChunkSink<T> saver) {
+        saver.accept(batch, rejections);
+        if (entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        batch.clear();
+        rejections.clear();
+    }
+
     /**
      * Helper to validate CSV headers.
      */
@@ -129,59 +207,94 @@ public class CsvParsingService {
     }
 
     /**
-     * Maps a single CSV record to a Recipient entity.
+     * Validates and normalizes a record's fields.
+     *
+     * @return the contact fields, or null if the row was rejected (the reason
+     *         is added to {@code rejections})
      */
-    private Recipient mapRecordToRecipient(CSVRecord record, UUID tenantId, UUID campaignId) {
-        String recipientRef = record.get("recipientId");
-
-        // Validation for required field
-        if (recipientRef == null || recipientRef.trim().isEmpty()) {
-            throw new CsvParseException("Found empty recipientId at record number " + record.getRecordNumber());
+    private Contact validate(CSVRecord record, List<Rejection> rejections) {
+        String recipientRef = getCellValue(record, "recipientId");
+        if (recipientRef == null) {
+            return reject(rejections, record, null, "MISSING_RECIPIENT_ID", null);
         }
 
-        // Get optional fields
         String email = getCellValue(record, "email");
+        if (email != null) {
+            String normalized = contactValidator.normalizeEmail(email);
+            if (normalized == null) {
+                return reject(rejections, record, recipientRef, "INVALID_EMAIL", email);
+            }
+            email = normalized;
+        }
+
         String phone = getCellValue(record, "phone");
-        String timezone = getCellValue(record, "timezone");
+        if (phone != null) {
+            String normalized = contactValidator.normalizePhone(phone);
+            if (normalized == null) {
+                return reject(rejections, record, recipientRef, "INVALID_PHONE", phone);
+            }
+            phone = normalized;
+        }
 
         // Use UTC as default timezone if not provided
-        if (timezone == null || timezone.trim().isEmpty()) {
+        String timezone = getCellValue(record, "timezone");
+        if (timezone == null) {
             timezone = "UTC";
+        } else {
+            String normalized = contactValidator.normalizeTimezone(timezone);
+            if (normalized == null) {
+                return reject(rejections, record, recipientRef, "INVALID_TIMEZONE", timezone);
+            }
+            timezone = normalized;
+        }
+        return new Contact(recipientRef, email, phone, timezone);
+    }
+
+    private Contact reject(List<Rejection> rejections, CSVRecord record, String recipientRef, String reason,
+            String value) {
+        if (value != null && value.length() > MAX_REJECTED_VALUE_LENGTH) {
+            value = value.substring(0, MAX_REJECTED_VALUE_LENGTH);
         }
+        rejections.add(new Rejection(record.getRecordNumber(), recipientRef, reason, value));
+        return null;
+    }
 
+    /**
+     * Maps a validated row to a Recipient entity.
+     */
+    private Recipient mapRecordToRecipient(Contact contact, UUID tenantId, UUID campaignId) {
         return Recipient.builder()
                 .tenantId(tenantId)
                 .campaignId(campaignId)
-                .recipientRef(recipientRef.trim())
-                .email(email)
-                .phone(phone)
-                .timezone(timezone.trim())
+                .recipientRef(contact.recipientRef())
+                .email(contact.email())
+                .phone(contact.phone())
+                .timezone(contact.timezone())
                 .build();
     }
 
     /**
-     * Helper to safely get a cell value from a CSV record.
+     * Maps a validated row to a member of an audience snapshot.
      */
-    private String getCellValue(CSVRecord record, String columnName) {
-        try {
-            String value = record.get(columnName);
-            if (value != null && !value.trim().isEmpty()) {
-                return value.trim();
-            }
-            return null;
-        } catch (IllegalArgumentException e) {
-            // Column might not exist in the CSV
-            return null;
-        }
+    private AudienceMember mapRecordToAudienceMember(Contact contact, UUID snapshotId) {
+        return AudienceMember.builder()
+                .snapshotId(snapshotId)
+                .recipientRef(contact.recipientRef())
+                .email(contact.email())
+                .phone(contact.phone())
+                .timezone(contact.timezone())
+                .build();
     }
 
     /**
-     * Legacy method for backward compatibility if needed, but we now use
-     * parseAndSaveRecipients.
+     * Helper to safely get a cell value from a CSV record.
      */
-    public int streamRecipients(MultipartFile file, UUID tenantId, UUID campaignId,
-            java.util.function.Consumer<List<Recipient>> batchConsumer) {
-        // Redirection to the new method or implementing old one for compatibility
-        return parseAndSaveRecipients(file, tenantId, campaignId);
+    private String getCellValue(CSVRecord record, String columnName) {
+        // Column might not exist in the CSV; checked up front rather than by catching, as this runs per cell
+        if (!record.isSet(columnName)) {
+            return null;
+        }
+        String value = record.get(columnName);
+        return value != null && !value.isBlank() ? value.trim() : null;
     }
 }
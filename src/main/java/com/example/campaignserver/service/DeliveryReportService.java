@@ -0,0 +1,220 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.exception.ResourceNotFoundException;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Exports per-recipient delivery outcomes of a campaign.
+ *
+ * Rows are read with plain JDBC inside a read-only transaction with a fetch
+ * size, so the driver streams them from a server-side cursor (PostgreSQL only
+ * does this with auto-commit off), and each row is written to the response as
+ * soon as it is read. Nothing is mapped to entities, so memory stays constant
+ * regardless of campaign size.
+ *
+ * Outcomes come from the delivery_retry table for recipients whose first send
+ * failed. A recipient without a retry row was sent successfully if a
+ * dispatch shard's cursor has passed it; otherwise it is UNSENT if its shard
+ * failed and PENDING if it is still to be sent. This is worked out per row
+ * in the same snapshot as the rest of the export.
+ */
+@Slf4j
+@Service
+public class DeliveryReportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] COLUMNS = { "recipientId", "email", "phone", "status", "attempts",
+            "lastErrorCode", "updatedAt" };
+
+    // Status of a row without a retry row: shards cover (lower_bound, upper_bound] and have sent up to cursor_id
+    private static final String STATUS_SQL = """
+            COALESCE(d.status,
+                     CASE WHEN EXISTS (SELECT 1 FROM dispatch_shard s
+                                       WHERE s.campaign_id = ? AND s.cursor_id >= %1$s
+                                         AND (s.lower_bound IS NULL OR s.lower_bound < %1$s)) THEN 'SENT'
+                          WHEN EXISTS (SELECT 1 FROM dispatch_shard s
+                                       WHERE s.campaign_id = ? AND s.status = 'FAILED'
+                                         AND (s.lower_bound IS NULL OR s.lower_bound < %1$s)
+                                         AND (s.upper_bound IS NULL OR s.upper_bound >= %1$s)) THEN 'UNSENT'
+                          ELSE 'PENDING' END)""";
+
+    private static final String RECIPIENT_SQL = """
+            SELECT r.recipient_ref, r.email, r.phone, %s, d.attempts, d.last_error_code, d.updated_at
+            FROM recipient r
+            LEFT JOIN delivery_retry d ON d.campaign_id = r.campaign_id AND d.recipient_id = r.id
+            WHERE r.campaign_id = ?
+            ORDER BY r.id""".formatted(STATUS_SQL.formatted("r.id"));
+
+    private static final String AUDIENCE_SQL = """
+            SELECT m.recipient_ref, m.email, m.phone, %s, d.attempts, d.last_error_code, d.updated_at
+            FROM audience_member m
+            LEFT JOIN delivery_retry d ON d.campaign_id = ? AND d.recipient_id = m.id
+            WHERE m.snapshot_id = ?
+            ORDER BY m.id""".formatted(STATUS_SQL.formatted("m.id"));
+
+    private final CampaignRepository campaignRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public DeliveryReportService(CampaignRepository campaignRepository,
+            DataSource dataSource,
+            ObjectMapper objectMapper) {
+        this.campaignRepository = campaignRepository;
+        this.objectMapper = objectMapper;
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+
+        // Plain JDBC, so a JDBC transaction manager: unlike the JPA one it can
+        // set the isolation level whatever Hibernate's connection handling is
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Checks the campaign exists for the tenant. Call before committing the
+     * response, so a bad id still gets a normal 404.
+     */
+    public Campaign findCampaign(UUID tenantId, UUID campaignId) {
+        return campaignRepository.findByIdAndTenantId(campaignId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Campaign not found: " + campaignId + " for tenant: " + tenantId));
+    }
+
+    /**
+     * Streams the report to {@code out}. Runs the whole query in one read-only
+     * transaction so the export is a consistent snapshot.
+     */
+    public void writeReport(Campaign campaign, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowSink sink = format == Format.NDJSON ? new NdjsonSink(writer) : new CsvSink(writer);
+
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(tx -> {
+                long[] count = { 0 };
+                RowCallbackHandler handler = rs -> {
+                    sink.write(rs);
+                    count[0]++;
+                };
+                UUID campaignId = campaign.getId();
+                if (campaign.getAudienceSnapshotId() != null) {
+                    jdbcTemplate.query(AUDIENCE_SQL, handler, campaignId, campaignId, campaignId,
+                            campaign.getAudienceSnapshotId());
+                } else {
+                    jdbcTemplate.query(RECIPIENT_SQL, handler, campaignId, campaignId, campaignId);
+                }
+                return count[0];
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client disconnected mid-export
+        }
+        sink.finish();
+        log.info("Exported {} report rows for campaign {} as {}", rows, campaign.getId(), format);
+    }
+
+    private interface RowSink {
+        void write(ResultSet rs) throws SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final CSVPrinter printer;
+
+        private CsvSink(Writer writer) throws IOException {
+            this.printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(COLUMNS).build());
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            // Attempts are only known for recipients with a retry row
+            Integer attempts = rs.getObject(5) != null ? rs.getInt(5) : null;
+            Timestamp updatedAt = rs.getTimestamp(7);
+            try {
+                printer.printRecord(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4),
+                        attempts,
+                        rs.getString(6),
+                        updatedAt != null ? updatedAt.toInstant() : null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            printer.close(true);
+        }
+    }
+
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+
+        private NdjsonSink(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            Integer attempts = rs.getObject(5) != null ? rs.getInt(5) : null;
+            Timestamp updatedAt = rs.getTimestamp(7);
+            try {
+                generator.writeStartObject();
+                generator.writeStringField(COLUMNS[0], rs.getString(1));
+                generator.writeStringField(COLUMNS[1], rs.getString(2));
+                generator.writeStringField(COLUMNS[2], rs.getString(3));
+                generator.writeStringField(COLUMNS[3], rs.getString(4));
+                if (attempts != null) {
+                    generator.writeNumberField(COLUMNS[4], attempts);
+                } else {
+                    generator.writeNullField(COLUMNS[4]);
+                }
+                generator.writeStringField(COLUMNS[5], rs.getString(6));
+                generator.writeStringField(COLUMNS[6], updatedAt != null ? updatedAt.toInstant().toString() : null);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+}
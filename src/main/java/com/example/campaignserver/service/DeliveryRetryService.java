@@ -0,0 +1,279 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.RetryProperties;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.dispatch.NotificationDispatcher;
+import com.example.campaignserver.dispatch.SendResult;
+import com.example.campaignserver.dispatch.SendTask;
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.entity.DeliveryRetry;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.DeliveryRetryRepository;
+import com.example.campaignserver.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Durable delayed-retry queue for provider failures.
+ *
+ * Failed sends are parked in delivery_retry with a next_attempt_at computed by
+ * {@link RetryBackoffPolicy}; the retry worker drains due rows and updates the
+ * campaign's sent/failed counters as they resolve. Provider calls are made
+ * outside any transaction. Retries shed by an open circuit breaker never
+ * reached the provider and do not count as attempts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryRetryService {
+
+    private final DeliveryRetryRepository deliveryRetryRepository;
+    private final CampaignRepository campaignRepository;
+    private final OutboxRepository outboxRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final RetryBackoffPolicy backoffPolicy;
+    private final RetryProperties retryProperties;
+    private final CampaignProgressHub progressHub;
+    private final DeliveryRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * A first-attempt failure reported by the campaign worker.
+     */
+    public record FailedSend(UUID recipientId, String destination, String errorCode) {
+    }
+
+    /**
+     * Parks first-attempt failures of a campaign. Retryable ones become DELAYED,
+     * the rest are stored as FAILED straight away.
+     *
+     * @return the number of sends that failed permanently
+     */
+    public int scheduleRetries(Campaign campaign, List<FailedSend> failures) {
+        if (failures.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<DeliveryRetry> rows = new ArrayList<>(failures.size());
+        int failed = 0;
+        for (FailedSend failure : failures) {
+            DeliveryRetry retry = DeliveryRetry.builder()
+                    .tenantId(campaign.getTenantId())
+                    .campaignId(campaign.getId())
+                    .recipientId(failure.recipientId())
+                    .channel(campaign.getChannel())
+                    .destination(failure.destination())
+                    .attempts(1)
+                    .lastErrorCode(failure.errorCode())
+                    .build();
+            if (!park(retry, now)) {
+                failed++;
+            }
+            rows.add(retry);
+        }
+        deliveryRetryRepository.saveAll(rows);
+        log.info("Parked {} failed sends for campaign {} ({} permanently failed)",
+                rows.size(), campaign.getId(), failed);
+        return failed;
+    }
+
+    /**
+     * Claims and re-sends the retries that are due.
+     *
+     * No connection or row lock is held while the provider is called: a
+     * short transaction claims due rows by pushing their next_attempt_at out
+     * by {@code claim-timeout}, the sends run outside any transaction, and a
+     * second short transaction records the outcomes of the rows this call
+     * still holds. Rows of a worker that dies mid-send are due again once
+     * their claim times out.
+     *
+     * @return ids of the campaigns that had retries processed
+     */
+    public Set<UUID> processDueRetries(Instant now) {
+        Instant claimedUntil = now.plus(retryProperties.getClaimTimeout()).truncatedTo(ChronoUnit.MILLIS);
+        List<DeliveryRetry> due = transactionTemplate.execute(tx -> claimDue(now, claimedUntil));
+        if (due.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<UUID, List<DeliveryRetry>> byCampaign = due.stream()
+                .collect(Collectors.groupingBy(DeliveryRetry::getCampaignId));
+        Map<UUID, Campaign> campaigns = campaignRepository.findAllById(byCampaign.keySet()).stream()
+                .collect(Collectors.toMap(Campaign::getId, Function.identity()));
+        Map<UUID, SendResult> results = new HashMap<>(); // retry id -> result
+        byCampaign.forEach((campaignId, retries) -> {
+            Campaign campaign = campaigns.get(campaignId);
+            if (campaign == null) {
+                return;
+            }
+            List<SendTask> tasks = retries.stream()
+                    .map(retry -> new SendTask(retry.getRecipientId(), retry.getDestination()))
+                    .toList();
+            List<SendResult> sent = notificationDispatcher.dispatch(DispatchLane.of(campaign.isTransactional()),
+                    campaign.getChannel(), campaign.getMessageTemplate(), tasks, null);
+            for (int i = 0; i < retries.size(); i++) {
+                results.put(retries.get(i).getId(), sent.get(i));
+            }
+        });
+
+        Map<UUID, long[]> counts = transactionTemplate.execute(tx ->
+                recordOutcomes(due, campaigns, results, claimedUntil, Instant.now()));
+        counts.forEach((campaignId, tally) -> {
+            Campaign campaign = campaigns.get(campaignId);
+            if (campaign != null) {
+                rollupService.record(campaign.getTenantId(), campaign.getChannel(), tally[0], tally[1],
+                        tally[2] - tally[0] - tally[1]);
+            }
+            if (tally[0] > 0 || tally[1] > 0) {
+                progressHub.recordDelta(campaignId, tally[0], tally[1], -(tally[0] + tally[1]));
+            }
+        });
+        log.info("Processed {} due retries across {} campaigns", due.size(), byCampaign.size());
+        return new HashSet<>(counts.keySet());
+    }
+
+    /**
+     * Locks the next due retries and moves their next_attempt_at to
+     * {@code claimedUntil}, which both hides them from other workers and
+     * identifies them as this call's when the outcomes are recorded.
+     */
+    private List<DeliveryRetry> claimDue(Instant now, Instant claimedUntil) {
+        List<DeliveryRetry> due = deliveryRetryRepository.findDueForUpdate(now,
+                PageRequest.of(0, retryProperties.getBatchSize()));
+        due.forEach(retry -> retry.setNextAttemptAt(claimedUntil));
+        return deliveryRetryRepository.saveAll(due);
+    }
+
+    /**
+     * Applies send results to the claimed rows. Rows removed since the claim
+     * (their recipient was removed) or taken over after it timed out are
+     * left alone.
+     *
+     * @return campaignId -> {sent, failed, rows recorded}
+     */
+    private Map<UUID, long[]> recordOutcomes(List<DeliveryRetry> claimed, Map<UUID, Campaign> campaigns,
+            Map<UUID, SendResult> results, Instant claimedUntil, Instant now) {
+        Map<UUID, long[]> counts = new HashMap<>();
+        for (DeliveryRetry retry : deliveryRetryRepository.findAllById(
+                claimed.stream().map(DeliveryRetry::getId).toList())) {
+            if (!"DELAYED".equals(retry.getStatus()) || !claimedUntil.equals(retry.getNextAttemptAt())) {
+                continue;
+            }
+            long[] tally = counts.computeIfAbsent(retry.getCampaignId(), id -> new long[3]);
+            tally[2]++;
+            SendResult result = results.get(retry.getId());
+            if (!campaigns.containsKey(retry.getCampaignId()) || result == null) {
+                retry.setStatus("FAILED");
+                retry.setNextAttemptAt(null);
+                continue;
+            }
+            if (NotificationDispatcher.CIRCUIT_OPEN.equals(result.response().getErrorCode())) {
+                // Shed before reaching the provider: wait out the breaker without spending an attempt
+                retry.setNextAttemptAt(now.plus(backoffPolicy.shedDelay(retry.getAttempts())));
+                continue;
+            }
+            retry.setAttempts(retry.getAttempts() + 1);
+            if (result.response().isSuccess()) {
+                retry.setStatus("SENT");
+                retry.setNextAttemptAt(null);
+                tally[0]++;
+            } else {
+                retry.setLastErrorCode(result.response().getErrorCode());
+                if (!park(retry, now)) {
+                    tally[1]++;
+                }
+            }
+        }
+        counts.forEach((campaignId, tally) -> {
+            if (tally[0] > 0 || tally[1] > 0) {
+                campaignRepository.incrementDeliveryCounts(campaignId, tally[0], tally[1]);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Re-queues every permanently failed send of a campaign.
+     *
+     * @return the number of sends put back on the retry queue
+     */
+    @Transactional
+    public int requeueFailed(UUID campaignId) {
+        int requeued = deliveryRetryRepository.requeueFailed(campaignId, Instant.now());
+        if (requeued > 0) {
+            campaignRepository.incrementDeliveryCounts(campaignId, 0, -requeued);
+            campaignRepository.updateStatus(campaignId, "RUNNING");
+            progressHub.recordDelta(campaignId, 0, -requeued, requeued);
+            progressHub.recordStatus(campaignId, "RUNNING");
+        }
+        return requeued;
+    }
+
+    /**
+     * Marks a RUNNING campaign COMPLETED once its main pass is done and no
+     * retries are left waiting.
+     */
+    public void completeCampaignIfDrained(UUID campaignId) {
+        if (deliveryRetryRepository.countByCampaignIdAndStatus(campaignId, "DELAYED") > 0) {
+            return;
+        }
+        if (outboxRepository.existsByAggregateIdAndStatusIn(campaignId, List.of("PENDING", "PROCESSING"))) {
+            return;
+        }
+        if (campaignRepository.completeIfRunning(campaignId) > 0) {
+            log.info("Campaign {} completed", campaignId);
+            progressHub.recordStatus(campaignId, "COMPLETED");
+        }
+    }
+
+    public long countDelayed(UUID campaignId) {
+        return deliveryRetryRepository.countByCampaignIdAndStatus(campaignId, "DELAYED");
+    }
+
+    /**
+     * Delayed counts for a page of campaigns; campaigns with none are absent.
+     */
+    public Map<UUID, Long> countDelayed(Collection<UUID> campaignIds) {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Object[] row : deliveryRetryRepository.countByCampaignIdsAndStatus(campaignIds, "DELAYED")) {
+            counts.put((UUID) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Schedules the next attempt or marks the retry FAILED.
+     *
+     * @return true if another attempt was scheduled
+     */
+    private boolean park(DeliveryRetry retry, Instant now) {
+        Duration delay = backoffPolicy.nextDelay(retry.getLastErrorCode(), retry.getAttempts());
+        if (delay == null) {
+            retry.setStatus("FAILED");
+            retry.setNextAttemptAt(null);
+            return false;
+        }
+        retry.setStatus("DELAYED");
+        retry.setNextAttemptAt(now.plus(delay));
+        return true;
+    }
+}
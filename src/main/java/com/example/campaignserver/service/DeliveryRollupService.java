@@ -0,0 +1,219 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.dto.response.TenantUsageResponse;
+import com.example.campaignserver.entity.DeliveryRollup;
+import com.example.campaignserver.entity.TimeOrderedUuidGenerator;
+import com.example.campaignserver.exception.TenantNotFoundException;
+import com.example.campaignserver.repository.DeliveryRollupRepository;
+import com.example.campaignserver.repository.TenantRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-tenant hourly and daily counts of send outcomes.
+ *
+ * The dispatcher and retry worker report outcomes here after each batch.
+ * They are summed in memory per (tenant, channel, outcome, hour) and folded
+ * into delivery_rollup every {@code campaign.rollup.flush-interval-ms} with
+ * one batched upsert per flush, so usage questions are answered from a few
+ * rows per bucket instead of scanning recipients. Counts not yet flushed are
+ * lost if the node dies; the campaign counters stay authoritative.
+ */
+@Slf4j
+@Service
+public class DeliveryRollupService {
+
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+    public static final String DEFERRED = "DEFERRED";
+
+    static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    static final Duration MAX_DAILY_RANGE = Duration.ofDays(366);
+
+    // MERGE rather than ON CONFLICT so the same statement runs on H2 in tests
+    private static final String UPSERT_SQL = """
+            MERGE INTO delivery_rollup r
+            USING (VALUES (CAST(? AS UUID), CAST(? AS VARCHAR(10)), CAST(? AS TIMESTAMP WITH TIME ZONE),
+                           CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(20)), CAST(? AS BIGINT), CAST(? AS UUID)))
+                AS v(tenant_id, granularity, bucket_start, channel, outcome, message_count, id)
+            ON r.tenant_id = v.tenant_id AND r.granularity = v.granularity AND r.bucket_start = v.bucket_start
+                AND r.channel = v.channel AND r.outcome = v.outcome
+            WHEN MATCHED THEN
+                UPDATE SET message_count = r.message_count + v.message_count
+            WHEN NOT MATCHED THEN
+                INSERT (id, tenant_id, granularity, bucket_start, channel, outcome, message_count)
+                VALUES (v.id, v.tenant_id, v.granularity, v.bucket_start, v.channel, v.outcome, v.message_count)
+            """;
+
+    private record Key(UUID tenantId, String channel, String outcome, Instant hour) {
+    }
+
+    private final DeliveryRollupRepository rollupRepository;
+    private final TenantRepository tenantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+
+    public DeliveryRollupService(DeliveryRollupRepository rollupRepository,
+            TenantRepository tenantRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.tenantRepository = tenantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Adds the outcomes of one batch to the current hour.
+     *
+     * @param deferred sends that failed and were parked for another attempt
+     */
+    public void record(UUID tenantId, String channel, long sent, long failed, long deferred) {
+        Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        add(new Key(tenantId, channel, SENT, hour), sent);
+        add(new Key(tenantId, channel, FAILED, hour), failed);
+        add(new Key(tenantId, channel, DEFERRED, hour), deferred);
+    }
+
+    /**
+     * Writes the accumulated counts to the hourly and daily rollups in one
+     * transaction. If it fails the counts are put back for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${campaign.rollup.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Key, Long> drained = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count != null && count != 0) {
+                drained.put(key, count);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Map<Key, Long> days = new HashMap<>();
+        drained.forEach((key, count) -> days.merge(
+                new Key(key.tenantId(), key.channel(), key.outcome(), key.hour().truncatedTo(ChronoUnit.DAYS)),
+                count, Long::sum));
+        List<Object[]> rows = new ArrayList<>(drained.size() + days.size());
+        drained.forEach((key, count) -> rows.add(row(key, "HOUR", count)));
+        days.forEach((key, count) -> rows.add(row(key, "DAY", count)));
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+            log.debug("Flushed {} delivery rollup rows", rows.size());
+        } catch (Exception e) {
+            // Typically two nodes inserting the same new bucket at once; the retry updates it
+            log.warn("Delivery rollup flush failed, retrying next interval: {}", e.getMessage());
+            drained.forEach(this::add);
+        }
+    }
+
+    /**
+     * Send outcomes of a tenant per bucket and channel.
+     *
+     * @param granularity HOUR or DAY
+     * @param from        inclusive; defaults to the start of the current month (UTC)
+     * @param to          exclusive; defaults to now
+     */
+    @Transactional(readOnly = true)
+    public TenantUsageResponse getUsage(UUID tenantId, String granularity, Instant from, Instant to) {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new TenantNotFoundException("Tenant not found: " + tenantId);
+        }
+        String unit = granularity == null ? "DAY" : granularity.toUpperCase();
+        if (!unit.equals("HOUR") && !unit.equals("DAY")) {
+            throw new IllegalArgumentException("granularity must be HOUR or DAY");
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.atZone(ZoneOffset.UTC)
+                .with(TemporalAdjusters.firstDayOfMonth())
+                .truncatedTo(ChronoUnit.DAYS)
+                .toInstant();
+        Duration maxRange = unit.equals("HOUR") ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE;
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException(unit + " usage is limited to " + maxRange.toDays() + " days");
+        }
+
+        // Align to whole buckets so a partial first bucket is not dropped
+        Instant alignedStart = start.truncatedTo(unit.equals("HOUR") ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+        Map<String, TenantUsageResponse.Bucket> buckets = new LinkedHashMap<>();
+        Map<String, TenantUsageResponse.Bucket> totals = new TreeMap<>();
+        for (DeliveryRollup rollup : rollupRepository.findBuckets(tenantId, unit, alignedStart, end)) {
+            add(buckets.computeIfAbsent(rollup.getBucketStart() + "|" + rollup.getChannel(),
+                    k -> emptyBucket(rollup.getBucketStart(), rollup.getChannel())), rollup);
+            add(totals.computeIfAbsent(rollup.getChannel(), k -> emptyBucket(null, rollup.getChannel())), rollup);
+        }
+        buckets.values().forEach(DeliveryRollupService::computeFailureRate);
+        totals.values().forEach(DeliveryRollupService::computeFailureRate);
+
+        return TenantUsageResponse.builder()
+                .tenantId(tenantId)
+                .granularity(unit)
+                .from(alignedStart)
+                .to(end)
+                .buckets(new ArrayList<>(buckets.values()))
+                .totals(new ArrayList<>(totals.values()))
+                .build();
+    }
+
+    private void add(Key key, long count) {
+        if (count != 0) {
+            pending.merge(key, count, Long::sum);
+        }
+    }
+
+    private static Object[] row(Key key, String granularity, long count) {
+        return new Object[] { key.tenantId(), granularity, Timestamp.from(key.hour()), key.channel(),
+                key.outcome(), count, TimeOrderedUuidGenerator.next() };
+    }
+
+    private static TenantUsageResponse.Bucket emptyBucket(Instant bucketStart, String channel) {
+        return TenantUsageResponse.Bucket.builder().bucketStart(bucketStart).channel(channel).build();
+    }
+
+    private static void add(TenantUsageResponse.Bucket bucket, DeliveryRollup rollup) {
+        switch (rollup.getOutcome()) {
+            case SENT -> bucket.setSent(bucket.getSent() + rollup.getMessageCount());
+            case FAILED -> bucket.setFailed(bucket.getFailed() + rollup.getMessageCount());
+            case DEFERRED -> bucket.setDeferred(bucket.getDeferred() + rollup.getMessageCount());
+            default -> {
+            }
+        }
+    }
+
+    private static void computeFailureRate(TenantUsageResponse.Bucket bucket) {
+        long resolved = bucket.getSent() + bucket.getFailed();
+        bucket.setFailureRate(resolved == 0 ? 0 : (double) bucket.getFailed() / resolved);
+    }
+}
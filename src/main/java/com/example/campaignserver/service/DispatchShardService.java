@@ -0,0 +1,355 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.DispatchProperties;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.dispatch.PreparedBatchStore;
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.entity.DispatchShard;
+import com.example.campaignserver.entity.OutboxEvent;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.DispatchShardRepository;
+import com.example.campaignserver.repository.OutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits campaigns into {@link DispatchShard}s and hands them out to nodes.
+ *
+ * A campaign's outbox event is claimed once, by whichever node sees it first,
+ * and planned into keyset ranges of {@code shard-size} recipients in the same
+ * transaction. From then on the event stays PROCESSING while any node claims
+ * shards under a lease. The node that finishes the last shard closes the
+ * event, and the campaign completes through the usual
+ * {@link DeliveryRetryService#completeCampaignIfDrained} check, which already
+ * waits for the event to leave PROCESSING.
+ */
+@Slf4j
+@Service
+public class DispatchShardService {
+
+    private static final List<String> OPEN = List.of("PENDING", "RUNNING");
+
+    // id of the recipient that ends a shard of :offset + 1 rows after :afterId
+    private static final String RECIPIENT_BOUNDARY_SQL = """
+            SELECT id FROM recipient
+            WHERE campaign_id = ? AND id > ?
+            ORDER BY id
+            LIMIT 1 OFFSET ?""";
+
+    private static final String AUDIENCE_BOUNDARY_SQL = """
+            SELECT id FROM audience_member
+            WHERE snapshot_id = ? AND id > ?
+            ORDER BY id
+            LIMIT 1 OFFSET ?""";
+
+    private static final String RECIPIENT_AFTER_SQL = """
+            SELECT id FROM recipient
+            WHERE campaign_id = ? AND id > ?
+            ORDER BY id
+            LIMIT 1""";
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private final DispatchShardRepository shardRepository;
+    private final OutboxRepository outboxRepository;
+    private final CampaignRepository campaignRepository;
+    private final DeliveryRetryService deliveryRetryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CampaignProfileService profileService;
+    private final PreparedBatchStore preparedBatches;
+    private final DispatchProperties.Sharding properties;
+    private final String nodeId;
+
+    public DispatchShardService(DispatchShardRepository shardRepository,
+            OutboxRepository outboxRepository,
+            CampaignRepository campaignRepository,
+            DeliveryRetryService deliveryRetryService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            CampaignProfileService profileService,
+            PreparedBatchStore preparedBatches,
+            DispatchProperties dispatchProperties) {
+        this.shardRepository = shardRepository;
+        this.outboxRepository = outboxRepository;
+        this.campaignRepository = campaignRepository;
+        this.deliveryRetryService = deliveryRetryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.profileService = profileService;
+        this.preparedBatches = preparedBatches;
+        this.properties = dispatchProperties.getSharding();
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : defaultNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Claims a PENDING outbox event and splits its campaign into shards.
+     *
+     * @return the number of shards created; 0 if another node claimed the
+     *         event first or the campaign no longer exists
+     */
+    public int plan(OutboxEvent event) {
+        Integer planned = transactionTemplate.execute(status -> {
+            if (outboxRepository.claimPending(event.getId()) == 0) {
+                return 0;
+            }
+            Campaign campaign = campaignRepository.findById(event.getAggregateId()).orElse(null);
+            if (campaign == null) {
+                log.warn("Campaign {} not found for event {}", event.getAggregateId(), event.getId());
+                event.setStatus("COMPLETED");
+                event.setProcessedAt(Instant.now());
+                outboxRepository.save(event);
+                return 0;
+            }
+
+            // A pre-warmed campaign reuses the boundaries its pages were prepared with
+            List<UUID> bounds = campaign.getPrewarmedAt() != null
+                    ? preparedBatches.shardBoundaries(campaign.getId())
+                    : List.of();
+            if (bounds.isEmpty()) {
+                bounds = shardBoundaries(campaign);
+            }
+            List<DispatchShard> shards = new ArrayList<>();
+            UUID lower = null;
+            for (UUID upper : bounds) {
+                shards.add(DispatchShard.builder()
+                        .campaignId(campaign.getId())
+                        .tenantId(campaign.getTenantId())
+                        .outboxEventId(event.getId())
+                        .lane(event.getLane())
+                        .shardIndex(shards.size())
+                        .lowerBound(lower)
+                        .upperBound(upper)
+                        .enqueuedAt(event.getCreatedAt())
+                        .build());
+                lower = upper;
+            }
+            shardRepository.saveAll(shards);
+            return shards.size();
+        });
+        if (planned != null && planned > 0) {
+            log.info("Planned campaign {} into {} shards", event.getAggregateId(), planned);
+            profileService.recordClaim(event.getAggregateId(), event.getCreatedAt(), Instant.now());
+        }
+        return planned == null ? 0 : planned;
+    }
+
+    /**
+     * Claims up to {@code max} shards of the lane for this node, including
+     * ones whose previous owner's lease expired. Shards are taken round-robin
+     * across tenants ({@link DispatchShardRepository#findClaimOrder}); twice
+     * as many candidates as needed are looked at, so shards another node is
+     * claiming at the same time can be skipped.
+     */
+    public List<DispatchShard> claim(DispatchLane lane, int max) {
+        if (max <= 0) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<UUID> order = shardRepository.findClaimOrder(lane.name(), now, Limit.of(max * 2));
+            if (order.isEmpty()) {
+                return List.of();
+            }
+            Map<UUID, DispatchShard> locked = shardRepository.lockClaimable(order, now).stream()
+                    .collect(Collectors.toMap(DispatchShard::getId, Function.identity()));
+            List<DispatchShard> shards = order.stream()
+                    .map(locked::get)
+                    .filter(Objects::nonNull)
+                    .limit(max)
+                    .toList();
+            for (DispatchShard shard : shards) {
+                if ("RUNNING".equals(shard.getStatus())) {
+                    log.warn("Taking over shard {} of campaign {} from {} after its lease expired",
+                            shard.getShardIndex(), shard.getCampaignId(), shard.getOwner());
+                }
+                shard.setStatus("RUNNING");
+                shard.setOwner(nodeId);
+                shard.setLeaseExpiresAt(now.plus(properties.getLeaseDuration()));
+            }
+            return shardRepository.saveAll(shards);
+        });
+    }
+
+    /**
+     * Records a dispatched batch and extends the lease.
+     *
+     * @return false if another node has taken the shard over; the caller must
+     *         stop working on it
+     */
+    public boolean advance(DispatchShard shard, UUID cursor, int count) {
+        return shardRepository.advance(shard.getId(), nodeId, cursor, count, leaseUntil()) > 0;
+    }
+
+    /**
+     * Extends the leases of every shard this node holds, including ones
+     * waiting for their next turn in the bulk rotation.
+     */
+    public void renewLeases() {
+        shardRepository.renewLeases(nodeId, leaseUntil());
+    }
+
+    public void complete(DispatchShard shard) {
+        finish(shard, "COMPLETED");
+    }
+
+    public void fail(DispatchShard shard) {
+        finish(shard, "FAILED");
+    }
+
+    /**
+     * Adds a shard for recipients appended to a campaign after its last shard
+     * finished. Appended recipients are given ids above every existing
+     * recipient id and shard bound of the campaign
+     * ({@link RecipientChangeService}), so while the last (open ended) shard
+     * runs it picks them up itself;
+     * once it has finished, they go to a new open-ended shard starting after
+     * its cursor, and the campaign's event is reopened if it was closed.
+     *
+     * Called both by the node finishing the last shard and after recipients
+     * were appended, each after its own commit, so one of them sees the
+     * other's; the last shard's row lock keeps them from both adding one.
+     *
+     * @return true if a shard was added
+     */
+    public boolean extendIfGrown(UUID campaignId) {
+        Boolean extended = transactionTemplate.execute(status -> {
+            DispatchShard last = shardRepository.findFirstByCampaignIdOrderByShardIndexDesc(campaignId)
+                    .orElse(null);
+            if (last == null || !"COMPLETED".equals(last.getStatus())) {
+                // Not planned yet, or still running and will read the new rows itself
+                return false;
+            }
+            UUID after = last.getCursor() != null ? last.getCursor() : last.getLowerBound();
+            if (jdbcTemplate.queryForList(RECIPIENT_AFTER_SQL, UUID.class, campaignId,
+                    after != null ? after : MIN_ID).isEmpty()) {
+                return false;
+            }
+            shardRepository.save(DispatchShard.builder()
+                    .campaignId(campaignId)
+                    .tenantId(last.getTenantId())
+                    .outboxEventId(last.getOutboxEventId())
+                    .lane(last.getLane())
+                    .shardIndex(last.getShardIndex() + 1)
+                    .lowerBound(after)
+                    .enqueuedAt(Instant.now())
+                    .build());
+            outboxRepository.reopen(last.getOutboxEventId());
+            return true;
+        });
+        if (Boolean.TRUE.equals(extended)) {
+            log.info("Added a shard for recipients appended to campaign {}", campaignId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Shard progress for a page of campaigns, as {shards, completed} per
+     * campaign; campaigns that were never planned are absent.
+     */
+    public Map<UUID, long[]> countShards(Collection<UUID> campaignIds) {
+        Map<UUID, long[]> counts = new HashMap<>();
+        for (Object[] row : shardRepository.countByCampaignIds(campaignIds)) {
+            counts.put((UUID) row[0], new long[] { (Long) row[1], ((Number) row[2]).longValue() });
+        }
+        return counts;
+    }
+
+    private void finish(DispatchShard shard, String status) {
+        if (shardRepository.finish(shard.getId(), nodeId, status) == 0) {
+            log.warn("Lost the lease on shard {} of campaign {} before finishing it", shard.getShardIndex(),
+                    shard.getCampaignId());
+            return;
+        }
+        if (shard.getUpperBound() == null && extendIfGrown(shard.getCampaignId())) {
+            return;
+        }
+        if (shardRepository.existsByCampaignIdAndStatusIn(shard.getCampaignId(), OPEN)) {
+            return;
+        }
+
+        // Last shard: close the event; if two nodes race here only one wins the update
+        boolean anyFailed = shardRepository.existsByCampaignIdAndStatusIn(shard.getCampaignId(),
+                List.of("FAILED"));
+        String eventStatus = anyFailed ? "FAILED" : "COMPLETED";
+        if (outboxRepository.finishProcessing(shard.getOutboxEventId(), eventStatus, Instant.now()) == 0) {
+            return;
+        }
+        if (anyFailed) {
+            log.error("Campaign {} finished with failed shards", shard.getCampaignId());
+            return;
+        }
+        // Campaign stays RUNNING until its delayed retries are resolved
+        deliveryRetryService.completeCampaignIfDrained(shard.getCampaignId());
+        log.info("Successfully processed campaign: {}", shard.getCampaignId());
+    }
+
+    /**
+     * Upper bounds of the campaign's shards of {@code shard-size} recipients,
+     * in keyset order; the last is null (open ended).
+     */
+    public List<UUID> shardBoundaries(Campaign campaign) {
+        List<UUID> bounds = new ArrayList<>();
+        UUID upper = null;
+        do {
+            upper = nextBoundary(campaign, upper);
+            bounds.add(upper);
+        } while (upper != null);
+        return bounds;
+    }
+
+    /**
+     * @return the id closing the shard that starts after {@code lower}, or
+     *         null if the remaining recipients fit in one shard
+     */
+    private UUID nextBoundary(Campaign campaign, UUID lower) {
+        boolean audience = campaign.getAudienceSnapshotId() != null;
+        try {
+            return jdbcTemplate.queryForObject(audience ? AUDIENCE_BOUNDARY_SQL : RECIPIENT_BOUNDARY_SQL,
+                    UUID.class,
+                    audience ? campaign.getAudienceSnapshotId() : campaign.getId(),
+                    lower != null ? lower : MIN_ID,
+                    properties.getShardSize() - 1);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    private Instant leaseUntil() {
+        return Instant.now().plus(properties.getLeaseDuration());
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
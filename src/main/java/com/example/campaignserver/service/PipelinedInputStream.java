@@ -0,0 +1,118 @@
+package com.example.campaignserver.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a source stream on another thread into a bounded queue of chunks.
+ *
+ * Used to decompress uploads while the CSV parser works on earlier data: the
+ * pump thread blocks on the network and the decompressor, the reading thread
+ * only on the queue. At most {@code capacity} chunks are buffered, so a slow
+ * reader applies backpressure to the pump instead of growing memory.
+ */
+final class PipelinedInputStream extends InputStream {
+
+    private static final byte[] END = new byte[0];
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final BlockingQueue<byte[]> chunks;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private byte[] current;
+    private int position;
+    private boolean finished;
+
+    PipelinedInputStream(InputStream source, Executor executor, int chunkSize, int capacity) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        executor.execute(() -> pump(source, chunkSize));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        chunks.clear(); // unblocks a pump waiting on a full queue
+    }
+
+    private boolean fill() throws IOException {
+        while (!finished && (current == null || position >= current.length)) {
+            byte[] next;
+            try {
+                next = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+            }
+            if (next == END) {
+                finished = true;
+                if (failure != null) {
+                    throw new IOException("Failed to decompress upload: " + failure.getMessage(), failure);
+                }
+            } else {
+                current = next;
+                position = 0;
+            }
+        }
+        return !finished;
+    }
+
+    private void pump(InputStream source, int chunkSize) {
+        try (source) {
+            while (!closed) {
+                byte[] buffer = new byte[chunkSize];
+                int n = source.readNBytes(buffer, 0, chunkSize);
+                if (n > 0 && !offer(n == chunkSize ? buffer : Arrays.copyOf(buffer, n))) {
+                    return;
+                }
+                if (n < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+        offer(END);
+    }
+
+    private boolean offer(byte[] chunk) {
+        try {
+            while (!closed) {
+                if (chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
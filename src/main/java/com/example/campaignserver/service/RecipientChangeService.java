@@ -0,0 +1,306 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.dto.response.RecipientChangeResponse;
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.entity.Recipient;
+import com.example.campaignserver.entity.RecipientIngestion;
+import com.example.campaignserver.entity.TimeOrderedUuidGenerator;
+import com.example.campaignserver.exception.ResourceNotFoundException;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.PreparedBatchRepository;
+import com.example.campaignserver.repository.RecipientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.campaignserver.entity.RecipientIngestion.TARGET_RECIPIENT_CHANGE;
+
+/**
+ * Changes the recipients of an existing campaign from an upload.
+ *
+ * - APPEND adds recipients whose ref is new and updates the contact details
+ *   of existing refs that changed.
+ * - REPLACE does the same and removes every recipient not in the upload.
+ * - REMOVE removes the recipients whose refs are listed.
+ *
+ * The upload is parsed and validated like a campaign's first one and staged
+ * chunk by chunk as {@code RecipientChange}s. It is then diffed against the
+ * campaign's recipients by ref hash in one publish transaction: only
+ * inserted, updated and removed rows are written, so correcting a few rows
+ * of a 2M-row list touches a few rows. When a ref appears more than once in
+ * an upload, its last row wins.
+ *
+ * A RUNNING campaign keeps sending throughout: appended recipients are read
+ * by its open-ended last shard, or by a shard added for them if that one
+ * has already finished ({@link DispatchShardService#extendIfGrown}).
+ * Removed recipients that were already sent stay counted as sent; their
+ * pending retries are dropped.
+ */
+@Slf4j
+@Service
+public class RecipientChangeService {
+
+    public static final String APPEND = "APPEND";
+    public static final String REPLACE = "REPLACE";
+    public static final String REMOVE = "REMOVE";
+
+    private static final List<String> CHANGEABLE_STATUSES = List.of("SCHEDULED", "RUNNING");
+
+    // Rows of the change set, the last one per ref
+    private static final String LATEST_CHANGES = """
+            SELECT s.id, s.tenant_id, s.campaign_id, s.recipient_ref, s.recipient_ref_hash, s.email, s.phone, s.timezone
+            FROM recipient_change s
+            WHERE s.change_set_id = ?
+              AND NOT EXISTS (SELECT 1 FROM recipient_change n
+                              WHERE n.change_set_id = s.change_set_id AND n.recipient_ref_hash = s.recipient_ref_hash
+                                AND n.recipient_ref = s.recipient_ref AND n.id > s.id)""";
+
+    private static final String UPDATE_CHANGED_SQL = """
+            MERGE INTO recipient r
+            USING (""" + LATEST_CHANGES + """
+            ) AS v
+            ON r.campaign_id = ? AND r.recipient_ref_hash = v.recipient_ref_hash AND r.recipient_ref = v.recipient_ref
+            WHEN MATCHED AND (r.email IS DISTINCT FROM v.email OR r.phone IS DISTINCT FROM v.phone
+                    OR r.timezone IS DISTINCT FROM v.timezone) THEN
+                UPDATE SET email = v.email, phone = v.phone, timezone = v.timezone""";
+
+    // Next page of the change set's new refs, keyed by staging id
+    private static final String NEW_ROWS_SQL = """
+            SELECT v.id, v.tenant_id, v.recipient_ref, v.recipient_ref_hash, v.email, v.phone, v.timezone
+            FROM (""" + LATEST_CHANGES + """
+            ) v
+            WHERE NOT EXISTS (SELECT 1 FROM recipient r
+                              WHERE r.campaign_id = ? AND r.recipient_ref_hash = v.recipient_ref_hash
+                                AND r.recipient_ref = v.recipient_ref)
+              AND v.id > ?
+            ORDER BY v.id
+            LIMIT ?""";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO recipient (id, tenant_id, campaign_id, recipient_ref, recipient_ref_hash, email, phone, timezone,
+                                   created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)""";
+
+    private static final String LAST_RECIPIENT_SQL = """
+            SELECT id FROM recipient
+            WHERE campaign_id = ?
+            ORDER BY id DESC
+            LIMIT 1""";
+
+    private static final String SHARD_BOUNDS_SQL = """
+            SELECT cursor_id FROM dispatch_shard WHERE campaign_id = ? AND cursor_id IS NOT NULL
+            UNION ALL
+            SELECT upper_bound FROM dispatch_shard WHERE campaign_id = ? AND upper_bound IS NOT NULL""";
+
+    private static final int INSERT_PAGE_SIZE = 1000;
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private static final String REMOVE_LISTED_SQL = """
+            DELETE FROM recipient r
+            WHERE r.campaign_id = ?
+              AND EXISTS (SELECT 1 FROM recipient_change s
+                          WHERE s.change_set_id = ? AND s.recipient_ref_hash = r.recipient_ref_hash
+                            AND s.recipient_ref = r.recipient_ref)""";
+
+    private static final String REMOVE_UNLISTED_SQL = """
+            DELETE FROM recipient r
+            WHERE r.campaign_id = ?
+              AND NOT EXISTS (SELECT 1 FROM recipient_change s
+                              WHERE s.change_set_id = ? AND s.recipient_ref_hash = r.recipient_ref_hash
+                                AND s.recipient_ref = r.recipient_ref)""";
+
+    private static final String DROP_ORPHANED_RETRIES_SQL = """
+            DELETE FROM delivery_retry d
+            WHERE d.campaign_id = ? AND d.status = 'DELAYED'
+              AND NOT EXISTS (SELECT 1 FROM recipient r WHERE r.id = d.recipient_id)""";
+
+    private static final String UNHASHED_SQL = """
+            SELECT id, recipient_ref FROM recipient
+            WHERE campaign_id = ? AND recipient_ref_hash IS NULL""";
+
+    private static final String SET_HASH_SQL = "UPDATE recipient SET recipient_ref_hash = ? WHERE id = ?";
+
+    private final CampaignRepository campaignRepository;
+    private final RecipientRepository recipientRepository;
+    private final PreparedBatchRepository preparedBatchRepository;
+    private final RecipientIngestionService recipientIngestionService;
+    private final DispatchShardService shardService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecipientChangeService(CampaignRepository campaignRepository,
+            RecipientRepository recipientRepository,
+            PreparedBatchRepository preparedBatchRepository,
+            RecipientIngestionService recipientIngestionService,
+            DispatchShardService shardService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.campaignRepository = campaignRepository;
+        this.recipientRepository = recipientRepository;
+        this.preparedBatchRepository = preparedBatchRepository;
+        this.recipientIngestionService = recipientIngestionService;
+        this.shardService = shardService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Stages the upload and applies it to the campaign.
+     *
+     * @param mode APPEND (default), REPLACE or REMOVE
+     * @throws IllegalArgumentException if the campaign's recipients cannot be
+     *                                  changed (audience campaigns, or not
+     *                                  SCHEDULED or RUNNING)
+     */
+    public RecipientChangeResponse applyChanges(UUID tenantId, UUID campaignId, String mode, InputStream in,
+            String contentEncoding) {
+        String op = mode == null ? APPEND : mode.toUpperCase();
+        if (!List.of(APPEND, REPLACE, REMOVE).contains(op)) {
+            throw new IllegalArgumentException("mode must be APPEND, REPLACE or REMOVE");
+        }
+        Campaign campaign = campaignRepository.findByIdAndTenantId(campaignId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Campaign not found: " + campaignId + " for tenant: " + tenantId));
+        checkChangeable(campaign);
+
+        UUID changeSetId = UUID.randomUUID();
+        RecipientIngestion ingestion = transactionTemplate.execute(tx ->
+                recipientIngestionService.begin(tenantId, TARGET_RECIPIENT_CHANGE, changeSetId));
+        int received = recipientIngestionService.ingestRecipientChanges(ingestion, campaignId, in,
+                contentEncoding);
+        long rejected = recipientIngestionService.getRejectedCount(ingestion.getId());
+
+        long[] counts = new long[3]; // inserted, updated, removed
+        boolean[] running = { false };
+        try {
+            recipientIngestionService.publish(ingestion.getId(), () -> {
+                Campaign locked = campaignRepository.findForUpdate(campaignId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Campaign not found: " + campaignId));
+                checkChangeable(locked);
+                apply(locked, op, changeSetId, counts);
+                running[0] = "RUNNING".equals(locked.getStatus());
+            });
+        } finally {
+            recipientIngestionService.purgeRows(TARGET_RECIPIENT_CHANGE, changeSetId);
+        }
+        if (running[0] && counts[0] > 0) {
+            shardService.extendIfGrown(campaignId);
+        }
+
+        log.info("{} of {} rows to campaign {}: {} inserted, {} updated, {} removed", op, received, campaignId,
+                counts[0], counts[1], counts[2]);
+        return RecipientChangeResponse.builder()
+                .campaignId(campaignId)
+                .mode(op)
+                .received(received)
+                .rejected(rejected)
+                .inserted(counts[0])
+                .updated(counts[1])
+                .removed(counts[2])
+                .totalRecipients(recipientRepository.countByCampaignId(campaignId))
+                .build();
+    }
+
+    private void apply(Campaign campaign, String op, UUID changeSetId, long[] counts) {
+        UUID campaignId = campaign.getId();
+        hashLegacyRefs(campaignId);
+        if (REMOVE.equals(op)) {
+            counts[2] = jdbcTemplate.update(REMOVE_LISTED_SQL, campaignId, changeSetId);
+        } else {
+            counts[1] = jdbcTemplate.update(UPDATE_CHANGED_SQL, changeSetId, campaignId);
+            counts[0] = insertNew(campaignId, changeSetId);
+            if (REPLACE.equals(op)) {
+                counts[2] = jdbcTemplate.update(REMOVE_UNLISTED_SQL, campaignId, changeSetId);
+            }
+        }
+        if (counts[2] > 0) {
+            jdbcTemplate.update(DROP_ORPHANED_RETRIES_SQL, campaignId);
+        }
+        if (counts[0] + counts[1] + counts[2] > 0) {
+            // Prepared pages, written or being written, no longer match the recipients
+            campaignRepository.bumpRecipientsVersion(campaignId);
+            if (campaign.getPrewarmedAt() != null) {
+                preparedBatchRepository.deleteByCampaignId(campaignId);
+                campaignRepository.clearPrewarmed(campaignId);
+            }
+        }
+    }
+
+    /**
+     * Inserts the change set's new refs page by page. They get fresh ids
+     * above every recipient id and shard bound the campaign has, rather than
+     * their staging ids, so they always land after the cursors of shards
+     * that have already sent, however the nodes' clocks compare: the last
+     * shard or one added after it ({@link DispatchShardService#extendIfGrown})
+     * reads them. Runs under the campaign's lock, so no other change moves
+     * the floor meanwhile.
+     *
+     * @return the number of recipients inserted
+     */
+    private long insertNew(UUID campaignId, UUID changeSetId) {
+        UUID floor = idFloor(campaignId);
+        UUID after = MIN_ID;
+        long inserted = 0;
+        while (true) {
+            List<Object[]> rows = new ArrayList<>();
+            UUID[] last = { after };
+            UUID[] id = { floor };
+            jdbcTemplate.query(NEW_ROWS_SQL, rs -> {
+                last[0] = rs.getObject(1, UUID.class);
+                id[0] = TimeOrderedUuidGenerator.nextAfter(id[0]);
+                rows.add(new Object[] { id[0], rs.getObject(2, UUID.class), campaignId, rs.getString(3),
+                        rs.getObject(4), rs.getString(5), rs.getString(6), rs.getString(7) });
+            }, changeSetId, campaignId, after, INSERT_PAGE_SIZE);
+            if (rows.isEmpty()) {
+                return inserted;
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            inserted += rows.size();
+            if (rows.size() < INSERT_PAGE_SIZE) {
+                return inserted;
+            }
+            after = last[0];
+            floor = id[0];
+        }
+    }
+
+    /**
+     * The highest recipient id or shard bound of the campaign, or null if it
+     * has neither.
+     */
+    private UUID idFloor(UUID campaignId) {
+        List<UUID> bounds = new ArrayList<>(jdbcTemplate.queryForList(LAST_RECIPIENT_SQL, UUID.class, campaignId));
+        bounds.addAll(jdbcTemplate.queryForList(SHARD_BOUNDS_SQL, UUID.class, campaignId, campaignId));
+        return bounds.stream().max(TimeOrderedUuidGenerator::compare).orElse(null);
+    }
+
+    /**
+     * Fills in ref hashes of recipients stored before they were kept.
+     */
+    private void hashLegacyRefs(UUID campaignId) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(UNHASHED_SQL, rs -> {
+            updates.add(new Object[] { Recipient.refHash(rs.getString(2)), rs.getObject(1, UUID.class) });
+        }, campaignId);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(SET_HASH_SQL, updates);
+        }
+    }
+
+    private static void checkChangeable(Campaign campaign) {
+        if (campaign.getAudienceSnapshotId() != null) {
+            throw new IllegalArgumentException("Campaign " + campaign.getId()
+                    + " sends to an audience; change the audience instead");
+        }
+        if (!CHANGEABLE_STATUSES.contains(campaign.getStatus())) {
+            throw new IllegalArgumentException("Recipients of a " + campaign.getStatus()
+                    + " campaign cannot be changed");
+        }
+    }
+}
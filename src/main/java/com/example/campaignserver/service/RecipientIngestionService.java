@@ -0,0 +1,292 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.IngestionProperties;
+import com.example.campaignserver.entity.Recipient;
+import com.example.campaignserver.entity.RecipientChange;
+import com.example.campaignserver.entity.RecipientIngestion;
+import com.example.campaignserver.entity.RejectedRow;
+import com.example.campaignserver.repository.AudienceMemberRepository;
+import com.example.campaignserver.repository.AudienceSnapshotRepository;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.RecipientChangeRepository;
+import com.example.campaignserver.repository.RecipientIngestionRepository;
+import com.example.campaignserver.repository.RecipientRepository;
+import com.example.campaignserver.repository.RejectedRowRepository;
+import com.example.campaignserver.service.CsvParsingService.Rejection;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import static com.example.campaignserver.entity.RecipientIngestion.TARGET_AUDIENCE_SNAPSHOT;
+import static com.example.campaignserver.entity.RecipientIngestion.TARGET_CAMPAIGN;
+import static com.example.campaignserver.entity.RecipientIngestion.TARGET_RECIPIENT_CHANGE;
+
+/**
+ * Ingests recipient uploads in independently committed chunks.
+ *
+ * Each parsed batch is written and recorded against its
+ * {@link RecipientIngestion} in a transaction of its own, so locks, undo/WAL
+ * volume and memory stay bounded by the batch size no matter how long the
+ * list is, and a bad row late in the file does not roll back hours of work:
+ * the ingestion is abandoned and its rows are purged in the background.
+ * Callers make the result visible with {@link #publish}, a short transaction
+ * that also runs their own flip (campaign status, outbox event, ...).
+ *
+ * Rows that fail validation are committed with their chunk as
+ * {@link RejectedRow}s, up to {@code max-rejected-rows} per upload, and can
+ * be downloaded as a CSV report.
+ */
+@Slf4j
+@Service
+public class RecipientIngestionService {
+
+    private final RecipientIngestionRepository ingestionRepository;
+    private final RecipientRepository recipientRepository;
+    private final RecipientChangeRepository recipientChangeRepository;
+    private final AudienceMemberRepository audienceMemberRepository;
+    private final CampaignRepository campaignRepository;
+    private final AudienceSnapshotRepository snapshotRepository;
+    private final RejectedRowRepository rejectedRowRepository;
+    private final CsvParsingService csvParsingService;
+    private final IngestionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecipientIngestionService(RecipientIngestionRepository ingestionRepository,
+            RecipientRepository recipientRepository,
+            RecipientChangeRepository recipientChangeRepository,
+            AudienceMemberRepository audienceMemberRepository,
+            CampaignRepository campaignRepository,
+            AudienceSnapshotRepository snapshotRepository,
+            RejectedRowRepository rejectedRowRepository,
+            CsvParsingService csvParsingService,
+            IngestionProperties properties,
+            TransactionTemplate transactionTemplate) {
+        this.ingestionRepository = ingestionRepository;
+        this.recipientRepository = recipientRepository;
+        this.recipientChangeRepository = recipientChangeRepository;
+        this.audienceMemberRepository = audienceMemberRepository;
+        this.campaignRepository = campaignRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.rejectedRowRepository = rejectedRowRepository;
+        this.csvParsingService = csvParsingService;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Registers a new staging ingestion. Call inside the transaction that
+     * creates the (not yet visible) target.
+     */
+    public RecipientIngestion begin(UUID tenantId, String targetType, UUID targetId) {
+        return ingestionRepository.save(RecipientIngestion.builder()
+                .tenantId(tenantId)
+                .targetType(targetType)
+                .targetId(targetId)
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Parses a campaign's recipients, committing one chunk at a time.
+     *
+     * @return the number of recipients staged
+     */
+    public int ingestRecipients(RecipientIngestion ingestion, InputStream in, String contentEncoding) {
+        AtomicLong rejected = new AtomicLong();
+        return ingest(ingestion, () -> csvParsingService.parseRecipients(in, contentEncoding,
+                ingestion.getTenantId(), ingestion.getTargetId(), (batch, rejections) -> commitChunk(ingestion,
+                        batch, rejections, rejected, recipientRepository::saveAll)));
+    }
+
+    /**
+     * Parses an audience snapshot's members, committing one chunk at a time.
+     *
+     * @return the number of members staged
+     */
+    public int ingestAudienceMembers(RecipientIngestion ingestion, InputStream in, String contentEncoding) {
+        AtomicLong rejected = new AtomicLong();
+        return ingest(ingestion, () -> csvParsingService.parseAudienceMembers(in, contentEncoding,
+                ingestion.getTargetId(), (batch, rejections) -> commitChunk(ingestion, batch, rejections,
+                        rejected, audienceMemberRepository::saveAll)));
+    }
+
+    /**
+     * Parses an upload of changes to a campaign's recipients into the
+     * ingestion's change set, committing one chunk at a time.
+     *
+     * @return the number of rows staged
+     */
+    public int ingestRecipientChanges(RecipientIngestion ingestion, UUID campaignId, InputStream in,
+            String contentEncoding) {
+        AtomicLong rejected = new AtomicLong();
+        return ingest(ingestion, () -> csvParsingService.parseRecipients(in, contentEncoding,
+                ingestion.getTenantId(), campaignId, (batch, rejections) -> commitChunk(ingestion,
+                        batch.stream().map(recipient -> toChange(ingestion.getTargetId(), recipient)).toList(),
+                        rejections, rejected, recipientChangeRepository::saveAll)));
+    }
+
+    /**
+     * @return the number of rows rejected so far by an ingestion
+     */
+    public long getRejectedCount(UUID ingestionId) {
+        return ingestionRepository.findRejectedCount(ingestionId).orElse(0L);
+    }
+
+    /**
+     * Writes the rejected rows of a target's latest upload as CSV. Writes
+     * only the header if nothing was rejected.
+     */
+    public void writeRejections(String targetType, UUID targetId, OutputStream out) throws IOException {
+        List<RejectedRow> rows = ingestionRepository
+                .findFirstByTargetTypeAndTargetIdOrderByCreatedAtDesc(targetType, targetId)
+                .map(ingestion -> rejectedRowRepository.findByIngestionIdOrderByRecordNumberAsc(ingestion.getId()))
+                .orElse(List.of());
+        CSVPrinter printer = new CSVPrinter(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+                CSVFormat.DEFAULT.builder().setHeader("recordNumber", "recipientId", "reason", "value").build());
+        for (RejectedRow row : rows) {
+            printer.printRecord(row.getRecordNumber(), row.getRecipientRef(), row.getReason(), row.getValue());
+        }
+        printer.flush();
+    }
+
+    /**
+     * Publishes a fully staged ingestion. {@code publishAction} runs in the
+     * same transaction, so the rows and whatever makes them live appear
+     * together or not at all.
+     *
+     * @throws IllegalStateException if the ingestion was abandoned meanwhile
+     */
+    public void publish(UUID ingestionId, Runnable publishAction) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (ingestionRepository.finishStaging(ingestionId, "PUBLISHED", null, Instant.now()) == 0) {
+                throw new IllegalStateException("Recipient ingestion " + ingestionId + " is no longer staging");
+            }
+            publishAction.run();
+        });
+        log.info("Published recipient ingestion {}", ingestionId);
+    }
+
+    /**
+     * Marks ingestions that stopped committing chunks as abandoned and purges
+     * every abandoned one.
+     */
+    public void cleanUpAbandoned() {
+        Instant cutoff = Instant.now().minus(properties.getStaleAfter());
+        for (RecipientIngestion stale : ingestionRepository.findStale(cutoff)) {
+            if (ingestionRepository.finishStaging(stale.getId(), "ABANDONED",
+                    "No chunk committed since " + stale.getUpdatedAt(), Instant.now()) > 0) {
+                log.warn("Recipient ingestion {} went stale after {} rows", stale.getId(), stale.getRowCount());
+            }
+        }
+
+        List<RecipientIngestion> abandoned = ingestionRepository.findByStatus("ABANDONED");
+        for (RecipientIngestion ingestion : abandoned) {
+            long rows = purgeRows(ingestion.getTargetType(), ingestion.getTargetId());
+            if (TARGET_CAMPAIGN.equals(ingestion.getTargetType())) {
+                campaignRepository.deleteIfIngesting(ingestion.getTargetId());
+            } else if (TARGET_AUDIENCE_SNAPSHOT.equals(ingestion.getTargetType())) {
+                snapshotRepository.deleteSnapshot(ingestion.getTargetId());
+            }
+            rejectedRowRepository.deleteByIngestionId(ingestion.getId());
+            ingestionRepository.markPurged(ingestion.getId(), Instant.now());
+            log.info("Purged abandoned recipient ingestion {} ({} rows)", ingestion.getId(), rows);
+        }
+    }
+
+    /**
+     * Deletes a target's rows in batches of {@code purge-batch-size}, each in
+     * its own transaction.
+     *
+     * @return the number of rows deleted
+     */
+    public long purgeRows(String targetType, UUID targetId) {
+        int batchSize = properties.getPurgeBatchSize();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = switch (targetType) {
+                case TARGET_AUDIENCE_SNAPSHOT -> audienceMemberRepository.deleteBatchBySnapshotId(targetId, batchSize);
+                case TARGET_RECIPIENT_CHANGE -> recipientChangeRepository.deleteBatchByChangeSetId(targetId, batchSize);
+                default -> recipientRepository.deleteBatchByCampaignId(targetId, batchSize);
+            };
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+
+    /**
+     * Runs the parse; on any failure the ingestion is abandoned (its committed
+     * chunks are left for cleanup) and the error is rethrown.
+     */
+    private int ingest(RecipientIngestion ingestion, IntSupplier parse) {
+        try {
+            int count = parse.getAsInt();
+            log.info("Staged {} rows for recipient ingestion {}", count, ingestion.getId());
+            return count;
+        } catch (RuntimeException e) {
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            ingestionRepository.finishStaging(ingestion.getId(), "ABANDONED",
+                    error.length() > 500 ? error.substring(0, 500) : error, Instant.now());
+            log.warn("Abandoned recipient ingestion {}: {}", ingestion.getId(), error);
+            throw e;
+        }
+    }
+
+    private static RecipientChange toChange(UUID changeSetId, Recipient recipient) {
+        return RecipientChange.builder()
+                .changeSetId(changeSetId)
+                .tenantId(recipient.getTenantId())
+                .campaignId(recipient.getCampaignId())
+                .recipientRef(recipient.getRecipientRef())
+                .recipientRefHash(Recipient.refHash(recipient.getRecipientRef()))
+                .email(recipient.getEmail())
+                .phone(recipient.getPhone())
+                .timezone(recipient.getTimezone())
+                .build();
+    }
+
+    /**
+     * @param rejectedSoFar rows rejected by earlier chunks of this upload,
+     *                      for the {@code max-rejected-rows} cap
+     */
+    private <T> void commitChunk(RecipientIngestion ingestion, List<T> batch, List<Rejection> rejections,
+            AtomicLong rejectedSoFar, Consumer<List<T>> saver) {
+        long keep = Math.max(0L, Math.min(rejections.size(),
+                properties.getMaxRejectedRows() - rejectedSoFar.getAndAdd(rejections.size())));
+        transactionTemplate.executeWithoutResult(status -> {
+            saver.accept(batch);
+            if (keep > 0) {
+                rejectedRowRepository.saveAll(rejections.subList(0, (int) keep).stream()
+                        .map(rejection -> RejectedRow.builder()
+                                .ingestionId(ingestion.getId())
+                                .recordNumber(rejection.recordNumber())
+                                .recipientRef(rejection.recipientRef())
+                                .reason(rejection.reason())
+                                .value(rejection.value())
+                                .build())
+                        .toList());
+            }
+            if (ingestionRepository.recordChunk(ingestion.getId(), batch.size(), rejections.size(),
+                    Instant.now()) == 0) {
+                // Cleanup abandoned this ingestion; stop instead of staging rows nobody will publish
+                throw new IllegalStateException("Recipient ingestion " + ingestion.getId() + " was abandoned");
+            }
+        });
+    }
+}
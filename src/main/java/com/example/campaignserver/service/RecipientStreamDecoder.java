@@ -0,0 +1,108 @@
+package com.example.campaignserver.service;
+
+import com.github.luben.zstd.ZstdInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transparently decompresses recipient uploads.
+ *
+ * The format comes from the Content-Encoding header (gzip, x-gzip, zstd) or,
+ * without one, from the stream's magic bytes. Compressed streams are
+ * decompressed on the ingest executor through a bounded
+ * {@link PipelinedInputStream}, so inflating the next chunk overlaps with
+ * parsing and writing the previous one.
+ */
+@Slf4j
+@Component
+public class RecipientStreamDecoder {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int PIPELINE_CHUNKS = 16;
+
+    private static final byte[] GZIP_MAGIC = { 0x1f, (byte) 0x8b };
+    private static final byte[] ZSTD_MAGIC = { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd };
+
+    enum Compression {
+        NONE, GZIP, ZSTD
+    }
+
+    private final TaskExecutor ingestExecutor;
+
+    public RecipientStreamDecoder(@Qualifier("ingestExecutor") TaskExecutor ingestExecutor) {
+        this.ingestExecutor = ingestExecutor;
+    }
+
+    /**
+     * @param raw             the stream as received
+     * @param contentEncoding the Content-Encoding header, or null
+     * @return a stream of plain CSV bytes
+     */
+    public InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, CHUNK_SIZE);
+        Compression compression = fromHeader(contentEncoding);
+        if (compression == null) {
+            compression = sniff(in);
+        }
+        if (compression == Compression.NONE) {
+            return in;
+        }
+
+        log.info("Decompressing {} recipient upload", compression);
+        InputStream decompressed = compression == Compression.GZIP
+                ? new GZIPInputStream(in, CHUNK_SIZE)
+                : new ZstdInputStream(in);
+        try {
+            return new PipelinedInputStream(decompressed, ingestExecutor, CHUNK_SIZE, PIPELINE_CHUNKS);
+        } catch (TaskRejectedException e) {
+            // All ingest threads busy: decompress on the caller's thread instead
+            log.warn("Ingest executor saturated, decompressing upload inline");
+            return decompressed;
+        }
+    }
+
+    static Compression fromHeader(String contentEncoding) {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return null;
+        }
+        return switch (contentEncoding.trim().toLowerCase()) {
+            case "gzip", "x-gzip" -> Compression.GZIP;
+            case "zstd" -> Compression.ZSTD;
+            case "identity" -> Compression.NONE;
+            default -> throw new IllegalArgumentException("Unsupported Content-Encoding: " + contentEncoding);
+        };
+    }
+
+    static Compression sniff(BufferedInputStream in) throws IOException {
+        in.mark(ZSTD_MAGIC.length);
+        byte[] head = in.readNBytes(ZSTD_MAGIC.length);
+        in.reset();
+        if (startsWith(head, ZSTD_MAGIC)) {
+            return Compression.ZSTD;
+        }
+        if (startsWith(head, GZIP_MAGIC)) {
+            return Compression.GZIP;
+        }
+        return Compression.NONE;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.RetryProperties;
+import com.example.campaignserver.dispatch.NotificationDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with "equal jitter" per provider error code.
+ *
+ * The raw delay is initialDelay * multiplier^(attempts - 1), capped at
+ * maxDelay. Half of it is always waited and the other half is random, so
+ * recipients that failed together (typically a RATE_LIMITED burst) spread out
+ * instead of hitting the provider again in lockstep.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryBackoffPolicy {
+
+    // Without a CIRCUIT_OPEN backoff, about the breaker's default open window
+    private static final Duration SHED_FALLBACK_DELAY = Duration.ofSeconds(10);
+
+    private final RetryProperties properties;
+
+    /**
+     * @param errorCode    the provider error of the last attempt
+     * @param attemptsMade attempts already made, including the one that failed
+     * @return delay before the next attempt, or null if the error is not
+     *         retryable or the attempt budget is used up
+     */
+    public Duration nextDelay(String errorCode, int attemptsMade) {
+        RetryProperties.Backoff backoff = errorCode == null ? null : properties.getBackoff().get(errorCode);
+        if (backoff == null || attemptsMade >= properties.getMaxAttempts()) {
+            return null;
+        }
+
+        double raw = backoff.getInitialDelay().toMillis() * Math.pow(backoff.getMultiplier(), attemptsMade - 1);
+        long capped = (long) Math.min(raw, backoff.getMaxDelay().toMillis());
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(capped - half + 1));
+    }
+
+    /**
+     * Delay before re-sending a retry that an open circuit breaker shed. The
+     * shed send is not an attempt, so the attempt budget does not apply.
+     *
+     * @param attemptsMade attempts that reached the provider
+     */
+    public Duration shedDelay(int attemptsMade) {
+        Duration delay = nextDelay(NotificationDispatcher.CIRCUIT_OPEN, Math.min(Math.max(attemptsMade, 1),
+                properties.getMaxAttempts() - 1));
+        return delay != null ? delay : SHED_FALLBACK_DELAY;
+    }
+}
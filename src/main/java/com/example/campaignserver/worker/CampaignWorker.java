@@ -1,86 +1,433 @@
 package com.example.campaignserver.worker;
 
+import com.example.campaignserver.config.DispatchProperties;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.dispatch.LaneCoordinator;
+import com.example.campaignserver.dispatch.NotificationDispatcher;
+import com.example.campaignserver.dispatch.PreparedBatchStore;
+import com.example.campaignserver.dispatch.RecipientBatch;
+import com.example.campaignserver.dispatch.RecipientBatchPool;
+import com.example.campaignserver.dispatch.RecipientBatchReader;
+import com.example.campaignserver.dispatch.TenantFairScheduler;
 import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.entity.DispatchShard;
 import com.example.campaignserver.entity.OutboxEvent;
-import com.example.campaignserver.entity.Recipient;
-import com.example.campaignserver.provider.SimulatedNotificationProvider;
+import com.example.campaignserver.entity.Tenant;
+import com.example.campaignserver.journal.DeliveryJournal;
+import com.example.campaignserver.provider.ProviderResponse;
 import com.example.campaignserver.repository.CampaignRepository;
 import com.example.campaignserver.repository.OutboxRepository;
-import com.example.campaignserver.repository.RecipientRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.campaignserver.repository.TenantRepository;
+import com.example.campaignserver.service.CampaignProfileService;
+import com.example.campaignserver.service.CampaignProgressHub;
+import com.example.campaignserver.service.DeliveryRetryService;
+import com.example.campaignserver.service.DeliveryRetryService.FailedSend;
+import com.example.campaignserver.service.DeliveryRollupService;
+import com.example.campaignserver.service.DispatchShardService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Processes campaign outbox events in two lanes.
+ *
+ * Each event is first planned into recipient-range shards by
+ * {@link DispatchShardService}; shards are then claimed under a lease by
+ * whichever nodes have capacity, so a large campaign is sent by every node at
+ * once and a crashed node's shards are resumed elsewhere from their cursor.
+ *
+ * BULK shards are not run to completion one after another: they are queued
+ * per tenant in a {@link TenantFairScheduler} and sent in budget-limited
+ * turns, so a huge campaign cannot starve other tenants. Bulk work also
+ * yields to the transactional lane between batches.
+ *
+ * TRANSACTIONAL shards are picked up on a short poll and run to completion on
+ * their own worker threads.
+ *
+ * A batch stops at the first send the channel's circuit breaker refuses; the
+ * rows after it are not sent, not retried and not passed by the cursor, and
+ * the shard later resumes from the first row it did not send. A bulk shard
+ * whose breaker is not letting sends through ends or skips its turn, so the
+ * loop moves on to other tenants and channels; a transactional worker waits
+ * for the breaker at its next batch boundary.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class CampaignWorker {
 
     private final OutboxRepository outboxRepository;
     private final CampaignRepository campaignRepository;
-    private final RecipientRepository recipientRepository;
-    private final SimulatedNotificationProvider notificationProvider;
+    private final RecipientBatchReader batchReader;
+    private final RecipientBatchPool batchPool;
+    private final PreparedBatchStore preparedBatches;
+    private final TenantRepository tenantRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DispatchProperties dispatchProperties;
+    private final DeliveryRetryService deliveryRetryService;
+    private final DispatchShardService shardService;
+    private final LaneCoordinator laneCoordinator;
+    private final CampaignProgressHub progressHub;
+    private final DeliveryRollupService rollupService;
+    private final CampaignProfileService profileService;
+    private final DeliveryJournal deliveryJournal;
+    private final TaskExecutor transactionalWorkerExecutor;
 
+    private final AtomicInteger transactionalInFlight = new AtomicInteger();
+    private final TenantFairScheduler<ActiveShard> bulkScheduler;
+    private int bulkShardsHeld;
+
+    /**
+     * A shard being dispatched, with the keyset cursor of the last recipient
+     * sent.
+     */
+    private static final class ActiveShard {
+        private final DispatchShard shard;
+        private final Campaign campaign;
+        private final DispatchLane lane;
+        private UUID cursor;
+        private boolean leaseLost;
+        // The last batch stopped at an open breaker; the cursor is at the last row sent
+        private boolean shed;
+
+        private ActiveShard(DispatchShard shard, Campaign campaign) {
+            this.shard = shard;
+            this.campaign = campaign;
+            this.lane = DispatchLane.valueOf(shard.getLane());
+            this.cursor = shard.getCursor() != null ? shard.getCursor() : shard.getLowerBound();
+        }
+    }
+
+    public CampaignWorker(OutboxRepository outboxRepository,
+            CampaignRepository campaignRepository,
+            RecipientBatchReader batchReader,
+            RecipientBatchPool batchPool,
+            PreparedBatchStore preparedBatches,
+            TenantRepository tenantRepository,
+            NotificationDispatcher notificationDispatcher,
+            DispatchProperties dispatchProperties,
+            DeliveryRetryService deliveryRetryService,
+            DispatchShardService shardService,
+            LaneCoordinator laneCoordinator,
+            CampaignProgressHub progressHub,
+            DeliveryRollupService rollupService,
+            CampaignProfileService profileService,
+            DeliveryJournal deliveryJournal,
+            @Qualifier("transactionalWorkerExecutor") TaskExecutor transactionalWorkerExecutor) {
+        this.outboxRepository = outboxRepository;
+        this.campaignRepository = campaignRepository;
+        this.batchReader = batchReader;
+        this.batchPool = batchPool;
+        this.preparedBatches = preparedBatches;
+        this.tenantRepository = tenantRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.dispatchProperties = dispatchProperties;
+        this.deliveryRetryService = deliveryRetryService;
+        this.shardService = shardService;
+        this.laneCoordinator = laneCoordinator;
+        this.progressHub = progressHub;
+        this.rollupService = rollupService;
+        this.profileService = profileService;
+        this.deliveryJournal = deliveryJournal;
+        this.transactionalWorkerExecutor = transactionalWorkerExecutor;
+        this.bulkScheduler = new TenantFairScheduler<>(dispatchProperties.getFairness().getQuantum());
+    }
+
+    /**
+     * Bulk dispatch loop. Runs until every admitted shard is sent, picking up
+     * newly planned shards every {@code admitInterval} so they join the
+     * rotation instead of waiting for the current ones to finish. If every
+     * admitted shard is waiting on its channel's breaker, the loop returns
+     * and they resume on the next poll.
+     */
     @Scheduled(fixedDelay = 5000) // Poll every 5 seconds
     public void processOutboxEvents() {
-        List<OutboxEvent> pendingEvents = outboxRepository.findByStatus("PENDING");
+        admitBulkShards();
+        long admitIntervalNanos = dispatchProperties.getFairness().getAdmitInterval().toNanos();
+        long lastAdmit = System.nanoTime();
+
+        // Shards found waiting on their channel's breaker since a turn last ran
+        Set<ActiveShard> blocked = new HashSet<>();
+        while (!bulkScheduler.isEmpty()) {
+            if (System.nanoTime() - lastAdmit >= admitIntervalNanos) {
+                admitBulkShards();
+                lastAdmit = System.nanoTime();
+            }
+
+            TenantFairScheduler.Turn<ActiveShard> turn = bulkScheduler.nextTurn();
+            ActiveShard active = turn.work();
+            if (!notificationDispatcher.isChannelPermitting(active.campaign.getChannel())) {
+                bulkScheduler.skip(turn);
+                blocked.add(active);
+                if (blocked.size() >= bulkShardsHeld) {
+                    // Every held shard is waiting on a breaker: retry on the next poll rather than spin
+                    return;
+                }
+                continue;
+            }
+            blocked.clear();
+
+            long used = 0;
+            boolean finished = false;
+            try {
+                while (used < turn.budget()) {
+                    // Batch boundary: bulk campaigns step aside while transactional work is waiting
+                    awaitBulkTurn();
+                    if (used > 0 && !notificationDispatcher.isChannelPermitting(active.campaign.getChannel())) {
+                        break;
+                    }
+                    int size = (int) Math.min(dispatchProperties.getBatchSize(), turn.budget() - used);
+                    int dispatched = dispatchNextBatch(active, size);
+                    used += dispatched;
+                    if (active.shed) {
+                        // End the turn; the shard is skipped until the breaker lets sends through
+                        break;
+                    }
+                    if (dispatched < size) {
+                        finished = true;
+                        break;
+                    }
+                }
+                if (finished) {
+                    finishShard(active);
+                }
+            } catch (Exception e) {
+                markFailed(active, e);
+                finished = true;
+            }
+
+            bulkScheduler.complete(turn, used, finished);
+            if (finished) {
+                bulkShardsHeld--;
+                laneCoordinator.exit(DispatchLane.BULK);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.dispatch.transactional.poll-interval-ms:250}")
+    public void processTransactionalEvents() {
+        planPendingEvents(DispatchLane.TRANSACTIONAL);
+
+        int free = dispatchProperties.getTransactional().getWorkers() - transactionalInFlight.get();
+        for (DispatchShard shard : shardService.claim(DispatchLane.TRANSACTIONAL, free)) {
+            ActiveShard active = activate(shard);
+            if (active == null) {
+                continue;
+            }
+            transactionalInFlight.incrementAndGet();
+            // Entering the lane at hand-off (not when a worker starts) makes bulk
+            // yield as soon as transactional work is waiting
+            laneCoordinator.enter(DispatchLane.TRANSACTIONAL);
+            transactionalWorkerExecutor.execute(() -> {
+                try {
+                    processShard(active);
+                } catch (Exception e) {
+                    markFailed(active, e);
+                } finally {
+                    laneCoordinator.exit(DispatchLane.TRANSACTIONAL);
+                    transactionalInFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends a whole shard.
+     */
+    private void processShard(ActiveShard active) {
+        int batchSize = dispatchProperties.getBatchSize();
+        int dispatched;
+        do {
+            awaitChannel(active);
+            dispatched = dispatchNextBatch(active, batchSize);
+        } while (dispatched == batchSize || active.shed);
+        finishShard(active);
+    }
+
+    private void admitBulkShards() {
+        planPendingEvents(DispatchLane.BULK);
+        shardService.renewLeases();
+
+        List<DispatchShard> shards = shardService.claim(DispatchLane.BULK,
+                dispatchProperties.getSharding().getBulkShardsPerNode() - bulkShardsHeld);
+        if (shards.isEmpty()) {
+            return;
+        }
+        for (DispatchShard shard : shards) {
+            ActiveShard active = activate(shard);
+            if (active == null) {
+                continue;
+            }
+            int weight = dispatchProperties.getFairness().weightFor(tenantRepository
+                    .findById(active.campaign.getTenantId())
+                    .map(Tenant::getMonthlyMessageLimit)
+                    .orElse(null));
+            bulkScheduler.add(active.campaign.getTenantId(), weight, active);
+            bulkShardsHeld++;
+            laneCoordinator.enter(DispatchLane.BULK);
+        }
+        log.info("Bulk scheduler now rotating across {} tenants", bulkScheduler.tenantCount());
+    }
+
+    /**
+     * Splits every pending event of the lane into shards; events another node
+     * claims first are skipped.
+     */
+    private void planPendingEvents(DispatchLane lane) {
+        List<OutboxEvent> pendingEvents = outboxRepository.findByStatusAndLaneOrderByCreatedAtAsc(
+                "PENDING", lane.name());
         if (pendingEvents.isEmpty()) {
             return;
         }
 
-        log.info("Found {} pending outbox events to process", pendingEvents.size());
+        log.info("Found {} pending {} outbox events to process", pendingEvents.size(), lane);
         for (OutboxEvent event : pendingEvents) {
             try {
-                processEvent(event);
+                shardService.plan(event);
             } catch (Exception e) {
-                log.error("Failed to process event {}: {}", event.getId(), e.getMessage());
+                log.error("Failed to plan event {}: {}", event.getId(), e.getMessage());
                 event.setStatus("FAILED");
                 outboxRepository.save(event);
             }
         }
     }
 
-    @Transactional
-    public void processEvent(OutboxEvent event) {
-        log.info("Processing event: {} for campaign: {}", event.getId(), event.getAggregateId());
-
-        event.setStatus("PROCESSING");
-        outboxRepository.saveAndFlush(event);
-
-        Campaign campaign = campaignRepository.findById(event.getAggregateId()).orElse(null);
+    /**
+     * Loads the campaign of a claimed shard.
+     *
+     * @return the shard to dispatch, or null if its campaign no longer exists
+     */
+    private ActiveShard activate(DispatchShard shard) {
+        Campaign campaign = campaignRepository.findById(shard.getCampaignId()).orElse(null);
         if (campaign == null) {
-            log.warn("Campaign {} not found for event {}", event.getAggregateId(), event.getId());
-            event.setStatus("COMPLETED");
-            event.setProcessedAt(Instant.now());
-            outboxRepository.save(event);
-            return;
+            log.warn("Campaign {} not found for shard {}", shard.getCampaignId(), shard.getId());
+            shardService.complete(shard);
+            return null;
         }
+        return new ActiveShard(shard, campaign);
+    }
 
-        // Fetch recipients for this campaign
-        List<Recipient> recipients = recipientRepository.findByCampaignId(campaign.getId());
-        log.info("Sending notifications to {} recipients for campaign {}", recipients.size(), campaign.getId());
+    /**
+     * Sends the next keyset batch of recipients and records the outcomes.
+     *
+     * Audience campaigns read the pinned snapshot directly; members are never
+     * copied into the recipient table. Pre-warmed campaigns take the batch
+     * from their prepared pages where one matches.
+     *
+     * @return the number of recipients sent; less than {@code size} means
+     *         the shard has no more recipients, unless the breaker stopped the
+     *         batch ({@code active.shed})
+     */
+    private int dispatchNextBatch(ActiveShard active, int size) {
+        Campaign campaign = active.campaign;
+        active.shed = false;
+        RecipientBatch batch = batchPool.acquire(campaign.getId(), campaign.getTenantId(), size);
+        try {
+            UUID upTo = active.shard.getUpperBound();
+            long loadStart = System.nanoTime();
+            // Pre-warmed campaigns send from their prepared pages while the batch sizes line up
+            if (campaign.getPrewarmedAt() == null
+                    || !preparedBatches.read(batch, campaign.getId(), active.cursor, upTo, size)) {
+                if (campaign.getAudienceSnapshotId() != null) {
+                    batchReader.readAudienceMembers(batch, campaign.getAudienceSnapshotId(), active.cursor, upTo,
+                            size);
+                } else {
+                    batchReader.readRecipients(batch, campaign.getId(), active.cursor, upTo, size);
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            long sendStart = System.nanoTime();
+            int issued = notificationDispatcher.dispatch(active.lane, campaign.getChannel(),
+                    campaign.getMessageTemplate(), batch, active.shard.getEnqueuedAt());
+            profileService.recordBatch(campaign.getId(), issued, sendStart - loadStart,
+                    System.nanoTime() - sendStart);
+            if (issued < batch.size()) {
+                active.shed = true;
+                log.info("Circuit open on {}: shard {} of campaign {} paused after {} of {} rows",
+                        campaign.getChannel(), active.shard.getShardIndex(), campaign.getId(), issued, batch.size());
+                if (issued == 0) {
+                    return 0;
+                }
+            }
+            active.cursor = batch.recipientId(issued - 1);
 
-        for (Recipient recipient : recipients) {
-            // Simulated send
-            notificationProvider.send(campaign.getChannel(),
-                    recipient.getEmail() != null ? recipient.getEmail() : recipient.getPhone(),
-                    campaign.getMessageTemplate());
+            long sent = 0;
+            List<FailedSend> failures = new ArrayList<>();
+            for (int i = 0; i < issued; i++) {
+                ProviderResponse response = batch.response(i);
+                if (response.isSuccess()) {
+                    sent++;
+                } else {
+                    failures.add(new FailedSend(batch.recipientId(i), batch.destination(i),
+                            response.getErrorCode()));
+                }
+            }
+
+            // Failed sends go to the delayed-retry queue; only non-retryable ones count as failed now
+            int failed = deliveryRetryService.scheduleRetries(campaign, failures);
+            if (deliveryJournal.isEnabled()) {
+                // Folded into the campaign counters on the journal's next checkpoint
+                deliveryJournal.recordOutcome(campaign.getId(), sent, failed);
+            } else {
+                campaignRepository.incrementDeliveryCounts(campaign.getId(), sent, failed);
+            }
+            progressHub.recordDelta(campaign.getId(), sent, failed, failures.size() - failed);
+            rollupService.record(campaign.getTenantId(), campaign.getChannel(), sent, failed,
+                    failures.size() - failed);
+
+            if (!shardService.advance(active.shard, active.cursor, issued)) {
+                // Another node took the shard over after our lease expired; it resumes from the saved cursor
+                log.warn("Lost the lease on shard {} of campaign {}", active.shard.getShardIndex(),
+                        campaign.getId());
+                active.leaseLost = true;
+                active.shed = false;
+                return 0;
+            }
+            return issued;
+        } finally {
+            batchPool.release(batch);
         }
+    }
 
-        // Mark campaign as completed
-        campaign.setStatus("COMPLETED");
-        campaignRepository.save(campaign);
+    private void finishShard(ActiveShard active) {
+        if (!active.leaseLost) {
+            shardService.complete(active.shard);
+        }
+    }
+
+    private void awaitBulkTurn() {
+        try {
+            laneCoordinator.awaitBulkTurn();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while yielding to the transactional lane", e);
+        }
+    }
 
-        // Mark event as completed
-        event.setStatus("COMPLETED");
-        event.setProcessedAt(Instant.now());
-        outboxRepository.save(event);
+    private void awaitChannel(ActiveShard active) {
+        try {
+            notificationDispatcher.awaitChannel(active.campaign.getChannel());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the " + active.campaign.getChannel()
+                    + " circuit breaker", e);
+        }
+    }
 
-        log.info("Successfully processed campaign: {}", campaign.getId());
+    private void markFailed(ActiveShard active, Exception e) {
+        log.error("Failed to process shard {} of campaign {}: {}", active.shard.getShardIndex(),
+                active.campaign.getId(), e.getMessage());
+        shardService.fail(active.shard);
     }
 }
@@ -0,0 +1,27 @@
+package com.example.campaignserver.worker;
+
+import com.example.campaignserver.service.RecipientIngestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Purges recipient uploads that failed or whose request died mid-stream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestionCleanupWorker {
+
+    private final RecipientIngestionService recipientIngestionService;
+
+    @Scheduled(fixedDelayString = "${campaign.ingestion.cleanup-interval-ms:60000}")
+    public void cleanUpAbandonedIngestions() {
+        try {
+            recipientIngestionService.cleanUpAbandoned();
+        } catch (Exception e) {
+            log.error("Failed to clean up abandoned ingestions: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.campaignserver.worker;
+
+import com.example.campaignserver.service.DeliveryRetryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drains the delayed-retry queue. Each poll claims one batch of due retries;
+ * rows are locked with SKIP LOCKED, so several nodes can run this safely.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryWorker {
+
+    private final DeliveryRetryService deliveryRetryService;
+
+    @Scheduled(fixedDelayString = "${campaign.retry.poll-interval-ms:1000}")
+    public void processDueRetries() {
+        try {
+            Set<UUID> campaignIds = deliveryRetryService.processDueRetries(Instant.now());
+            campaignIds.forEach(deliveryRetryService::completeCampaignIfDrained);
+        } catch (Exception e) {
+            log.error("Failed to process due retries: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.campaignserver.worker;
+
+import com.example.campaignserver.entity.Campaign;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.service.CampaignPrewarmService;
+import com.example.campaignserver.service.CampaignService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Drives SCHEDULED campaigns: pre-warms the ones starting soon and starts
+ * the ones that are due.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduledCampaignWorker {
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignService campaignService;
+    private final CampaignPrewarmService prewarmService;
+
+    @Scheduled(fixedDelayString = "${campaign.schedule.activation-interval-ms:1000}")
+    public void activateDueCampaigns() {
+        for (Campaign campaign : campaignRepository.findScheduledCampaignsDue(Instant.now())) {
+            try {
+                if (campaignService.activateScheduledCampaign(campaign)) {
+                    log.info("Activated campaign {} scheduled at {}{}", campaign.getId(), campaign.getScheduledAt(),
+                            campaign.getPrewarmedAt() != null ? " from its pre-warmed pages" : "");
+                }
+            } catch (Exception e) {
+                log.error("Failed to activate campaign {}: {}", campaign.getId(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.schedule.prewarm-interval-ms:30000}")
+    public void prewarmUpcomingCampaigns() {
+        try {
+            prewarmService.prewarmUpcoming();
+            prewarmService.purgeFinished();
+        } catch (Exception e) {
+            log.error("Failed to pre-warm scheduled campaigns: {}", e.getMessage());
+        }
+    }
+}
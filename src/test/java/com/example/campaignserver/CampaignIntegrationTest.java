@@ -1,9 +1,29 @@
 package com.example.campaignserver;
 
+import com.example.campaignserver.dispatch.DispatchLane;
 import com.example.campaignserver.dto.response.ApiResponse;
+import com.example.campaignserver.dto.response.AudienceResponse;
+import com.example.campaignserver.dto.response.CampaignProfileResponse;
 import com.example.campaignserver.dto.response.CampaignResponse;
+import com.example.campaignserver.dto.response.CursorPage;
+import com.example.campaignserver.dto.response.RecipientChangeResponse;
+import com.example.campaignserver.dto.response.TenantUsageResponse;
+import com.example.campaignserver.entity.DispatchShard;
+import com.example.campaignserver.entity.Recipient;
+import com.example.campaignserver.entity.RecipientIngestion;
 import com.example.campaignserver.entity.Tenant;
+import com.example.campaignserver.entity.TimeOrderedUuidGenerator;
+import com.example.campaignserver.repository.CampaignRepository;
+import com.example.campaignserver.repository.DispatchShardRepository;
+import com.example.campaignserver.repository.PreparedBatchRepository;
+import com.example.campaignserver.repository.RecipientIngestionRepository;
+import com.example.campaignserver.repository.RecipientRepository;
 import com.example.campaignserver.repository.TenantRepository;
+import com.example.campaignserver.service.CampaignPrewarmService;
+import com.example.campaignserver.service.CampaignProfileService;
+import com.example.campaignserver.service.DeliveryRollupService;
+import com.example.campaignserver.service.DispatchShardService;
+import com.example.campaignserver.service.RecipientIngestionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +35,20 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.MultiValueMap;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +62,39 @@ public class CampaignIntegrationTest {
     @Autowired
     private TenantRepository tenantRepository;
 
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private RecipientRepository recipientRepository;
+
+    @Autowired
+    private RecipientIngestionRepository ingestionRepository;
+
+    @Autowired
+    private RecipientIngestionService recipientIngestionService;
+
+    @Autowired
+    private DeliveryRollupService rollupService;
+
+    @Autowired
+    private CampaignProfileService profileService;
+
+    @Autowired
+    private CampaignPrewarmService prewarmService;
+
+    @Autowired
+    private PreparedBatchRepository preparedBatchRepository;
+
+    @Autowired
+    private DispatchShardRepository shardRepository;
+
+    @Autowired
+    private DispatchShardService shardService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private UUID tenantId;
 
     @BeforeEach
@@ -50,7 +114,7 @@ public class CampaignIntegrationTest {
         body.add("channel", "EMAIL");
         body.add("messageTemplate", "Hello {{name}}");
 
-        String csvContent = "recipientId,email,phone,timezone\nREF1,a@b.com,123,UTC";
+        String csvContent = "recipientId,email,phone,timezone\nREF1,a@b.com,+15550100100,UTC";
         ByteArrayResource csvResource = new ByteArrayResource(csvContent.getBytes()) {
             @Override
             public String getFilename() {
@@ -74,6 +138,447 @@ public class CampaignIntegrationTest {
         assertEquals("EMAIL", response.getBody().getData().getChannel());
     }
 
+    @Test
+    @DisplayName("IT: created campaign is dispatched in shards and its stats add up")
+    void createdCampaignIsDispatched() throws InterruptedException {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("tenantId", tenantId.toString());
+        body.add("name", "Dispatch Campaign");
+        body.add("channel", "EMAIL");
+        body.add("messageTemplate", "Hello");
+        body.add("isTransactional", "true");
+
+        StringBuilder csv = new StringBuilder("recipientId,email\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("REF").append(i).append(",user").append(i).append("@example.com\n");
+        }
+        body.add("recipients", new ByteArrayResource(csv.toString().getBytes()) {
+            @Override
+            public String getFilename() {
+                return "recipients.csv";
+            }
+        });
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<ApiResponse<CampaignResponse>> created = restTemplate.exchange(
+                "/campaigns", HttpMethod.POST, new HttpEntity<>(body, headers), new ParameterizedTypeReference<>() {
+                });
+        UUID campaignId = created.getBody().getData().getId();
+
+        CampaignResponse stats = null;
+        for (int i = 0; i < 50; i++) {
+            stats = restTemplate.exchange("/campaigns/" + campaignId + "?tenantId=" + tenantId,
+                    HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                    }).getBody().getData();
+            if (stats.getPendingCount() == 0 && stats.getShardCount() > 0
+                    && stats.getCompletedShards() == stats.getShardCount()) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+
+        assertEquals(20, stats.getTotalRecipients());
+        assertEquals(0, stats.getPendingCount());
+        // shard-size is 8 in the test profile
+        assertEquals(3, stats.getShardCount());
+        assertEquals(3, stats.getCompletedShards());
+        assertEquals(20, stats.getSentCount() + stats.getFailedCount() + stats.getDelayedCount());
+
+        rollupService.flush();
+        TenantUsageResponse usage = restTemplate.exchange("/tenants/" + tenantId + "/usage?granularity=HOUR",
+                HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<TenantUsageResponse>>() {
+                }).getBody().getData();
+        assertEquals(1, usage.getTotals().size());
+        TenantUsageResponse.Bucket email = usage.getTotals().get(0);
+        assertEquals("EMAIL", email.getChannel());
+        // Retries may have resolved more sends since the stats were read
+        assertTrue(email.getSent() >= stats.getSentCount());
+        assertTrue(email.getSent() + email.getFailed() + email.getDeferred() >= 20);
+
+        profileService.flush();
+        CampaignProfileResponse profile = restTemplate.exchange(
+                "/campaigns/" + campaignId + "/profile?tenantId=" + tenantId,
+                HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<CampaignProfileResponse>>() {
+                }).getBody().getData();
+        assertEquals(20, profile.getIngestedRows());
+        assertNotNull(profile.getIngestMillis());
+        assertNotNull(profile.getClaimedAt());
+        assertNotNull(profile.getFirstSendAt());
+        assertEquals(20, profile.getSendCount());
+        assertEquals(profile.getBatchCount(), profile.getSendLatency().getCount());
+    }
+
+    @Test
+    @DisplayName("IT: scheduled campaign is pre-warmed and sent from its pages once due")
+    void scheduledCampaignIsPrewarmedAndActivated() throws InterruptedException {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("tenantId", tenantId.toString());
+        body.add("name", "Scheduled Campaign");
+        body.add("channel", "EMAIL");
+        body.add("messageTemplate", "Hello");
+        body.add("isTransactional", "true");
+        body.add("scheduledAt", Instant.now().plusSeconds(3).toString());
+
+        StringBuilder csv = new StringBuilder("recipientId,email\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("REF").append(i).append(",user").append(i).append("@example.com\n");
+        }
+        body.add("recipients", new ByteArrayResource(csv.toString().getBytes()) {
+            @Override
+            public String getFilename() {
+                return "recipients.csv";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        CampaignResponse created = restTemplate.exchange(
+                "/campaigns", HttpMethod.POST, new HttpEntity<>(body, headers),
+                new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                }).getBody().getData();
+        assertEquals("SCHEDULED", created.getStatus());
+
+        prewarmService.prewarmUpcoming();
+        assertNotNull(campaignRepository.findById(created.getId()).orElseThrow().getPrewarmedAt());
+        // shard-size 8 in the test profile: three shards of one page each
+        assertEquals(3, preparedBatchRepository.countByCampaignId(created.getId()));
+
+        CampaignResponse stats = null;
+        for (int i = 0; i < 75; i++) {
+            stats = restTemplate.exchange("/campaigns/" + created.getId() + "?tenantId=" + tenantId,
+                    HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                    }).getBody().getData();
+            if (stats.getPendingCount() == 0 && stats.getShardCount() > 0
+                    && stats.getCompletedShards() == stats.getShardCount()) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        assertEquals(3, stats.getShardCount());
+        assertEquals(3, stats.getCompletedShards());
+        assertEquals(20, stats.getSentCount() + stats.getFailedCount() + stats.getDelayedCount());
+    }
+
+    @Test
+    @DisplayName("IT: POST /campaigns with a raw text/csv body should stream the recipients")
+    void createCampaignStreamed() {
+        String csvContent = "recipientId,email,phone,timezone\nREF1,a@b.com,+15550100100,UTC\nREF2,c@d.com,,";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        ResponseEntity<ApiResponse<CampaignResponse>> response = restTemplate.exchange(
+                "/campaigns?tenantId=" + tenantId + "&name=Streamed&channel=email&messageTemplate=Hi",
+                HttpMethod.POST, new HttpEntity<>(csvContent.getBytes(), headers), new ParameterizedTypeReference<>() {
+                });
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("EMAIL", response.getBody().getData().getChannel());
+        assertEquals(2, response.getBody().getData().getTotalRecipients());
+    }
+
+    @Test
+    @DisplayName("IT: POST /campaigns/{id}/recipients appends, removes and replaces only the changed rows")
+    void changeRecipientsOfScheduledCampaign() {
+        HttpHeaders csvHeaders = new HttpHeaders();
+        csvHeaders.setContentType(MediaType.parseMediaType("text/csv"));
+        UUID campaignId = restTemplate.exchange(
+                "/campaigns?tenantId=" + tenantId + "&name=Changes&channel=email&messageTemplate=Hi"
+                        + "&scheduledAt=2099-01-01T00:00:00Z",
+                HttpMethod.POST, new HttpEntity<>("recipientId,email\nR1,a@b.com\nR2,c@d.com\nR3,e@f.com".getBytes(),
+                        csvHeaders),
+                new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                }).getBody().getData().getId();
+        String url = "/campaigns/" + campaignId + "/recipients?tenantId=" + tenantId + "&mode=";
+
+        // A shard finished by a node whose clock runs an hour ahead of this one
+        UUID aheadCursor = TimeOrderedUuidGenerator.nextAfter(
+                new UUID((System.currentTimeMillis() + 3_600_000L) << 16 | 0x7000L, 0x8000_0000_0000_0000L));
+        shardRepository.save(DispatchShard.builder()
+                .campaignId(campaignId)
+                .tenantId(tenantId)
+                .outboxEventId(UUID.randomUUID())
+                .lane(DispatchLane.BULK.name())
+                .cursor(aheadCursor)
+                .status("COMPLETED")
+                .enqueuedAt(Instant.now())
+                .build());
+
+        // R2 unchanged, R3 changed, R4 and R5 new; R5's last row wins
+        RecipientChangeResponse appended = changeRecipients(url + "append",
+                "recipientId,email\nR2,c@d.com\nR3,new@f.com\nR4,g@h.com\nR5,old@j.com\nR5,i@j.com", csvHeaders);
+        assertEquals(2, appended.getInserted());
+        assertEquals(1, appended.getUpdated());
+        assertEquals(0, appended.getRemoved());
+        assertEquals(5, appended.getTotalRecipients());
+        // Appended rows sort after the shard's cursor, so a shard added after it sends them
+        assertTrue(recipientRepository.findByCampaignId(campaignId).stream()
+                .filter(recipient -> Set.of("R4", "R5").contains(recipient.getRecipientRef()))
+                .allMatch(recipient -> TimeOrderedUuidGenerator.compare(recipient.getId(), aheadCursor) > 0));
+
+        RecipientChangeResponse removed = changeRecipients(url + "remove", "recipientId,email\nR1,a@b.com",
+                csvHeaders);
+        assertEquals(1, removed.getRemoved());
+        assertEquals(4, removed.getTotalRecipients());
+
+        RecipientChangeResponse replaced = changeRecipients(url + "replace",
+                "recipientId,email\nR2,c@d.com\nR5,i@j.com", csvHeaders);
+        assertEquals(0, replaced.getInserted());
+        assertEquals(0, replaced.getUpdated());
+        assertEquals(2, replaced.getRemoved());
+        assertEquals(2, replaced.getTotalRecipients());
+
+        ResponseEntity<String> badMode = restTemplate.exchange(url + "merge", HttpMethod.POST,
+                new HttpEntity<>("recipientId,email\nR9,x@y.com".getBytes(), csvHeaders), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, badMode.getStatusCode());
+    }
+
+    private RecipientChangeResponse changeRecipients(String url, String csv, HttpHeaders headers) {
+        ResponseEntity<ApiResponse<RecipientChangeResponse>> response = restTemplate.exchange(url, HttpMethod.POST,
+                new HttpEntity<>(csv.getBytes(), headers), new ParameterizedTypeReference<>() {
+                });
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().getData();
+    }
+
+    @Test
+    @DisplayName("IT: GET /campaigns/{id}/report streams CSV, and gzip-compressed NDJSON on request")
+    void exportDeliveryReport() throws IOException {
+        HttpHeaders csvHeaders = new HttpHeaders();
+        csvHeaders.setContentType(MediaType.parseMediaType("text/csv"));
+        UUID campaignId = restTemplate.exchange(
+                "/campaigns?tenantId=" + tenantId + "&name=Report&channel=email&messageTemplate=Hi"
+                        + "&scheduledAt=2099-01-01T00:00:00Z",
+                HttpMethod.POST, new HttpEntity<>("recipientId,email\nR1,a@b.com\nR2,c@d.com\nR3,e@f.com".getBytes(),
+                        csvHeaders),
+                new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                }).getBody().getData().getId();
+
+        ResponseEntity<String> csv = restTemplate.getForEntity(
+                "/campaigns/" + campaignId + "/report?tenantId=" + tenantId, String.class);
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        String[] lines = csv.getBody().strip().split("\r?\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("recipientId,email,phone,status"));
+        // Rows come back in recipient-id order, which is not upload order
+        assertTrue(Arrays.stream(lines).anyMatch(line -> line.startsWith("R1,a@b.com,,PENDING")));
+
+        // A shard that failed after sending the first recipient: the others were never sent
+        String firstRef = lines[1].substring(0, lines[1].indexOf(','));
+        UUID firstId = recipientRepository.findByCampaignId(campaignId).stream()
+                .filter(recipient -> recipient.getRecipientRef().equals(firstRef))
+                .findFirst().orElseThrow().getId();
+        shardRepository.save(DispatchShard.builder()
+                .campaignId(campaignId)
+                .tenantId(tenantId)
+                .outboxEventId(UUID.randomUUID())
+                .lane("BULK")
+                .cursor(firstId)
+                .status("FAILED")
+                .enqueuedAt(Instant.now())
+                .build());
+        String[] partial = restTemplate.getForObject(
+                "/campaigns/" + campaignId + "/report?tenantId=" + tenantId, String.class).strip().split("\r?\n");
+        assertTrue(partial[1].startsWith(firstRef + ",") && partial[1].contains(",SENT,"), partial[1]);
+        assertTrue(partial[2].contains(",UNSENT,") && partial[3].contains(",UNSENT,"), partial[2]);
+
+        HttpHeaders gzipHeaders = new HttpHeaders();
+        gzipHeaders.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> ndjson = restTemplate.exchange(
+                "/campaigns/" + campaignId + "/report?tenantId=" + tenantId + "&format=ndjson",
+                HttpMethod.GET, new HttpEntity<>(gzipHeaders), byte[].class);
+        assertEquals("gzip", ndjson.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        String decoded = new String(new GZIPInputStream(new ByteArrayInputStream(ndjson.getBody())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(3, decoded.strip().split("\n").length);
+        assertTrue(decoded.contains("{\"recipientId\":\"R1\""));
+    }
+
+    @Test
+    @DisplayName("IT: a later small campaign of another tenant is claimed alongside a big one")
+    void shardClaimIsTenantFair() {
+        UUID otherTenantId = tenantRepository.save(Tenant.builder().name("Small sender").build()).getId();
+        // Rolled back, so the background workers never see these shards
+        transactionTemplate.executeWithoutResult(tx -> {
+            UUID bigCampaign = UUID.randomUUID();
+            for (int i = 0; i < 10; i++) {
+                shardRepository.save(pendingShard(tenantId, bigCampaign, i));
+            }
+            shardRepository.saveAndFlush(pendingShard(otherTenantId, UUID.randomUUID(), 0));
+
+            List<DispatchShard> claimed = shardService.claim(DispatchLane.BULK, 2);
+            assertEquals(Set.of(tenantId, otherTenantId),
+                    claimed.stream().map(DispatchShard::getTenantId).collect(Collectors.toSet()));
+
+            // The big campaign's tenant now holds a shard; the rest come one at a time
+            assertEquals(tenantId, shardService.claim(DispatchLane.BULK, 1).get(0).getTenantId());
+            tx.setRollbackOnly();
+        });
+    }
+
+    private static DispatchShard pendingShard(UUID tenantId, UUID campaignId, int shardIndex) {
+        return DispatchShard.builder()
+                .campaignId(campaignId)
+                .tenantId(tenantId)
+                .outboxEventId(UUID.randomUUID())
+                .lane(DispatchLane.BULK.name())
+                .shardIndex(shardIndex)
+                .enqueuedAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("IT: audience campaign keeps its snapshot when the audience is re-uploaded")
+    void audienceCampaignPinsSnapshot() throws InterruptedException {
+        HttpHeaders csvHeaders = new HttpHeaders();
+        csvHeaders.setContentType(MediaType.parseMediaType("text/csv"));
+        String members = "recipientId,email\nA1,a1@example.com\nA2,a2@example.com\nA3,a3@example.com";
+
+        ResponseEntity<ApiResponse<AudienceResponse>> audience = restTemplate.exchange(
+                "/audiences?tenantId=" + tenantId + "&name=Newsletter",
+                HttpMethod.POST, new HttpEntity<>(members.getBytes(), csvHeaders), new ParameterizedTypeReference<>() {
+                });
+        assertEquals(HttpStatus.CREATED, audience.getStatusCode());
+        UUID audienceId = audience.getBody().getData().getId();
+        assertEquals(3, audience.getBody().getData().getMemberCount());
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("tenantId", tenantId.toString());
+        body.add("name", "Audience Campaign");
+        body.add("channel", "EMAIL");
+        body.add("messageTemplate", "Hello");
+        body.add("isTransactional", "true");
+        body.add("audienceId", audienceId.toString());
+        HttpHeaders formHeaders = new HttpHeaders();
+        formHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
+        UUID campaignId = restTemplate.exchange("/campaigns", HttpMethod.POST, new HttpEntity<>(body, formHeaders),
+                new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                }).getBody().getData().getId();
+
+        // A new upload becomes the audience's current version but does not affect the campaign
+        ResponseEntity<ApiResponse<AudienceResponse>> reuploaded = restTemplate.exchange(
+                "/audiences/" + audienceId + "/snapshots?tenantId=" + tenantId,
+                HttpMethod.POST, new HttpEntity<>("recipientId,email\nB1,b1@example.com".getBytes(), csvHeaders),
+                new ParameterizedTypeReference<>() {
+                });
+        assertEquals(2, reuploaded.getBody().getData().getCurrentVersion());
+        assertEquals(1, reuploaded.getBody().getData().getMemberCount());
+
+        CampaignResponse stats = null;
+        for (int i = 0; i < 50; i++) {
+            stats = restTemplate.exchange("/campaigns/" + campaignId + "?tenantId=" + tenantId,
+                    HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                    }).getBody().getData();
+            if (stats.getPendingCount() == 0) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        assertEquals(3, stats.getTotalRecipients());
+        assertEquals(0, stats.getPendingCount());
+        assertEquals(3, stats.getSentCount() + stats.getFailedCount() + stats.getDelayedCount());
+    }
+
+    @Test
+    @DisplayName("IT: a malformed row after committed chunks abandons the upload and cleanup purges it")
+    void failedUploadIsAbandonedAndPurged() {
+        StringBuilder csv = new StringBuilder("recipientId,email\n");
+        for (int i = 0; i < 1200; i++) {
+            csv.append("REF").append(i).append(",user").append(i).append("@example.com\n");
+        }
+        // Unterminated quote: the file itself is broken, not just one row's values
+        csv.append("REFX,\"unterminated@example.com\n");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        ResponseEntity<ApiResponse<CampaignResponse>> response = restTemplate.exchange(
+                "/campaigns?tenantId=" + tenantId + "&name=Broken&channel=email&messageTemplate=Hi",
+                HttpMethod.POST, new HttpEntity<>(csv.toString().getBytes(), headers),
+                new ParameterizedTypeReference<>() {
+                });
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        // The first chunks were committed before the malformed row was reached
+        RecipientIngestion ingestion = ingestionRepository.findByStatus("ABANDONED").stream()
+                .filter(i -> i.getTenantId().equals(tenantId))
+                .findFirst().orElseThrow();
+        assertEquals(1000, ingestion.getRowCount());
+        assertEquals(1000, recipientRepository.countByCampaignId(ingestion.getTargetId()));
+
+        recipientIngestionService.cleanUpAbandoned();
+
+        assertEquals(0, recipientRepository.countByCampaignId(ingestion.getTargetId()));
+        assertFalse(campaignRepository.existsById(ingestion.getTargetId()));
+        assertEquals("PURGED", ingestionRepository.findById(ingestion.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("IT: invalid contact rows are rejected into a report and valid ones normalized")
+    void invalidRowsAreRejected() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        String csv = """
+                recipientId,email,phone,timezone
+                R1,Ann@Example.COM,,europe/paris
+                R2,not-an-email,,
+                R3,,+1 (555) 010-0100,
+                R4,,555-0100,
+                ,orphan@example.com,,
+                R6,ok@example.com,,Mars/Olympus
+                """;
+        CampaignResponse created = restTemplate.exchange(
+                "/campaigns?tenantId=" + tenantId + "&name=Validated&channel=email&messageTemplate=Hi"
+                        + "&scheduledAt=2099-01-01T00:00:00Z",
+                HttpMethod.POST, new HttpEntity<>(csv.getBytes(), headers),
+                new ParameterizedTypeReference<ApiResponse<CampaignResponse>>() {
+                }).getBody().getData();
+
+        assertEquals(2, created.getTotalRecipients());
+        assertEquals(4, created.getRejectedCount());
+        List<Recipient> recipients = recipientRepository.findByCampaignId(created.getId());
+        assertTrue(recipients.stream().anyMatch(r -> "Ann@example.com".equals(r.getEmail())
+                && "Europe/Paris".equals(r.getTimezone())));
+        assertTrue(recipients.stream().anyMatch(r -> "+15550100100".equals(r.getPhone())));
+
+        String report = restTemplate.getForObject(
+                "/campaigns/" + created.getId() + "/rejections?tenantId=" + tenantId, String.class);
+        String[] lines = report.strip().split("\r?\n");
+        assertEquals("recordNumber,recipientId,reason,value", lines[0]);
+        assertEquals("2,R2,INVALID_EMAIL,not-an-email", lines[1]);
+        assertEquals("4,R4,INVALID_PHONE,555-0100", lines[2]);
+        assertEquals("5,,MISSING_RECIPIENT_ID,", lines[3]);
+        assertEquals("6,R6,INVALID_TIMEZONE,Mars/Olympus", lines[4]);
+    }
+
+    @Test
+    @DisplayName("IT: GET /campaigns with limit walks all campaigns by cursor without duplicates")
+    void listCampaignsByCursor() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        for (int i = 0; i < 5; i++) {
+            restTemplate.exchange("/campaigns?tenantId=" + tenantId + "&name=C" + i
+                    + "&channel=email&messageTemplate=Hi&scheduledAt=2099-01-01T00:00:00Z",
+                    HttpMethod.POST, new HttpEntity<>("recipientId\nR1".getBytes(), headers), String.class);
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<CampaignResponse> page = restTemplate.exchange(
+                    "/campaigns?tenantId=" + tenantId + "&limit=2" + (cursor != null ? "&cursor=" + cursor : ""),
+                    HttpMethod.GET, null, new ParameterizedTypeReference<ApiResponse<CursorPage<CampaignResponse>>>() {
+                    }).getBody().getData();
+            page.getContent().forEach(c -> assertTrue(seen.add(c.getId()), "duplicate " + c.getId()));
+            assertTrue(page.getContent().stream().allMatch(c -> c.getTotalRecipients() == 1));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, seen.size());
+        assertEquals(3, pages);
+    }
+
     @Test
     @DisplayName("IT: POST /campaigns with unknown tenant should return 404")
     void createCampaignUnknownTenant() {
@@ -0,0 +1,105 @@
+package com.example.campaignserver.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        DataSource replica = database("replica");
+        monitor = new ReplicaLagMonitor(replica, new ReplicaProperties());
+        wire(new ReplicaRoutingDataSource(primary, replica, monitor));
+    }
+
+    @Test
+    void readOnlyTransactionsUseFreshReplica() {
+        monitor.record(Duration.ofMillis(200));
+
+        assertThat(inTransaction(readOnly)).isEqualTo("replica");
+        assertThat(inTransaction(readWrite)).isEqualTo("primary");
+        assertThat(server()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingOrUncheckedReplicaFallsBackToPrimary() {
+        assertThat(inTransaction(readOnly)).isEqualTo("primary");
+
+        monitor.record(Duration.ofSeconds(30));
+        assertThat(inTransaction(readOnly)).isEqualTo("primary");
+
+        monitor.record(Duration.ZERO);
+        assertThat(inTransaction(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        DataSource broken = new DriverManagerDataSource() {
+            @Override
+            public java.sql.Connection getConnection() throws SQLException {
+                throw new SQLException("replica down");
+            }
+        };
+        wire(new ReplicaRoutingDataSource(primary, broken, monitor));
+        monitor.record(Duration.ZERO);
+
+        assertThat(inTransaction(readOnly)).isEqualTo("primary");
+        assertThat(monitor.isUsable()).isFalse();
+    }
+
+    @Test
+    void failedLagCheckMarksReplicaUnusable() {
+        monitor.record(Duration.ZERO);
+
+        // H2 has no pg_is_in_recovery()
+        monitor.check();
+
+        assertThat(monitor.isUsable()).isFalse();
+        assertThat(monitor.getLagMillis()).isEqualTo(-1);
+    }
+
+    private void wire(ReplicaRoutingDataSource routing) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String inTransaction(TransactionTemplate template) {
+        return template.execute(status -> server());
+    }
+
+    private String server() {
+        return jdbc.queryForObject("SELECT name FROM server", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS server (name VARCHAR(16))");
+        jdbc.update("DELETE FROM server");
+        jdbc.update("INSERT INTO server VALUES (?)", name);
+        return dataSource;
+    }
+}
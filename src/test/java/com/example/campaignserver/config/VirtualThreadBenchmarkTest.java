@@ -0,0 +1,115 @@
+package com.example.campaignserver.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares platform-thread and virtual-thread execution on the server's
+ * typical blocking mix: a short query on a 20-connection pool followed by a
+ * provider call. Run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmarkTest {
+
+    private static final int TASKS = 5_000;
+    private static final int POOL_SIZE = 20;
+    private static final Duration PROVIDER_LATENCY = Duration.ofMillis(20);
+
+    private HikariDataSource hikari;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:vt_benchmark;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        hikari = new HikariDataSource(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    @DisplayName("Virtual threads outperform the platform pool on blocking JDBC + provider work")
+    void compareModes() throws InterruptedException {
+        // Warm up the pool and JIT
+        run(platformExecutor(), hikari, 500);
+        run(virtualExecutor(), new ConnectionLimitingDataSource(hikari, POOL_SIZE, Duration.ofSeconds(30)), 500);
+
+        double platform = run(platformExecutor(), hikari, TASKS);
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(hikari, POOL_SIZE,
+                Duration.ofSeconds(30));
+        double virtual = run(virtualExecutor(), limited, TASKS);
+
+        System.out.printf("platform (64 threads): %,.0f tasks/s%n", platform);
+        System.out.printf("virtual (20 connection permits): %,.0f tasks/s%n", virtual);
+
+        assertEquals(POOL_SIZE, limited.availablePermits(), "every connection permit was returned");
+        assertTrue(virtual > platform, "virtual " + virtual + " vs platform " + platform);
+    }
+
+    /**
+     * @return completed tasks per second
+     */
+    private static double run(TaskExecutor executor, DataSource dataSource, int tasks) throws InterruptedException {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    jdbc.queryForObject("SELECT 1", Integer.class);
+                    Thread.sleep(PROVIDER_LATENCY);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+        assertEquals(0, failures.get());
+        return tasks / seconds;
+    }
+
+    private static TaskExecutor platformExecutor() {
+        // Same shape as the default dispatchExecutor
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(64);
+        executor.setMaxPoolSize(64);
+        executor.initialize();
+        return executor;
+    }
+
+    private static TaskExecutor virtualExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("bench-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final DispatchProperties.Limiter config = new DispatchProperties.Limiter();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+    @Test
+    @DisplayName("Limit grows additively while saturated and fast")
+    void growsWhenHealthy() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) {
+                limiter.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.onSuccess(1_000_000L);
+            }
+        }
+        assertTrue(limiter.getLimit() > config.getInitialLimit(), "limit: " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= config.getMaxLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Overload cuts the limit multiplicatively down to the minimum")
+    void shrinksOnOverload() throws InterruptedException {
+        limiter.acquire();
+        limiter.onOverload();
+        assertEquals((int) (config.getInitialLimit() * config.getBackoffRatio()), limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.onOverload();
+        }
+        assertEquals(config.getMinLimit(), limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Sends far slower than the baseline count as overload")
+    void slowSendsShrinkLimit() throws InterruptedException {
+        limiter.acquire();
+        limiter.onSuccess(5_000_000L);
+        int before = limiter.getLimit();
+
+        limiter.acquire();
+        limiter.onSuccess(200_000_000L);
+        assertTrue(limiter.getLimit() < before);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final DispatchProperties.Breaker config = new DispatchProperties.Breaker();
+    private final CircuitBreaker breaker = new CircuitBreaker(config, clock::get);
+
+    @Test
+    @DisplayName("Opens past the failure threshold, probes after the open window, then closes")
+    void opensProbesAndCloses() {
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+
+        clock.addAndGet(config.getOpenDuration().plus(Duration.ofMillis(1)).toNanos());
+        for (int i = 0; i < config.getHalfOpenProbes(); i++) {
+            assertTrue(breaker.tryAcquirePermission());
+        }
+        assertFalse(breaker.tryAcquirePermission(), "only the configured number of probes pass");
+
+        for (int i = 0; i < config.getHalfOpenProbes(); i++) {
+            breaker.onSuccess();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    @Test
+    @DisplayName("A failed probe reopens the breaker")
+    void failedProbeReopens() {
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            breaker.onFailure();
+        }
+        clock.addAndGet(config.getOpenDuration().toNanos());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Reports the wait until a send is permitted without taking a probe")
+    void reportsWaitUntilPermitted() {
+        assertEquals(0, breaker.nanosUntilPermitted());
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            breaker.onFailure();
+        }
+        assertEquals(config.getOpenDuration().toNanos(), breaker.nanosUntilPermitted());
+
+        clock.addAndGet(config.getOpenDuration().toNanos());
+        assertEquals(0, breaker.nanosUntilPermitted());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "asking does not start probing");
+
+        for (int i = 0; i < config.getHalfOpenProbes(); i++) {
+            assertTrue(breaker.tryAcquirePermission());
+        }
+        assertEquals(Long.MAX_VALUE, breaker.nanosUntilPermitted());
+    }
+
+    @Test
+    @DisplayName("Stays closed below the failure threshold")
+    void staysClosedBelowThreshold() {
+        for (int i = 0; i < 100; i++) {
+            breaker.onSuccess();
+            breaker.onSuccess();
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
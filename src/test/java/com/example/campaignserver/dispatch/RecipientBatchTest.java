@@ -0,0 +1,88 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.provider.ProviderResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientBatchTest {
+
+    private final UUID campaignId = UUID.randomUUID();
+    private final UUID tenantId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Rows round-trip through the column arrays")
+    void storesColumns() {
+        RecipientBatch batch = new RecipientBatchPool().acquire(campaignId, tenantId, 4);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        batch.add(first, "a@b.com", "Europe/Paris");
+        batch.add(second, "+15550100", null);
+
+        assertEquals(2, batch.size());
+        assertEquals(campaignId, batch.getCampaignId());
+        assertEquals(tenantId, batch.getTenantId());
+        assertEquals(first, batch.recipientId(0));
+        assertEquals("+15550100", batch.destination(1));
+        assertEquals("Europe/Paris", batch.timezone(0));
+        assertNull(batch.timezone(1));
+        assertNull(batch.response(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.destination(2));
+    }
+
+    @Test
+    @DisplayName("Encoded rows read back into another batch unchanged")
+    void encodeRoundTrip() {
+        RecipientBatchPool pool = new RecipientBatchPool();
+        RecipientBatch batch = pool.acquire(campaignId, tenantId, 4);
+        UUID first = UUID.randomUUID();
+        batch.add(first, "a@b.com", "Asia/Tokyo");
+        batch.add(UUID.randomUUID(), "+15550100", null);
+
+        RecipientBatch decoded = pool.acquire(campaignId, tenantId, 4);
+        decoded.addEncoded(batch.encode());
+
+        assertEquals(2, decoded.size());
+        assertEquals(first, decoded.recipientId(0));
+        assertEquals("a@b.com", decoded.destination(0));
+        assertEquals("Asia/Tokyo", decoded.timezone(0));
+        assertEquals(batch.recipientId(1), decoded.recipientId(1));
+        assertNull(decoded.timezone(1));
+        assertThrows(IllegalStateException.class,
+                () -> pool.acquire(campaignId, tenantId, 1).addEncoded(batch.encode()));
+    }
+
+    @Test
+    @DisplayName("A full batch rejects further rows")
+    void rejectsOverflow() {
+        RecipientBatch batch = new RecipientBatchPool().acquire(campaignId, tenantId, 1);
+        batch.add(UUID.randomUUID(), "a@b.com", "UTC");
+
+        assertThrows(IllegalStateException.class, () -> batch.add(UUID.randomUUID(), "c@d.com", "UTC"));
+    }
+
+    @Test
+    @DisplayName("Released batches are reused empty, and undersized ones are replaced")
+    void poolRecyclesBatches() {
+        RecipientBatchPool pool = new RecipientBatchPool();
+        RecipientBatch batch = pool.acquire(campaignId, tenantId, 8);
+        batch.add(UUID.randomUUID(), "a@b.com", "UTC");
+        batch.responses[0] = new ProviderResponse(true, null);
+        pool.release(batch);
+        assertEquals(1, pool.pooled());
+
+        UUID otherCampaign = UUID.randomUUID();
+        RecipientBatch reused = pool.acquire(otherCampaign, tenantId, 8);
+        assertSame(batch, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(otherCampaign, reused.getCampaignId());
+        pool.release(reused);
+
+        RecipientBatch larger = pool.acquire(campaignId, tenantId, 16);
+        assertNotSame(batch, larger);
+        assertEquals(16, larger.capacity());
+    }
+}
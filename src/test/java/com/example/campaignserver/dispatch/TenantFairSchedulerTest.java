@@ -0,0 +1,105 @@
+package com.example.campaignserver.dispatch;
+
+import com.example.campaignserver.config.DispatchProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantFairSchedulerTest {
+
+    private final UUID big = UUID.randomUUID();
+    private final UUID small = UUID.randomUUID();
+
+    @Test
+    @DisplayName("A newly active tenant is served within one round")
+    void newTenantStartsWithinOneRound() {
+        TenantFairScheduler<String> scheduler = new TenantFairScheduler<>(1_000);
+        scheduler.add(big, 8, "blast");
+
+        // The big tenant has been sending alone for a while
+        for (int i = 0; i < 5; i++) {
+            TenantFairScheduler.Turn<String> turn = scheduler.nextTurn();
+            scheduler.complete(turn, turn.budget(), false);
+        }
+
+        scheduler.add(small, 1, "reset");
+        TenantFairScheduler.Turn<String> first = scheduler.nextTurn();
+        scheduler.complete(first, first.budget(), false);
+        TenantFairScheduler.Turn<String> second = scheduler.nextTurn();
+
+        assertEquals(small, second.tenantId());
+        assertEquals("reset", second.work());
+    }
+
+    @Test
+    @DisplayName("Budget is proportional to weight")
+    void weightedShares() {
+        TenantFairScheduler<String> scheduler = new TenantFairScheduler<>(100);
+        scheduler.add(big, 4, "a");
+        scheduler.add(small, 1, "b");
+
+        Map<UUID, Long> sent = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            TenantFairScheduler.Turn<String> turn = scheduler.nextTurn();
+            sent.merge(turn.tenantId(), turn.budget(), Long::sum);
+            scheduler.complete(turn, turn.budget(), false);
+        }
+        assertEquals(4.0, (double) sent.get(big) / sent.get(small), 0.01);
+    }
+
+    @Test
+    @DisplayName("Unused budget carries over; finished work leaves the ring")
+    void deficitAndCompletion() {
+        TenantFairScheduler<String> scheduler = new TenantFairScheduler<>(100);
+        scheduler.add(big, 1, "a1");
+        scheduler.add(big, 1, "a2");
+
+        TenantFairScheduler.Turn<String> turn = scheduler.nextTurn();
+        assertEquals("a1", turn.work());
+        scheduler.complete(turn, 40, false);
+
+        turn = scheduler.nextTurn();
+        assertEquals("a2", turn.work(), "campaigns of a tenant are served round robin");
+        assertEquals(160, turn.budget());
+        scheduler.complete(turn, 10, true);
+
+        turn = scheduler.nextTurn();
+        assertEquals("a1", turn.work());
+        scheduler.complete(turn, 0, true);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A skipped turn moves on without adding to the tenant's deficit")
+    void skippedTurnKeepsDeficit() {
+        TenantFairScheduler<String> scheduler = new TenantFairScheduler<>(100);
+        scheduler.add(big, 1, "a1");
+        scheduler.add(big, 1, "a2");
+        scheduler.add(small, 1, "b");
+
+        TenantFairScheduler.Turn<String> turn = scheduler.nextTurn();
+        scheduler.complete(turn, 60, false);
+        scheduler.skip(scheduler.nextTurn());
+
+        turn = scheduler.nextTurn();
+        assertEquals(big, turn.tenantId());
+        assertEquals("a2", turn.work(), "the tenant's next campaign is up");
+        assertEquals(140, turn.budget());
+    }
+
+    @Test
+    @DisplayName("Weights derive from the tenant's monthly message limit")
+    void weightFromLimits() {
+        DispatchProperties.Fairness fairness = new DispatchProperties.Fairness();
+        assertEquals(1, fairness.weightFor(null));
+        assertEquals(1, fairness.weightFor(10_000));
+        assertEquals(1, fairness.weightFor(1_000_000));
+        assertEquals(5, fairness.weightFor(5_000_000));
+        assertEquals(8, fairness.weightFor(Integer.MAX_VALUE));
+    }
+}
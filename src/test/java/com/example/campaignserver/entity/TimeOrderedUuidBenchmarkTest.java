@@ -0,0 +1,83 @@
+package com.example.campaignserver.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads the same number of recipient-shaped rows keyed by random v4 and by
+ * time-ordered v7 UUIDs into Postgres, then compares insert throughput and
+ * primary key index size. Needs Docker; run with
+ * {@code gradle benchmark -Dbenchmark.rows=5000000}.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class TimeOrderedUuidBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int BATCH_SIZE = 5_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            // Small buffer pool so the index outgrows memory the way it does in production
+            .withCommand("postgres", "-c", "shared_buffers=64MB", "-c", "synchronous_commit=off");
+
+    @Test
+    @DisplayName("v7 ids load faster and build a smaller primary key index than v4 ids")
+    void compareRandomAndTimeOrdered() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl() + "&reWriteBatchedInserts=true", POSTGRES.getUsername(),
+                POSTGRES.getPassword()));
+
+        Result v4 = load(jdbc, "recipient_v4", UUID::randomUUID);
+        Result v7 = load(jdbc, "recipient_v7", TimeOrderedUuidGenerator::next);
+
+        System.out.printf("%,d rows%n", ROWS);
+        System.out.printf("v4: %,.0f rows/s, pkey %,d MB%n", v4.rowsPerSecond(), v4.indexBytes() >> 20);
+        System.out.printf("v7: %,.0f rows/s, pkey %,d MB%n", v7.rowsPerSecond(), v7.indexBytes() >> 20);
+
+        // Right-edge appends leave leaves ~90% full; random inserts settle around 70%
+        assertTrue(v7.indexBytes() < v4.indexBytes());
+    }
+
+    private static Result load(JdbcTemplate jdbc, String table, Supplier<UUID> ids) {
+        jdbc.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, campaign_id uuid NOT NULL, "
+                + "recipient_ref varchar(255) NOT NULL, email varchar(255))");
+        UUID campaignId = TimeOrderedUuidGenerator.next();
+        String sql = "INSERT INTO " + table + " (id, campaign_id, recipient_ref, email) VALUES (?, ?, ?, ?)";
+
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Object[]{ids.get(), campaignId, "R" + i, "user" + i + "@example.com"});
+            if (batch.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Long indexBytes = jdbc.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class,
+                table + "_pkey");
+        assertEquals(ROWS, jdbc.queryForObject("SELECT count(*) FROM " + table, Integer.class));
+        return new Result(ROWS / seconds, indexBytes);
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {
+    }
+}
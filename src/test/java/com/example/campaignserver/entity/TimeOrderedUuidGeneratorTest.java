@@ -0,0 +1,67 @@
+package com.example.campaignserver.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("Generated ids are RFC 9562 version 7 with the IETF variant")
+    void versionAndVariant() {
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    @DisplayName("Embedded timestamp is the generation time in epoch millis")
+    void embedsTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        long millis = TimeOrderedUuidGenerator.epochMillis(id);
+        assertTrue(millis >= before && millis <= after);
+    }
+
+    @Test
+    @DisplayName("Ids sort by time first, then sub-millisecond fraction, regardless of random bits")
+    void sortsByTime() {
+        long ms = 1_700_000_000_000L;
+        UUID early = TimeOrderedUuidGenerator.of(ms, 999_999, -1L);
+        UUID later = TimeOrderedUuidGenerator.of(ms + 1, 0, 0L);
+        UUID sameMsEarly = TimeOrderedUuidGenerator.of(ms, 100_000, -1L);
+        UUID sameMsLater = TimeOrderedUuidGenerator.of(ms, 600_000, 0L);
+
+        // Timestamps stay below 2^47 until the year 6429, so signed compare of the high word is safe
+        assertTrue(early.compareTo(later) < 0);
+        assertTrue(sameMsEarly.compareTo(sameMsLater) < 0);
+        assertEquals(ms, TimeOrderedUuidGenerator.epochMillis(sameMsLater));
+    }
+
+    @Test
+    @DisplayName("Ids generated after a floor sort above it even when the clock is behind it")
+    void nextAfterStepsPastFloor() {
+        // An hour ahead of this node's clock, at the last sub-millisecond step
+        UUID floor = TimeOrderedUuidGenerator.of(System.currentTimeMillis() + 3_600_000L, 999_999, -1L);
+
+        UUID previous = floor;
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = TimeOrderedUuidGenerator.nextAfter(previous);
+            assertTrue(TimeOrderedUuidGenerator.compare(id, previous) > 0);
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            previous = id;
+        }
+
+        UUID past = TimeOrderedUuidGenerator.of(1_700_000_000_000L, 0, 0L);
+        assertTrue(TimeOrderedUuidGenerator.epochMillis(TimeOrderedUuidGenerator.nextAfter(past))
+                > 1_700_000_000_000L, "a floor in the past gets a fresh id");
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.campaignserver.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedJournalTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Records are read back in order across segment boundaries")
+    void appendAndReadAcrossSegments() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            for (long i = 0; i < 100; i++) {
+                journal.append(record(i));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            List<Long> values = new ArrayList<>();
+            long offset = journal.read(0, 60, (o, payload) -> values.add(payload.getLong(0)));
+            assertEquals(60, values.size());
+            offset = journal.read(offset, 1000, (o, payload) -> values.add(payload.getLong(0)));
+            assertEquals(100, values.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, values.get(i));
+            }
+            assertEquals(offset, journal.read(offset, 1000, (o, payload) -> fail("nothing left to read")));
+
+            // Offset records are stepped over, never handed to readers
+            journal.commit("checkpoint", offset);
+            assertTrue(journal.read(offset, 1000, (o, payload) -> fail("offset record read as data")) > offset);
+        }
+    }
+
+    @Test
+    @DisplayName("Committed consumer offsets survive reopening and consumed segments are deleted")
+    void committedOffsetIsRecovered() throws IOException {
+        long committed;
+        try (SegmentedJournal journal = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            for (long i = 0; i < 100; i++) {
+                journal.append(record(i));
+            }
+            int segments = journal.segmentCount();
+            committed = journal.read(0, 80, (o, payload) -> {
+            });
+            journal.commit("checkpoint", committed);
+            assertTrue(journal.segmentCount() < segments);
+            assertTrue(journal.startOffset() > 0);
+        }
+
+        try (SegmentedJournal reopened = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(committed, reopened.committedOffset("checkpoint"));
+            assertEquals(reopened.startOffset(), reopened.committedOffset("other"));
+            List<Long> rest = new ArrayList<>();
+            reopened.read(committed, 1000, (o, payload) -> rest.add(payload.getLong(0)));
+            assertEquals(List.of(80L, 81L), rest.subList(0, 2));
+            assertEquals(20, rest.size());
+
+            // Appends continue after the recovered end
+            reopened.append(record(100));
+            List<Long> appended = new ArrayList<>();
+            reopened.read(committed, 1000, (o, payload) -> appended.add(payload.getLong(0)));
+            assertEquals(100L, appended.get(appended.size() - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("A torn record at the tail is cut off on reopen")
+    void tornTailIsTruncated() throws IOException {
+        long tornOffset;
+        try (SegmentedJournal journal = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            journal.append(record(1));
+            tornOffset = journal.append(record(2));
+        }
+        // Corrupt the last record's payload, as if the write never completed
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 42 }), tornOffset + SegmentedJournal.HEADER_BYTES);
+        }
+
+        try (SegmentedJournal reopened = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(tornOffset, reopened.endOffset());
+            reopened.append(record(3));
+            List<Long> values = new ArrayList<>();
+            reopened.read(0, 10, (o, payload) -> values.add(payload.getLong(0)));
+            assertEquals(List.of(1L, 3L), values);
+        }
+    }
+
+    @Test
+    @DisplayName("Records larger than a segment are refused")
+    void oversizedRecordIsRejected() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(directory, SEGMENT_BYTES)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[SEGMENT_BYTES]));
+            assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[0]));
+        }
+    }
+
+    private static byte[] record(long value) {
+        // Odd size so records do not line up with segment ends
+        return ByteBuffer.allocate(40).putLong(value).array();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.campaignserver.logging;
+
+import com.example.campaignserver.config.DeliveryLogProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryLogTest {
+
+    private final List<String> events = new ArrayList<>();
+    private final List<String> summaries = new ArrayList<>();
+
+    private final DeliveryLog.Sink sink = new DeliveryLog.Sink() {
+        @Override
+        public void event(String json) {
+            events.add(json);
+        }
+
+        @Override
+        public void summary(String json, boolean failures) {
+            summaries.add(json);
+        }
+    };
+
+    @Test
+    @DisplayName("Ring drains events in order and rejects offers while full")
+    void ringIsBounded() {
+        DeliveryEventRing ring = new DeliveryEventRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, "EMAIL", "d" + i, true, null));
+        }
+        assertFalse(ring.offer(4, "EMAIL", "d4", true, null));
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(4, ring.drain((ts, channel, destination, success, errorCode) -> drained.add(destination), 10));
+        assertEquals(List.of("d0", "d1", "d2", "d3"), drained);
+        assertTrue(ring.offer(5, "EMAIL", "d5", true, null));
+    }
+
+    @Test
+    @DisplayName("Ring keeps every event from concurrent producers")
+    void ringConcurrentProducers() throws InterruptedException {
+        DeliveryEventRing ring = new DeliveryEventRing(1 << 16);
+        int threads = 8;
+        int perThread = 5000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ring.offer(i, "SMS", "x", true, null);
+                }
+                done.countDown();
+            });
+        }
+        long[] drained = { 0 };
+        while (done.getCount() > 0 || !ring.isEmpty()) {
+            drained[0] += ring.drain((ts, channel, destination, success, errorCode) -> { }, 1024);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(threads * perThread, drained[0]);
+    }
+
+    @Test
+    @DisplayName("Successes are sampled, failures summarized per channel and error code")
+    void samplesSuccessesAndAggregatesFailures() {
+        DeliveryLogProperties properties = new DeliveryLogProperties();
+        properties.setSuccessSamplesPerSecond(3);
+        DeliveryLog log = new DeliveryLog(properties, sink);
+
+        for (int i = 0; i < 100; i++) {
+            log.record("EMAIL", "user" + i + "@example.com", true, null);
+        }
+        for (int i = 0; i < 7; i++) {
+            log.record("SMS", "+1555010010" + i, false, "RATE_LIMITED");
+        }
+        log.record("SMS", "+15550100200", false, "PROVIDER_FAILURE");
+
+        log.writeOnce(System.nanoTime() + properties.getSummaryInterval().toNanos());
+
+        assertEquals(3, events.size());
+        assertTrue(events.get(0).startsWith("{\"event\":\"delivery.sent\""));
+        assertTrue(events.get(0).contains("\"destination\":\"user0@example.com\""));
+
+        assertEquals(3, summaries.size());
+        assertTrue(summaries.get(0).contains("\"errorCode\":\"PROVIDER_FAILURE\",\"count\":1"));
+        assertTrue(summaries.get(1).contains("\"errorCode\":\"RATE_LIMITED\",\"count\":7"));
+        assertTrue(summaries.get(2).contains("\"sent\":{\"EMAIL\":100},\"dropped\":0"));
+    }
+
+    @Test
+    @DisplayName("Failures dropped on a full buffer still appear in the summary")
+    void overflowKeepsFailureCounts() {
+        DeliveryLogProperties properties = new DeliveryLogProperties();
+        properties.setBufferSize(4);
+        DeliveryLog log = new DeliveryLog(properties, sink);
+
+        for (int i = 0; i < 10; i++) {
+            log.record("PUSH", "device" + i, false, "PROVIDER_FAILURE");
+        }
+        log.writeOnce(System.nanoTime() + properties.getSummaryInterval().toNanos());
+
+        assertTrue(summaries.get(0).contains("\"count\":10"));
+        assertTrue(summaries.get(1).contains("\"dropped\":6"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.campaignserver.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are reported within the bucket precision")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertWithin(5_000, histogram.percentileMicros(50.0));
+        assertWithin(9_900, histogram.percentileMicros(99.0));
+        assertEquals(10_000, histogram.percentileMicros(100.0));
+    }
+
+    @Test
+    @DisplayName("Every value maps into a bucket whose upper bound is not below it")
+    void bucketBounds() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 1_000, 123_456_789L, Long.MAX_VALUE / 2}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+            if (index < LatencyHistogram.BUCKETS - 1) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Encoding keeps every count and the max, in a few bytes per bucket")
+    void encodeRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 0; micros < 50_000; micros += 7) {
+            histogram.recordMicros(micros);
+        }
+        histogram.recordMicros(3_600_000_000L);
+
+        byte[] encoded = histogram.encode();
+        LatencyHistogram decoded = LatencyHistogram.decode(encoded);
+
+        assertTrue(encoded.length < 1024, "encoded " + encoded.length + " bytes");
+        assertEquals(histogram.getTotalCount(), decoded.getTotalCount());
+        assertEquals(histogram.getMaxMicros(), decoded.getMaxMicros());
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            assertEquals(histogram.bucketCount(i), decoded.bucketCount(i));
+        }
+        assertEquals(0, LatencyHistogram.decode(null).getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Adding histograms merges counts and max")
+    void add() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.recordMicros(100);
+        b.recordMicros(900);
+
+        a.add(b);
+        assertEquals(2, a.getTotalCount());
+        assertEquals(900, a.getMaxMicros());
+    }
+
+    private void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.07, "expected ~" + expected + " but was " + actual);
+    }
+}
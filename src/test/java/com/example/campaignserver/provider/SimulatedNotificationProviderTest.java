@@ -0,0 +1,113 @@
+package com.example.campaignserver.provider;
+
+import com.example.campaignserver.config.SimulatorProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedNotificationProviderTest {
+
+    @Test
+    @DisplayName("Same seed gives the same outcome sequence")
+    void seededRunsAreReproducible() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setSeed(7L);
+        properties.setFailureRate(0.5);
+
+        assertEquals(outcomes(new SimulatedNotificationProvider(properties)),
+                outcomes(new SimulatedNotificationProvider(properties)));
+    }
+
+    @Test
+    @DisplayName("Seeded outcomes do not depend on which thread sends")
+    void seededRunsAreReproducibleAcrossThreads() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setSeed(7L);
+        properties.setFailureRate(0.5);
+
+        Map<String, Boolean> sequential = new HashMap<>();
+        SimulatedNotificationProvider single = new SimulatedNotificationProvider(properties);
+        for (int i = 0; i < 200; i++) {
+            sequential.put("user" + i + "@example.com", single.send("EMAIL", "user" + i + "@example.com", "hi")
+                    .isSuccess());
+        }
+
+        Map<String, Boolean> concurrent = new ConcurrentHashMap<>();
+        SimulatedNotificationProvider pooled = new SimulatedNotificationProvider(properties);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 199; i >= 0; i--) {
+                String destination = "user" + i + "@example.com";
+                executor.execute(() -> concurrent.put(destination,
+                        pooled.send("EMAIL", destination, "hi").isSuccess()));
+            }
+        }
+        assertEquals(sequential, concurrent);
+        assertTrue(sequential.containsValue(true) && sequential.containsValue(false));
+    }
+
+    @Test
+    @DisplayName("Sends above the channel ceiling are rate limited")
+    void throughputCeiling() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setFailureRate(0.0);
+        SimulatorProperties.Channel sms = new SimulatorProperties.Channel();
+        sms.setThroughputPerSecond(1);
+        sms.setBurstCapacity(3);
+        properties.getChannels().put("SMS", sms);
+        SimulatedNotificationProvider provider = new SimulatedNotificationProvider(properties);
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (provider.send("SMS", "+15550000000", "hi").isSuccess()) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted >= 3 && accepted <= 4, "accepted: " + accepted);
+        assertEquals("RATE_LIMITED", provider.send("SMS", "+15550000000", "hi").getErrorCode());
+        assertTrue(provider.send("EMAIL", "a@b.com", "hi").isSuccess(), "other channels are unaffected");
+    }
+
+    @Test
+    @DisplayName("Burst window raises the failure rate")
+    void burstWindow() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setFailureRate(0.0);
+        properties.getBurst().setEnabled(true);
+        properties.getBurst().setPeriod(Duration.ofHours(1));
+        properties.getBurst().setDuration(Duration.ofHours(1));
+        properties.getBurst().setFailureRate(1.0);
+
+        ProviderResponse response = new SimulatedNotificationProvider(properties).send("PUSH", "device", "hi");
+        assertFalse(response.isSuccess());
+        assertEquals("PROVIDER_FAILURE", response.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Fixed latency delays each send")
+    void fixedLatency() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getLatency().setMean(Duration.ofMillis(30));
+
+        long start = System.nanoTime();
+        new SimulatedNotificationProvider(properties).send("EMAIL", "a@b.com", "hi");
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(30).toNanos());
+    }
+
+    private List<Boolean> outcomes(SimulatedNotificationProvider provider) {
+        List<Boolean> outcomes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            outcomes.add(provider.send("EMAIL", "a@b.com", "hi").isSuccess());
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.AdmissionProperties;
+import com.example.campaignserver.dispatch.DispatchLane;
+import com.example.campaignserver.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final AdmissionController admission = new AdmissionController(properties, null, null);
+
+    @Test
+    @DisplayName("Admits everything before the first sample")
+    void admitsBeforeFirstSample() {
+        assertDoesNotThrow(() -> admission.admit(DispatchLane.BULK, Long.MAX_VALUE / 2).close());
+    }
+
+    @Test
+    @DisplayName("Deep outbox rejects only its own lane, with Retry-After from the drain rate")
+    void outboxDepthPerLane() {
+        // 210 bulk events open, 5 finished per second over the last samples
+        sample(Map.of(DispatchLane.BULK, 210L), Map.of(DispatchLane.BULK, 5L), 0, 0, 1.0);
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit(DispatchLane.BULK, 0));
+        // 11 events over budget at 5/s
+        assertEquals(Duration.ofSeconds(3), rejected.getRetryAfter());
+        assertTrue(rejected.getMessage().contains("BULK outbox depth 210"));
+
+        assertDoesNotThrow(() -> admission.admit(DispatchLane.TRANSACTIONAL, 0).close());
+    }
+
+    @Test
+    @DisplayName("Retry-After is clamped to the configured bounds")
+    void retryAfterIsClamped() {
+        sample(Map.of(DispatchLane.BULK, 1_000_000L), Map.of(), 0, 0, 1.0);
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit(DispatchLane.BULK, 0));
+        assertEquals(properties.getMaxRetryAfter(), rejected.getRetryAfter());
+    }
+
+    @Test
+    @DisplayName("In-flight upload bytes count against the ingest budget until the permit closes")
+    void ingestBytes() throws IOException {
+        properties.budgetFor("BULK").setMaxIngestBytes(100);
+        sample(Map.of(), Map.of(), 0, 0, 1.0);
+
+        AdmissionController.Permit first = admission.admit(DispatchLane.BULK, 0);
+        try (InputStream in = first.track(new ByteArrayInputStream(new byte[80]))) {
+            in.readAllBytes();
+        }
+        assertEquals(80, admission.getInFlightBytes());
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit(DispatchLane.BULK, 30));
+
+        first.close();
+        assertEquals(0, admission.getInFlightBytes());
+        assertDoesNotThrow(() -> admission.admit(DispatchLane.BULK, 30).close());
+    }
+
+    @Test
+    @DisplayName("A saturated connection pool rejects bulk before transactional")
+    void poolSaturation() {
+        sample(Map.of(), Map.of(), 9, 10, 1.0);
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit(DispatchLane.BULK, 0));
+        assertTrue(rejected.getMessage().contains("connection pool 9/10"));
+        assertDoesNotThrow(() -> admission.admit(DispatchLane.TRANSACTIONAL, 0).close());
+    }
+
+    private void sample(Map<DispatchLane, Long> depth, Map<DispatchLane, Long> finished,
+            int poolActive, int poolMax, double elapsedSeconds) {
+        admission.record(depth, finished, 0, poolActive, poolMax, 0, elapsedSeconds);
+    }
+}
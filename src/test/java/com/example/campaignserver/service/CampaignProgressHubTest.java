@@ -0,0 +1,152 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.ProgressProperties;
+import com.example.campaignserver.dto.response.CampaignProgressEvent;
+import com.example.campaignserver.dto.response.CampaignResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignProgressHubTest {
+
+    private final CampaignProgressHub hub = new CampaignProgressHub(new ProgressProperties());
+    private final UUID campaignId = UUID.randomUUID();
+    private final AtomicInteger baselineLoads = new AtomicInteger();
+
+    /** Captures sent events instead of writing to a response. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<CampaignProgressEvent> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(CampaignProgressEvent.class::isInstance)
+                    .forEach(d -> events.add((CampaignProgressEvent) d));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    // What the database holds, including other nodes' sends
+    private long remoteSent;
+    private String remoteStatus = "RUNNING";
+
+    private CampaignResponse baseline() {
+        baselineLoads.incrementAndGet();
+        return CampaignResponse.builder()
+                .id(campaignId)
+                .status(remoteStatus)
+                .totalRecipients(100)
+                .sentCount(remoteSent)
+                .pendingCount(100 - remoteSent)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Subscribers share one baseline load and receive one coalesced event per flush")
+    void coalescesDeltasForAllSubscribers() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        hub.subscribe(campaignId, this::baseline, first);
+        hub.subscribe(campaignId, this::baseline, second);
+        assertEquals(1, baselineLoads.get());
+
+        hub.recordDelta(campaignId, 10, 1, 2);
+        hub.recordDelta(campaignId, 5, 0, -1);
+        hub.flush();
+        hub.flush(); // nothing changed since: no event
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            assertEquals(2, emitter.events.size()); // snapshot + one progress event
+            CampaignProgressEvent progress = emitter.events.get(1);
+            assertEquals(15, progress.getSentDelta());
+            assertEquals(15, progress.getSentCount());
+            assertEquals(1, progress.getFailedCount());
+            assertEquals(1, progress.getDelayedCount());
+            assertEquals(83, progress.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Deltas for unwatched campaigns are ignored")
+    void ignoresUnwatchedCampaigns() {
+        hub.recordDelta(campaignId, 10, 0, 0);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(campaignId, this::baseline, emitter);
+        hub.flush();
+
+        assertEquals(1, emitter.events.size());
+        assertEquals(0, emitter.events.get(0).getSentCount());
+    }
+
+    @Test
+    @DisplayName("Completion is pushed, then streams are closed and the campaign is no longer tracked")
+    void completionClosesStreams() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(campaignId, this::baseline, emitter);
+
+        hub.recordStatus(campaignId, "COMPLETED");
+        hub.flush();
+
+        assertEquals("COMPLETED", emitter.events.get(1).getStatus());
+        assertTrue(emitter.completed);
+        assertEquals(0, hub.subscriberCount(campaignId));
+    }
+
+    @Test
+    @DisplayName("Changes committed while the baseline loads are not lost")
+    void changesDuringBaselineLoadAreKept() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(campaignId, () -> {
+            CampaignResponse loaded = baseline();
+            // Committed after the baseline was read
+            hub.recordDelta(campaignId, 7, 0, 0);
+            return loaded;
+        }, emitter);
+        hub.flush();
+
+        assertEquals(0, emitter.events.get(0).getSentCount());
+        assertEquals(7, emitter.events.get(1).getSentCount());
+    }
+
+    @Test
+    @DisplayName("Resyncs pick up other nodes' sends and completion")
+    void resyncReadsRemoteProgress() {
+        ProgressProperties properties = new ProgressProperties();
+        properties.setResyncInterval(Duration.ZERO);
+        CampaignProgressHub resyncing = new CampaignProgressHub(properties);
+        RecordingEmitter emitter = new RecordingEmitter();
+        resyncing.subscribe(campaignId, this::baseline, emitter);
+
+        // Sent elsewhere: nothing recorded on this node
+        remoteSent = 40;
+        resyncing.flush();
+        assertEquals(40, emitter.events.get(1).getSentCount());
+        assertEquals(40, emitter.events.get(1).getSentDelta());
+
+        resyncing.flush(); // nothing changed since: no event
+        assertEquals(2, emitter.events.size());
+
+        remoteSent = 100;
+        remoteStatus = "COMPLETED";
+        resyncing.flush();
+        assertEquals("COMPLETED", emitter.events.get(2).getStatus());
+        assertEquals(0, emitter.events.get(2).getPendingCount());
+        assertTrue(emitter.completed);
+        assertEquals(4, baselineLoads.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.IngestionProperties;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures what contact validation adds to parsing an upload, so it can be
+ * checked against CSV parsing, the cheapest stage of ingestion. Run with
+ * {@code gradle benchmark -Dbenchmark.rows=2000000}.
+ */
+@Tag("benchmark")
+class ContactValidatorBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+
+    private final ContactValidator validator = new ContactValidator(new IngestionProperties());
+
+    @Test
+    @DisplayName("Validation costs a fraction of CSV parsing per row")
+    void compareWithParsing() throws IOException {
+        String csv = generate(ROWS);
+
+        // Warm-up
+        parse(csv, false);
+        parse(csv, true);
+
+        long start = System.nanoTime();
+        int parsed = parse(csv, false);
+        double parseSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        int valid = parse(csv, true);
+        double validateSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%,d rows%n", ROWS);
+        System.out.printf("parse only:          %,.0f rows/s%n", parsed / parseSeconds);
+        System.out.printf("parse + validation:  %,.0f rows/s (%,d valid)%n", parsed / validateSeconds, valid);
+
+        assertEquals(ROWS, parsed);
+        // Every tenth row carries a bad email
+        assertEquals(ROWS - ROWS / 10, valid);
+    }
+
+    private int parse(String csv, boolean validate) throws IOException {
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).setTrim(true).build();
+        int count = 0;
+        try (CSVParser parser = new CSVParser(new StringReader(csv), format)) {
+            for (CSVRecord record : parser) {
+                if (!validate) {
+                    count++;
+                    continue;
+                }
+                if (validator.normalizeEmail(record.get("email")) != null
+                        && validator.normalizePhone(record.get("phone")) != null
+                        && validator.normalizeTimezone(record.get("timezone")) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String generate(int rows) {
+        String[] zones = { "UTC", "Europe/Paris", "america/new_york", "Asia/Tokyo", "+05:30" };
+        StringBuilder csv = new StringBuilder(rows * 64).append("recipientId,email,phone,timezone\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append('R').append(i).append(',')
+                    .append(i % 10 == 0 ? "broken.at.example.com" : "User" + i + "@Example.com").append(',')
+                    .append(i % 2 == 0 ? "+1 (555) 010-" : "+4420794").append(1000 + i % 9000).append(',')
+                    .append(zones[i % zones.length]).append('\n');
+        }
+        return csv.toString();
+    }
+}
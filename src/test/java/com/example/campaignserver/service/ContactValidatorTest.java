@@ -0,0 +1,73 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.IngestionProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactValidatorTest {
+
+    private final ContactValidator validator = new ContactValidator(new IngestionProperties());
+
+    @Test
+    @DisplayName("Well-formed emails pass, with the domain lower-cased")
+    void acceptsEmails() {
+        String plain = "first.last+tag@example.co.uk";
+        assertSame(plain, validator.normalizeEmail(plain));
+        assertEquals("Ann@example.com", validator.normalizeEmail("Ann@Example.COM"));
+        assertEquals("o'neil@xn--p1ai.xn--p1ai", validator.normalizeEmail("o'neil@xn--p1ai.xn--p1ai"));
+    }
+
+    @Test
+    @DisplayName("Malformed emails are rejected")
+    void rejectsEmails() {
+        for (String email : new String[] { "plain", "@example.com", "a@", "a@b", "a@@b.com", "a@b@c.com",
+                ".a@b.com", "a.@b.com", "a..b@c.com", "a b@c.com", "a@-b.com", "a@b-.com", "a@b..com",
+                "a@b.c", "a@b.123", "a@b.com.", "ä@b.com", "a@b_c.com" }) {
+            assertNull(validator.normalizeEmail(email), email);
+        }
+        assertNull(validator.normalizeEmail("x".repeat(65) + "@example.com"));
+    }
+
+    @Test
+    @DisplayName("International phone numbers are normalized to E.164")
+    void normalizesPhones() {
+        String e164 = "+15550100100";
+        assertSame(e164, validator.normalizePhone(e164));
+        assertEquals(e164, validator.normalizePhone("+1 (555) 010-0100"));
+        assertEquals("+442079460000", validator.normalizePhone("0044 20.7946.0000"));
+    }
+
+    @Test
+    @DisplayName("Phone numbers that cannot be E.164 are rejected")
+    void rejectsPhones() {
+        for (String phone : new String[] { "555-0100", "+0123456789", "+12345", "+1234567890123456",
+                "+1 555 CALL NOW", "+1-555-010-0100 ext 2" }) {
+            assertNull(validator.normalizePhone(phone), phone);
+        }
+    }
+
+    @Test
+    @DisplayName("National numbers take the configured calling code in place of the trunk prefix")
+    void appliesDefaultCallingCode() {
+        IngestionProperties properties = new IngestionProperties();
+        properties.setDefaultCallingCode("+44");
+        ContactValidator national = new ContactValidator(properties);
+
+        assertEquals("+442079460000", national.normalizePhone("020 7946 0000"));
+        assertEquals("+15550100100", national.normalizePhone("+1 555 010 0100"));
+    }
+
+    @Test
+    @DisplayName("Timezones resolve to canonical region ids or offsets")
+    void normalizesTimezones() {
+        assertEquals("Europe/Paris", validator.normalizeTimezone("Europe/Paris"));
+        assertEquals("America/New_York", validator.normalizeTimezone("america/new_york"));
+        assertEquals("UTC", validator.normalizeTimezone("UTC"));
+        assertEquals("+02:00", validator.normalizeTimezone("+02:00"));
+        assertEquals("UTC+02:00", validator.normalizeTimezone("UTC+2"));
+        assertNull(validator.normalizeTimezone("Mars/Olympus"));
+        assertNull(validator.normalizeTimezone("+25:00"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.campaignserver.service;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientStreamDecoderTest {
+
+    private final ThreadPoolTaskExecutor executor = newExecutor();
+    private final RecipientStreamDecoder decoder = new RecipientStreamDecoder(executor);
+
+    private static final String CSV = buildCsv(20_000);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Plain CSV passes through unchanged")
+    void plainPassesThrough() throws IOException {
+        assertEquals(CSV, readAll(decoder.decode(new ByteArrayInputStream(bytes(CSV)), null)));
+    }
+
+    @Test
+    @DisplayName("Gzip is detected from magic bytes and from Content-Encoding")
+    void gzipRoundTrip() throws IOException {
+        byte[] compressed = gzip(CSV);
+        assertEquals(CSV, readAll(decoder.decode(new ByteArrayInputStream(compressed), null)));
+        assertEquals(CSV, readAll(decoder.decode(new ByteArrayInputStream(compressed), "gzip")));
+    }
+
+    @Test
+    @DisplayName("Zstd is detected from magic bytes and from Content-Encoding")
+    void zstdRoundTrip() throws IOException {
+        byte[] compressed = zstd(CSV);
+        assertEquals(CSV, readAll(decoder.decode(new ByteArrayInputStream(compressed), null)));
+        assertEquals(CSV, readAll(decoder.decode(new ByteArrayInputStream(compressed), "zstd")));
+    }
+
+    @Test
+    @DisplayName("Corrupt compressed data surfaces as an IOException on the reading thread")
+    void corruptDataFails() throws IOException {
+        byte[] compressed = gzip(CSV);
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        InputStream in = decoder.decode(new ByteArrayInputStream(truncated), null);
+        assertThrows(IOException.class, () -> readAll(in));
+    }
+
+    @Test
+    @DisplayName("Unknown Content-Encoding is rejected")
+    void unknownEncodingRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(new ByteArrayInputStream(bytes(CSV)), "br"));
+    }
+
+    private static ThreadPoolTaskExecutor newExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        return executor;
+    }
+
+    private static String buildCsv(int rows) {
+        StringBuilder sb = new StringBuilder("recipientId,email\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append("r").append(i).append(",user").append(i).append("@example.com\n");
+        }
+        return sb.toString();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes(s));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] zstd(String s) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zs = new ZstdOutputStream(out)) {
+            zs.write(bytes(s));
+        }
+        return out.toByteArray();
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
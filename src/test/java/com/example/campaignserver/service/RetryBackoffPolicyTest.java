@@ -0,0 +1,52 @@
+package com.example.campaignserver.service;
+
+import com.example.campaignserver.config.RetryProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBackoffPolicyTest {
+
+    private final RetryBackoffPolicy policy = new RetryBackoffPolicy(new RetryProperties());
+
+    @Test
+    @DisplayName("Delay grows exponentially with equal jitter and is capped")
+    void delayGrowsAndIsCapped() {
+        // RATE_LIMITED defaults: 2s initial, x2, 5m cap
+        for (int i = 0; i < 100; i++) {
+            Duration first = policy.nextDelay("RATE_LIMITED", 1);
+            assertTrue(first.toMillis() >= 1_000 && first.toMillis() <= 2_000, "first: " + first);
+
+            Duration third = policy.nextDelay("RATE_LIMITED", 3);
+            assertTrue(third.toMillis() >= 4_000 && third.toMillis() <= 8_000, "third: " + third);
+        }
+
+        RetryProperties properties = new RetryProperties();
+        properties.setMaxAttempts(50);
+        Duration late = new RetryBackoffPolicy(properties).nextDelay("RATE_LIMITED", 30);
+        assertTrue(late.compareTo(Duration.ofMinutes(5)) <= 0);
+        assertTrue(late.compareTo(Duration.ofMinutes(2).plusSeconds(30)) >= 0);
+    }
+
+    @Test
+    @DisplayName("Unknown error codes and exhausted attempts are not retried")
+    void notRetryable() {
+        assertNull(policy.nextDelay("UNKNOWN_CHANNEL", 1));
+        assertNull(policy.nextDelay(null, 1));
+        assertNull(policy.nextDelay("PROVIDER_FAILURE", 5));
+        assertNotNull(policy.nextDelay("PROVIDER_FAILURE", 4));
+    }
+
+    @Test
+    @DisplayName("Breaker-shed sends are re-queued even with the attempt budget used up")
+    void shedDelayIgnoresAttemptBudget() {
+        // CIRCUIT_OPEN defaults: 10s initial, x2, 5m cap
+        Duration shed = policy.shedDelay(5);
+        assertTrue(shed.compareTo(Duration.ofSeconds(40)) >= 0 && shed.compareTo(Duration.ofSeconds(80)) <= 0,
+                "shed: " + shed);
+        assertNotNull(policy.shedDelay(0));
+    }
+}